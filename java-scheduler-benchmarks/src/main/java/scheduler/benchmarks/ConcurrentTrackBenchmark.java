@@ -0,0 +1,65 @@
+package scheduler.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import scheduler.ConcurrentTrack;
+import scheduler.Resource;
+import scheduler.ScheduledEvent;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Measures the time to schedule and deliver a batch of events on a {@link ConcurrentTrack} with a number of producer
+ * threads, while a single thread delivers the frames of the track.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentTrackBenchmark {
+
+    private static final int EVENTS_PER_PRODUCER = 50000;
+
+    @Param({"1", "2", "4", "8"})
+    public int producers;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newFixedThreadPool(producers);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void scheduleAndDeliver(Blackhole blackhole) throws Exception {
+        ConcurrentTrack<Integer> track = new ConcurrentTrack<>();
+        CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            final int offset = p * EVENTS_PER_PRODUCER;
+            executor.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = offset; i < offset + EVENTS_PER_PRODUCER; i++) {
+                    track.schedule(new ScheduledEvent<>((long) i, track.getPosition() + random.nextInt(100),
+                            Resource.of(i)));
+                }
+                done.countDown();
+            });
+        }
+
+        while (done.getCount() > 0 || !track.isEmpty()) {
+            List<Integer> frame = track.nextFrame();
+            if (frame != null) {
+                blackhole.consume(frame);
+            }
+        }
+    }
+}
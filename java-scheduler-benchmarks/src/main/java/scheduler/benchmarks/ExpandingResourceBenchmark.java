@@ -0,0 +1,49 @@
+package scheduler.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import scheduler.Cart;
+import scheduler.ExpandingResource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of taking {@link Cart}s from an {@link ExpandingResource}, where some of the carts are loaded from
+ * a repository and the rest are created by the factory of the resource.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpandingResourceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int carts;
+
+    @Param({"1", "16"})
+    public int limit;
+
+    private MapRepository repository;
+
+    @Setup
+    public void setup() {
+        // Every other frame has a stored cart
+        repository = new MapRepository();
+        for (long i = 0; i < carts; i += 2) {
+            repository.save(new Cart<>(i));
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void take(Blackhole blackhole) {
+        Cart<Integer>[] buffer = new Cart[]{};
+        ExpandingResource<Cart<Integer>, Integer> resource = new ExpandingResource<>(buffer, Cart::new, repository);
+
+        for (int taken = 0; taken < carts; taken += limit) {
+            blackhole.consume(resource.take(limit));
+        }
+    }
+}
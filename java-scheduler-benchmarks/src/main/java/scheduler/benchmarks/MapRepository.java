@@ -0,0 +1,42 @@
+package scheduler.benchmarks;
+
+import scheduler.Cart;
+import scheduler.ScheduledEvent;
+import scheduler.StreamingRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link StreamingRepository} that keeps its {@link Cart}s in a {@link HashMap}, so that the benchmarks measure the
+ * engine and not the storage of the carts.
+ */
+class MapRepository implements StreamingRepository<Cart<Integer>, Integer> {
+
+    private final Map<Long, Cart<Integer>> carts = new HashMap<>();
+
+    @Override
+    public Cart<Integer> getById(Long id) {
+        return carts.get(id);
+    }
+
+    @Override
+    public void save(Cart<Integer> cart) {
+        carts.put(cart.getId(), cart);
+    }
+
+    @Override
+    public ScheduledEvent<Integer> saveOrder(ScheduledEvent<Integer> scheduledEvent) {
+        return scheduledEvent;
+    }
+
+    @Override
+    public void remove(Long id) {
+        carts.remove(id);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return carts.isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+package scheduler.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import scheduler.IntResource;
+import scheduler.Resource;
+import scheduler.ResourceState;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of unpacking every item of a {@link Resource}, comparing {@link Resource#take(Integer)} with the
+ * allocation-free {@link Resource#drainTo(int, java.util.function.Consumer)} and the primitive {@link IntResource}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceBenchmark {
+
+    @Param({"16", "1024"})
+    public int size;
+
+    @Param({"1", "16"})
+    public int limit;
+
+    private Integer[] items;
+    private int[] primitives;
+
+    @Setup
+    public void setup() {
+        items = new Integer[size];
+        primitives = new int[size];
+        for (int i = 0; i < size; i++) {
+            items[i] = i;
+            primitives[i] = i;
+        }
+    }
+
+    @Benchmark
+    public void take(Blackhole blackhole) {
+        Resource<Integer> resource = Resource.of(items);
+        while (resource.getState() != ResourceState.EXHAUSTED) {
+            blackhole.consume(resource.take(limit));
+        }
+    }
+
+    @Benchmark
+    public void drainTo(Blackhole blackhole) {
+        Resource<Integer> resource = Resource.of(items);
+        while (resource.getState() != ResourceState.EXHAUSTED) {
+            resource.drainTo(limit, blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void drainToInt(Blackhole blackhole) {
+        IntResource resource = new IntResource(primitives);
+        while (resource.getState() != ResourceState.EXHAUSTED) {
+            resource.drainToInt(limit, blackhole::consume);
+        }
+    }
+}
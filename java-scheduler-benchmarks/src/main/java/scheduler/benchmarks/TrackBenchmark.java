@@ -0,0 +1,88 @@
+package scheduler.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import scheduler.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of scheduling events on a {@link Track} and of delivering every frame of the track, for dense
+ * schedules where many events share a {@link Cart} and for sparse schedules where most frames are empty.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackBenchmark {
+
+    @Param({"track", "timing-wheel"})
+    public String track;
+
+    @Param({"dense", "sparse"})
+    public String schedule;
+
+    @Param({"1000", "10000"})
+    public int events;
+
+    @Param({"1", "8"})
+    public int resourceSize;
+
+    private long[] deliveryTimes;
+    private Integer[][] items;
+
+    @Setup
+    public void setup() {
+        // A dense schedule fills each cart with about 64 events, a sparse schedule leaves about 99 of 100 frames empty
+        long horizon = schedule.equals("dense") ? Math.max(1, events / 64) : events * 100L;
+        Random random = new Random(42L);
+
+        deliveryTimes = new long[events];
+        items = new Integer[events][];
+        for (int i = 0; i < events; i++) {
+            deliveryTimes[i] = (long) (random.nextDouble() * horizon);
+            items[i] = new Integer[resourceSize];
+            for (int j = 0; j < resourceSize; j++) {
+                items[i][j] = i;
+            }
+        }
+    }
+
+    @Benchmark
+    public Track<Integer> schedule() {
+        Track<Integer> result = newTrack();
+        scheduleAll(result);
+        return result;
+    }
+
+    @Benchmark
+    public void scheduleAndDeliver(Blackhole blackhole) {
+        Track<Integer> result = newTrack();
+        scheduleAll(result);
+
+        while (result.getOrders() > 0) {
+            List<Integer> frame = result.nextFrame();
+            blackhole.consume(frame);
+        }
+    }
+
+    private void scheduleAll(Track<Integer> result) {
+        for (int i = 0; i < events; i++) {
+            result.schedule(new ScheduledEvent<>((long) i, deliveryTimes[i], Resource.of(items[i])));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Track<Integer> newTrack() {
+        if (track.equals("timing-wheel")) {
+            return new TimingWheelTrack<>();
+        }
+
+        Cart<Integer>[] carts = new Cart[]{};
+        return new Track<>(new ExpandingResource<>(carts, Cart::new, new MapRepository()));
+    }
+}
@@ -0,0 +1,269 @@
+package scheduler;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link BoundedTrack} is a {@link ConcurrentTrack} that limits the number of {@link ScheduledEvent}s that can be
+ * scheduled in a single frame, and the number of events that are pending on the whole track. When a producer schedules
+ * an event that does not fit, the {@link Policy} of the track decides what happens to the producer:
+ * <ul>
+ * <li>{@link Policy#BLOCK} waits until the track has room for the event. When the frame of the event is full, the
+ * producer waits until the frame is delivered, and the event is scheduled on the next frame instead.</li>
+ * <li>{@link Policy#FAIL} throws an {@link IllegalStateException} without scheduling the event.</li>
+ * <li>{@link Policy#SPILL} schedules the event on the first later frame that has room. Spilling cannot make room on
+ * the track, so a full track throws an {@link IllegalStateException}, like {@link Policy#FAIL}.</li>
+ * </ul>
+ * Only new events count towards the limit of a frame. Events that overflow to the next frame because they still have
+ * resources are always accepted, since they are rescheduled by the thread that delivers the frames.
+ * <p>
+ * Producers can also publish their events to the track through a {@link Flow.Subscriber} from {@link #subscriber()},
+ * which requests events from a {@link Flow.Publisher} only while the track has room for them, and cancels its
+ * subscription when an event does not fit anyway. A blocking track must never be scheduled on by the thread that
+ * delivers its frames, because that thread is the one that makes room, which also rules out publishers that emit
+ * events on the thread that requests them.
+ *
+ * @param <T> is the type of resource delivered by the track
+ */
+public class BoundedTrack<T> extends ConcurrentTrack<T> {
+
+    /**
+     * The policy for the events that do not fit in a {@link BoundedTrack}.
+     */
+    public enum Policy {
+        BLOCK,
+        FAIL,
+        SPILL
+    }
+
+    private final int frameCapacity;
+    private final int capacity;
+    private final Policy policy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final TreeMap<Long, Integer> frames = new TreeMap<>();
+    private final List<Producer> producers = new CopyOnWriteArrayList<>();
+    private long requested = 0L;
+
+    public BoundedTrack(int frameCapacity, int capacity, Policy policy) {
+        this(Runtime.getRuntime().availableProcessors(), Cart::new, frameCapacity, capacity, policy);
+    }
+
+    /**
+     * Creates a {@link BoundedTrack} that limits the events of each frame and of the track.
+     *
+     * @param concurrency   is the expected number of threads that schedule events concurrently
+     * @param cartFactory   is the factory that creates the carts of the wheels
+     * @param frameCapacity is the number of new events that can be scheduled in a single frame
+     * @param capacity      is the number of events that can be pending on the track
+     * @param policy        is the policy for the events that do not fit
+     */
+    public BoundedTrack(int concurrency, Supplier<Cart<T>> cartFactory, int frameCapacity, int capacity,
+                        Policy policy) {
+        super(concurrency, cartFactory);
+        if (frameCapacity < 1) {
+            throw new IllegalArgumentException("Frame capacity must be positive: " + frameCapacity);
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+
+        this.frameCapacity = frameCapacity;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Schedules an event on the track, applying the policy of the track when the event does not fit. This method is
+     * safe to call from any thread.
+     *
+     * @param scheduledEvent is the event to deliver at its delivery time
+     * @throws IllegalStateException if the event does not fit and cannot wait, or the producer was interrupted
+     */
+    @Override
+    public void schedule(ScheduledEvent<T> scheduledEvent) {
+        if (scheduledEvent.getState() != ResourceState.FULL) {
+            super.schedule(scheduledEvent);
+            return;
+        }
+
+        lock.lock();
+        try {
+            long frame = scheduledEvent.getDeliveryTime();
+            while (true) {
+                frame = Math.max(frame, getPosition());
+
+                if (getOrders() >= capacity) {
+                    if (policy != Policy.BLOCK) {
+                        throw new IllegalStateException("Track is full: " + capacity + " pending events");
+                    }
+                    await();
+                } else if (frames.getOrDefault(frame, 0) >= frameCapacity) {
+                    if (policy == Policy.FAIL) {
+                        throw new IllegalStateException("Frame is full: " + frame);
+                    } else if (policy == Policy.SPILL) {
+                        frame++;
+                    } else {
+                        await();
+                    }
+                } else {
+                    break;
+                }
+            }
+
+            frames.merge(frame, 1, Integer::sum);
+            scheduledEvent.setDeliveryTime(frame);
+            super.schedule(scheduledEvent);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void await() {
+        try {
+            notFull.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for room on the track", ex);
+        }
+    }
+
+    @Override
+    protected <R> R deliver(Function<Cart<T>, R> unpack) {
+        R result = super.deliver(unpack);
+        release();
+        return result;
+    }
+
+    @Override
+    public Long skipEmptyFrames() {
+        Long position = super.skipEmptyFrames();
+        release();
+        return position;
+    }
+
+    /**
+     * Forgets the frames that were delivered, wakes up the blocked producers, and requests more events from the
+     * subscribed publishers.
+     */
+    private void release() {
+        lock.lock();
+        try {
+            frames.headMap(getPosition()).clear();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        for (Producer producer : producers) {
+            producer.request();
+        }
+    }
+
+    /**
+     * Gets the number of events that can be scheduled before the track is full.
+     *
+     * @return the remaining capacity of the track
+     */
+    public int remainingCapacity() {
+        return Math.max(0, capacity - getOrders());
+    }
+
+    /**
+     * Creates a {@link Flow.Subscriber} that schedules the events of a {@link Flow.Publisher} on the track. The
+     * subscriber requests events as the track makes room for them, and the room on the track is shared between all of
+     * its subscribers.
+     *
+     * @return a subscriber for one publisher
+     */
+    public Flow.Subscriber<ScheduledEvent<T>> subscriber() {
+        return new Producer();
+    }
+
+    public int getFrameCapacity() {
+        return frameCapacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    private final class Producer implements Flow.Subscriber<ScheduledEvent<T>> {
+
+        private Flow.Subscription subscription;
+        private long outstanding = 0L;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            producers.add(this);
+            request();
+        }
+
+        @Override
+        public void onNext(ScheduledEvent<T> scheduledEvent) {
+            try {
+                schedule(scheduledEvent);
+            } catch (IllegalStateException ex) {
+                subscription.cancel();
+                unsubscribe();
+                return;
+            }
+
+            // The event is only taken off the outstanding events once it counts towards the track
+            synchronized (producers) {
+                outstanding--;
+                requested--;
+            }
+
+            request();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            unsubscribe();
+        }
+
+        @Override
+        public void onComplete() {
+            unsubscribe();
+        }
+
+        private void unsubscribe() {
+            synchronized (producers) {
+                producers.remove(this);
+                requested -= outstanding;
+                outstanding = 0L;
+            }
+        }
+
+        /**
+         * Requests a share of the room on the track that was not already requested by any of the subscribers.
+         */
+        private void request() {
+            long demand;
+            synchronized (producers) {
+                long free = remainingCapacity() - requested;
+                if (free <= 0 || !producers.contains(this)) {
+                    return;
+                }
+
+                demand = Math.max(1, free / producers.size());
+                outstanding += demand;
+                requested += demand;
+            }
+
+            subscription.request(demand);
+        }
+    }
+}
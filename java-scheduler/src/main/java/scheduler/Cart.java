@@ -1,8 +1,11 @@
 package scheduler;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
@@ -50,6 +53,23 @@ public class Cart<T> {
         scheduledEvents.add(scheduledEvent);
     }
 
+    /**
+     * Removes every {@link ScheduledEvent} from this cart, so that the cart can be reused for another frame.
+     */
+    public void clear() {
+        scheduledEvents.clear();
+    }
+
+    /**
+     * Selects the events that are unpacked when this cart is delivered, in the order that they are unpacked. Events that
+     * are not selected keep their resources and overflow to the next frame of the {@link Track}.
+     *
+     * @return the events to unpack
+     */
+    protected List<ScheduledEvent<T>> select() {
+        return scheduledEvents;
+    }
+
     public Stream<ArrayList<T>> streamMultiChannel() {
         return scheduledEvents.stream().map(o -> o.getResource().take(SIZE));
     }
@@ -58,4 +78,131 @@ public class Cart<T> {
         return scheduledEvents.stream().map(o -> o.getResource().take(SIZE))
                 .flatMap(Collection::stream);
     }
+
+    /**
+     * Unpacks the resources of every {@link ScheduledEvent} in this cart into a single channel, in the order that the
+     * events were committed. Unlike {@link #streamSingleChannel()}, no intermediate collections are created.
+     *
+     * @param consumer is the consumer that accepts each unpacked resource
+     * @return the number of resources that were unpacked
+     */
+    public int drainTo(Consumer<? super T> consumer) {
+        return drainTo(SIZE, consumer);
+    }
+
+    /**
+     * Unpacks up to a frame size of resources from every {@link ScheduledEvent} in this cart into a single channel.
+     * An event that has its own frame size unpacks that many resources instead.
+     *
+     * @param frameSize is the number of resources to unpack from each event
+     * @param consumer  is the consumer that accepts each unpacked resource
+     * @return the number of resources that were unpacked
+     */
+    public int drainTo(int frameSize, Consumer<? super T> consumer) {
+        return drain(select(), frameSize, consumer);
+    }
+
+    /**
+     * Unpacks the resources of this cart into separate channels, where each {@link ScheduledEvent} is assigned to a
+     * channel by a key, such as the vendor that scheduled it. The channels are unpacked in parallel on a
+     * {@link ForkJoinPool}, while the resources inside of each channel are unpacked in the order that the events were
+     * committed.
+     *
+     * @param channel is the function that assigns an event to a channel
+     * @param pool    is the pool that unpacks the channels
+     * @param <K>     is the type of channel key
+     * @return the resources of each channel, in the order that the channels first appear in the cart
+     */
+    public <K> Map<K, List<T>> drainByChannel(Function<? super ScheduledEvent<T>, ? extends K> channel,
+                                              ForkJoinPool pool) {
+        return drainByChannel(SIZE, channel, pool);
+    }
+
+    /**
+     * Unpacks up to a frame size of resources from every {@link ScheduledEvent} in this cart into separate channels.
+     *
+     * @param frameSize is the number of resources to unpack from each event that does not have its own frame size
+     * @param channel   is the function that assigns an event to a channel
+     * @param pool      is the pool that unpacks the channels
+     * @param <K>       is the type of channel key
+     * @return the resources of each channel, in the order that the channels first appear in the cart
+     * @see #drainByChannel(Function, ForkJoinPool)
+     */
+    public <K> Map<K, List<T>> drainByChannel(int frameSize, Function<? super ScheduledEvent<T>, ? extends K> channel,
+                                              ForkJoinPool pool) {
+        return drainByChannel(frameSize, channel, (key, items) -> {
+        }, pool);
+    }
+
+    /**
+     * Unpacks up to a frame size of resources from every {@link ScheduledEvent} in this cart into separate channels,
+     * and hands the resources of each channel to a handler inside of the task that unpacked them. The handlers of
+     * different channels run in parallel on the pool, and the handler of a channel is only called when the channel has
+     * resources. When the cart has a single channel, it is unpacked and handled on the calling thread.
+     *
+     * @param frameSize is the number of resources to unpack from each event that does not have its own frame size
+     * @param channel   is the function that assigns an event to a channel
+     * @param handler   is the handler of the resources of a channel
+     * @param pool      is the pool that unpacks and handles the channels
+     * @param <K>       is the type of channel key
+     * @return the resources of each channel, in the order that the channels first appear in the cart
+     */
+    public <K> Map<K, List<T>> drainByChannel(int frameSize, Function<? super ScheduledEvent<T>, ? extends K> channel,
+                                              BiConsumer<? super K, ? super List<T>> handler, ForkJoinPool pool) {
+        List<ScheduledEvent<T>> selected = select();
+        Map<K, List<ScheduledEvent<T>>> channels = new LinkedHashMap<>();
+        for (int i = 0; i < selected.size(); i++) {
+            ScheduledEvent<T> scheduledEvent = selected.get(i);
+            channels.computeIfAbsent(channel.apply(scheduledEvent), k -> new ArrayList<>()).add(scheduledEvent);
+        }
+
+        Map<K, List<T>> result = new LinkedHashMap<>();
+        if (channels.size() < 2) {
+            channels.forEach((key, events) -> result.put(key, drain(key, events, frameSize, handler)));
+            return result;
+        }
+
+        Map<K, ForkJoinTask<List<T>>> tasks = new LinkedHashMap<>();
+        channels.forEach((key, events) -> tasks.put(key, pool.submit(() -> drain(key, events, frameSize, handler))));
+        tasks.forEach((key, task) -> result.put(key, task.join()));
+
+        return result;
+    }
+
+    private static <K, T> List<T> drain(K key, List<ScheduledEvent<T>> events, int frameSize,
+                                        BiConsumer<? super K, ? super List<T>> handler) {
+        List<T> items = drain(events, frameSize);
+        if (!items.isEmpty()) {
+            handler.accept(key, items);
+        }
+        return items;
+    }
+
+    private static <T> List<T> drain(List<ScheduledEvent<T>> events, int frameSize) {
+        List<T> result = new ArrayList<>();
+        drain(events, frameSize, result::add);
+        return result;
+    }
+
+    private static <T> int drain(List<ScheduledEvent<T>> events, int frameSize, Consumer<? super T> consumer) {
+        int count = 0;
+        for (int i = 0; i < events.size(); i++) {
+            ScheduledEvent<T> scheduledEvent = events.get(i);
+            if (scheduledEvent.isSuperseded()) {
+                exhaust(scheduledEvent);
+                continue;
+            }
+
+            Integer size = scheduledEvent.getFrameSize();
+            count += scheduledEvent.getResource().drainTo(size == null ? frameSize : size, consumer);
+        }
+        return count;
+    }
+
+    /**
+     * Exhausts the resource of an event without delivering any of its items.
+     */
+    static <T> void exhaust(ScheduledEvent<T> scheduledEvent) {
+        scheduledEvent.getResource().drainTo(Integer.MAX_VALUE, (item) -> {});
+    }
 }
@@ -0,0 +1,70 @@
+package scheduler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link Codec} writes the items of a {@link Resource} to a {@link ByteBuffer} and reads them back, so that
+ * {@link ScheduledEvent}s can be stored outside of the heap by a {@link MappedStreamingRepository}.
+ *
+ * @param <T> is the type of item that is encoded
+ */
+public interface Codec<T> {
+
+    Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public void encode(Integer item, ByteBuffer buffer) {
+            buffer.putInt(item);
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer) {
+            return buffer.getInt();
+        }
+    };
+
+    Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public void encode(Long item, ByteBuffer buffer) {
+            buffer.putLong(item);
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer) {
+            return buffer.getLong();
+        }
+    };
+
+    Codec<String> STRING = new Codec<String>() {
+        @Override
+        public void encode(String item, ByteBuffer buffer) {
+            byte[] bytes = item.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Writes an item at the current position of the buffer.
+     *
+     * @param item   is the item to encode
+     * @param buffer is the buffer to write to
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space remaining for the item
+     */
+    void encode(T item, ByteBuffer buffer);
+
+    /**
+     * Reads an item from the current position of the buffer.
+     *
+     * @param buffer is the buffer to read from
+     * @return the decoded item
+     */
+    T decode(ByteBuffer buffer);
+}
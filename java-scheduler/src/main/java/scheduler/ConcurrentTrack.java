@@ -0,0 +1,162 @@
+package scheduler;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link ConcurrentTrack} is a {@link TimingWheelTrack} that accepts {@link ScheduledEvent}s from many producer
+ * threads, while a single consumer thread advances the frames of the track.
+ * <p>
+ * Producers never touch the timing wheels. A scheduled event is handed off to the consumer through one of several
+ * lock-free queues, striped by producer thread, and the consumer commits every pending event to the wheels right before
+ * it delivers the next frame. Producers that schedule from different threads rarely contend on the same queue, and
+ * the count of order requests is kept in a {@link LongAdder} so that it does not become a point of contention either.
+ * The events scheduled by one thread are committed in the order they were scheduled.
+ * <p>
+ * The position of the track is published after every frame, so that producers can compute delivery times relative to
+ * the frame that the consumer is about to deliver.
+ *
+ * @param <T> is the type of resource delivered by the track
+ */
+public class ConcurrentTrack<T> extends TimingWheelTrack<T> {
+
+    private final ConcurrentLinkedQueue<ScheduledEvent<T>>[] pendingEvents;
+    private final int stripeMask;
+    private final LongAdder orderRequests = new LongAdder();
+    private volatile long exhaustedRequests = 0L;
+    private volatile long position = 0L;
+
+    public ConcurrentTrack() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a {@link ConcurrentTrack} with enough pending event queues for the expected number of producer threads.
+     *
+     * @param concurrency is the expected number of threads that schedule events concurrently
+     */
+    public ConcurrentTrack(int concurrency) {
+        this(concurrency, Cart::new);
+    }
+
+    /**
+     * Creates a {@link ConcurrentTrack} that commits events to the carts of a factory, such as {@link PriorityCart}s.
+     *
+     * @param concurrency is the expected number of threads that schedule events concurrently
+     * @param cartFactory is the factory that creates the carts of the wheels
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentTrack(int concurrency, Supplier<Cart<T>> cartFactory) {
+        super(cartFactory);
+        int stripes = Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1;
+        this.pendingEvents = new ConcurrentLinkedQueue[stripes];
+        this.stripeMask = stripes - 1;
+
+        for (int i = 0; i < stripes; i++) {
+            pendingEvents[i] = new ConcurrentLinkedQueue<>();
+        }
+    }
+
+    /**
+     * Schedules an event on the track. This method is safe to call from any thread.
+     *
+     * @param scheduledEvent is the event to deliver at its delivery time
+     */
+    @Override
+    public void schedule(ScheduledEvent<T> scheduledEvent) {
+        if (scheduledEvent.getState() == ResourceState.FULL) {
+            orderRequests.increment();
+        }
+
+        pendingEvents[(int) Thread.currentThread().getId() & stripeMask].offer(scheduledEvent);
+    }
+
+    /**
+     * Delivers the next frame of the track. This method must only be called from one thread at a time, which applies
+     * to every variant of {@link #nextFrame()}.
+     */
+    @Override
+    protected <R> R deliver(Function<Cart<T>, R> unpack) {
+        commitPendingEvents();
+
+        int committed = super.getOrders();
+        R result = super.deliver(unpack);
+        exhaustedRequests += committed - super.getOrders();
+        position = super.getPosition();
+
+        return result;
+    }
+
+    /**
+     * Skips to the next frame with a scheduled event. This method must only be called from the thread that delivers the
+     * frames of the track.
+     *
+     * @return the position of the next frame that will be delivered
+     */
+    @Override
+    public Long skipEmptyFrames() {
+        commitPendingEvents();
+        position = super.skipEmptyFrames();
+        return position;
+    }
+
+    /**
+     * Takes a snapshot of the track, including the events that were scheduled but not committed yet. This method must
+     * only be called from the thread that delivers the frames of the track.
+     *
+     * @return a snapshot of the track
+     */
+    @Override
+    public TrackSnapshot<T> snapshot() {
+        commitPendingEvents();
+        return super.snapshot();
+    }
+
+    /**
+     * Restores a snapshot into an empty track. This method must only be called from the thread that delivers the frames
+     * of the track.
+     *
+     * @param snapshot is the snapshot to restore
+     */
+    @Override
+    public void restore(TrackSnapshot<T> snapshot) {
+        commitPendingEvents();
+        super.restore(snapshot);
+        orderRequests.add(snapshot.size());
+        position = super.getPosition();
+    }
+
+    private void commitPendingEvents() {
+        for (ConcurrentLinkedQueue<ScheduledEvent<T>> stripe : pendingEvents) {
+            ScheduledEvent<T> scheduledEvent;
+            while ((scheduledEvent = stripe.poll()) != null) {
+                super.schedule(scheduledEvent);
+            }
+        }
+    }
+
+    @Override
+    public Long getPosition() {
+        return position;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return getOrders() == 0;
+    }
+
+    @Override
+    public Integer getOrders() {
+        return (int) (orderRequests.sum() - exhaustedRequests);
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentTrack{" +
+                "position=" + position +
+                ", orderRequests=" + getOrders() +
+                '}';
+    }
+}
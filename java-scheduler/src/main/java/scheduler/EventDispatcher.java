@@ -0,0 +1,148 @@
+package scheduler;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * An {@link EventDispatcher} runs the action of every resource in a frame on its own task, instead of one after the
+ * other on the thread that delivers the frame. This suits actions that spend most of their time blocked, such as
+ * calls to a remote service, where the time to process a frame becomes the time of its slowest action rather than the
+ * sum of all of them.
+ * <p>
+ * The number of actions that run at the same time is limited across every frame of the dispatcher. The thread that
+ * dispatches a frame takes a permit before it submits each action, so it waits while the limit is reached, including
+ * by actions of an earlier frame that are still running.
+ * <p>
+ * The frame is then completed by a barrier that waits for every action of the frame to finish. The barrier can have a
+ * timeout, after which the frame is completed while its remaining actions keep running, so that a slow action does not
+ * hold back the next frames of the other tracks of a {@link Scheduler}. While the barrier waits, it holds the thread
+ * that delivers the frame, so a barrier timeout of zero completes the frame as soon as its actions are submitted.
+ * <p>
+ * When the runtime supports virtual threads, {@link #virtualThreads(int, long, TimeUnit)} creates a dispatcher that
+ * starts a virtual thread for every action. Otherwise, the actions run on a pool of at most as many daemon threads as
+ * the actions that can run at the same time.
+ */
+public class EventDispatcher implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final long barrierNanos;
+
+    public EventDispatcher(ExecutorService executor, int maxConcurrency) {
+        this(executor, maxConcurrency, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a dispatcher that runs the actions of each frame on an executor.
+     *
+     * @param executor       is the executor that runs the actions
+     * @param maxConcurrency is the number of actions that can run at the same time
+     * @param barrierTimeout is the longest time to wait for the actions of a frame to finish, or zero to not wait
+     * @param unit           is the unit of the barrier timeout
+     */
+    public EventDispatcher(ExecutorService executor, int maxConcurrency, long barrierTimeout, TimeUnit unit) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be positive: " + maxConcurrency);
+        }
+        if (barrierTimeout < 0) {
+            throw new IllegalArgumentException("Barrier timeout must not be negative: " + barrierTimeout);
+        }
+
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.barrierNanos = unit.toNanos(barrierTimeout);
+    }
+
+    /**
+     * Creates a dispatcher that starts a virtual thread for every action, or falls back to a pool of daemon threads
+     * when the runtime does not support virtual threads.
+     *
+     * @param maxConcurrency is the number of actions that can run at the same time
+     * @param barrierTimeout is the longest time to wait for the actions of a frame to finish, or zero to not wait
+     * @param unit           is the unit of the barrier timeout
+     * @return the dispatcher
+     */
+    public static EventDispatcher virtualThreads(int maxConcurrency, long barrierTimeout, TimeUnit unit) {
+        return new EventDispatcher(newVirtualThreadExecutor(maxConcurrency), maxConcurrency, barrierTimeout, unit);
+    }
+
+    private static ExecutorService newVirtualThreadExecutor(int maxConcurrency) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+            // Virtual threads are only available from Java 21, or as a preview feature before that, so the actions share
+            // a pool that never has more threads than the permits of the dispatcher
+            AtomicInteger count = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "event-dispatcher-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * Runs an action for every resource of a frame, and waits for the actions to finish until the barrier timeout.
+     * The calling thread waits for a permit before it submits each action.
+     *
+     * @param frame  is the resources of the frame
+     * @param action is the action to run for each resource
+     * @param <T>    is the type of resource
+     * @return true if every action finished before the barrier timeout
+     */
+    public <T> boolean dispatch(List<T> frame, Consumer<? super T> action) {
+        CountDownLatch barrier = new CountDownLatch(frame.size());
+
+        for (T item : frame) {
+            try {
+                permits.acquire();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+
+            try {
+                executor.execute(() -> {
+                    try {
+                        action.accept(item);
+                    } catch (RuntimeException ex) {
+                        ex.printStackTrace();
+                    } finally {
+                        permits.release();
+                        barrier.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                permits.release();
+                throw ex;
+            }
+        }
+
+        if (barrierNanos == 0) {
+            return barrier.getCount() == 0;
+        }
+
+        try {
+            return barrier.await(barrierNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -1,12 +1,10 @@
 package scheduler;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Objects;
+import java.util.Arrays;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.LongStream;
-import java.util.stream.Stream;
 
 /**
  * A {@link Resource} is an immutable container of items that incrementally returns a subset of the initial buffer.
@@ -24,7 +22,7 @@ import java.util.stream.Stream;
  */
 public class ExpandingResource<T, V> extends Resource<T> {
 
-    private final ArrayList<T> expandingBuffer = new ArrayList<>();
+    private final ArrayDeque<T> expandingBuffer = new ArrayDeque<>();
     private final Function<Long, T> factory;
     private final StreamingRepository<T, V> repository;
 
@@ -32,13 +30,13 @@ public class ExpandingResource<T, V> extends Resource<T> {
                              StreamingRepository<T, V> repository) {
         super(size, position, buffer);
         this.repository = repository;
-        expandingBuffer.addAll(Stream.of(buffer).collect(Collectors.toList()));
+        expandingBuffer.addAll(Arrays.asList(buffer));
         this.factory = factory;
     }
 
     public ExpandingResource(T[] buffer, Function<Long, T> factory, StreamingRepository<T, V> repository) {
         super(0, 0, buffer);
-        expandingBuffer.addAll(Stream.of(buffer).collect(Collectors.toList()));
+        expandingBuffer.addAll(Arrays.asList(buffer));
         this.factory = factory;
         this.repository = repository;
     }
@@ -53,34 +51,38 @@ public class ExpandingResource<T, V> extends Resource<T> {
 
     @Override
     public ArrayList<T> take(Integer limit) {
-        ArrayList<T> result;
+        ArrayList<T> result = new ArrayList<>(limit);
+        drainTo(limit, result::add);
+        return result;
+    }
+
+    @Override
+    public int drainTo(int limit, Consumer<? super T> consumer) {
+        int count;
         synchronized (this) {
-            int overflow = Math.max(0, (position.get() + limit) - size);
+            int start = position.get();
+            int overflow = Math.max(0, (start + limit) - size);
 
-            if (overflow > 0) {
-                // Expand the buffer
-                expandingBuffer.addAll(LongStream.range(size, size + overflow)
-                        .mapToObj(i -> {
-                            T item = repository.getById(i);
-                            if (item == null)
-                                item = factory.apply(i);
-                            return item;
-                        }).collect(Collectors.toList()));
-                size += overflow;
+            // Expand the buffer
+            for (long i = size; i < size + overflow; i++) {
+                T item = repository.getById(i);
+                if (item == null)
+                    item = factory.apply(i);
+                expandingBuffer.addLast(item);
             }
+            size += overflow;
 
-            int end = Math.min(position.get() + limit, size);
-            int start = position.get();
+            int end = Math.min(start + limit, size);
             position.set(end);
 
-            result = IntStream.range(start, end)
-                    .mapToObj(i -> expandingBuffer.get(i - start))
-                    .peek(expandingBuffer::remove)
-                    .collect(Collectors.toCollection(ArrayList::new));
+            // Items are removed from the head of the buffer as they are taken
+            for (count = 0; count < end - start; count++) {
+                consumer.accept(expandingBuffer.pollFirst());
+            }
 
-            if (Objects.equals(position.get(), size))
+            if (position.get() == size)
                 state = ResourceState.EXHAUSTED;
         }
-        return result;
+        return count;
     }
 }
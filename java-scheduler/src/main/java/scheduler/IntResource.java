@@ -0,0 +1,89 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * An {@link IntResource} is a {@link Resource} of primitive {@code int} items. Draining the resource into an
+ * {@link IntConsumer} does not box any of the items, which makes it suitable for resources that are unpacked on every
+ * frame of a {@link Track}.
+ */
+public class IntResource extends Resource<Integer> {
+
+    private final int[] items;
+
+    public IntResource(int... items) {
+        super(items.length, 0, (Integer[]) null);
+        this.items = items;
+    }
+
+    /**
+     * Drains the specified number of items from the resource into a consumer and increments the position until the
+     * resource is empty.
+     *
+     * @param limit    is the number of items to drain from the resource
+     * @param consumer is the consumer that accepts each item between the current position and the limit
+     * @return the number of items that were drained
+     */
+    public int drainToInt(int limit, IntConsumer consumer) {
+        int start = claim(limit);
+        int end = start + Math.min(limit, size - start);
+
+        for (int i = start; i < end; i++) {
+            consumer.accept(items[i]);
+        }
+
+        return end - start;
+    }
+
+    @Override
+    public int drainTo(int limit, Consumer<? super Integer> consumer) {
+        int start = claim(limit);
+        int end = start + Math.min(limit, size - start);
+
+        for (int i = start; i < end; i++) {
+            consumer.accept(items[i]);
+        }
+
+        return end - start;
+    }
+
+    @Override
+    public ArrayList<Integer> take(Integer limit) {
+        int start = claim(limit);
+        int end = start + Math.min(limit, size - start);
+
+        ArrayList<Integer> result = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            result.add(items[i]);
+        }
+
+        return result;
+    }
+
+    @Override
+    protected void load() {
+        state = ResourceState.NOT_EMPTY;
+    }
+
+    @Override
+    public Integer[] getBuffer() {
+        return Arrays.stream(items).boxed().toArray(Integer[]::new);
+    }
+
+    public int[] getItems() {
+        return items.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "IntResource{" +
+                "size=" + size +
+                ", position=" + position +
+                ", items=" + Arrays.toString(items) +
+                ", state=" + state +
+                '}';
+    }
+}
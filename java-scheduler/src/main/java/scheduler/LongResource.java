@@ -0,0 +1,89 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link LongResource} is a {@link Resource} of primitive {@code long} items. Draining the resource into an
+ * {@link LongConsumer} does not box any of the items, which makes it suitable for resources that are unpacked on every
+ * frame of a {@link Track}.
+ */
+public class LongResource extends Resource<Long> {
+
+    private final long[] items;
+
+    public LongResource(long... items) {
+        super(items.length, 0, (Long[]) null);
+        this.items = items;
+    }
+
+    /**
+     * Drains the specified number of items from the resource into a consumer and increments the position until the
+     * resource is empty.
+     *
+     * @param limit    is the number of items to drain from the resource
+     * @param consumer is the consumer that accepts each item between the current position and the limit
+     * @return the number of items that were drained
+     */
+    public int drainToLong(int limit, LongConsumer consumer) {
+        int start = claim(limit);
+        int end = start + Math.min(limit, size - start);
+
+        for (int i = start; i < end; i++) {
+            consumer.accept(items[i]);
+        }
+
+        return end - start;
+    }
+
+    @Override
+    public int drainTo(int limit, Consumer<? super Long> consumer) {
+        int start = claim(limit);
+        int end = start + Math.min(limit, size - start);
+
+        for (int i = start; i < end; i++) {
+            consumer.accept(items[i]);
+        }
+
+        return end - start;
+    }
+
+    @Override
+    public ArrayList<Long> take(Integer limit) {
+        int start = claim(limit);
+        int end = start + Math.min(limit, size - start);
+
+        ArrayList<Long> result = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            result.add(items[i]);
+        }
+
+        return result;
+    }
+
+    @Override
+    protected void load() {
+        state = ResourceState.NOT_EMPTY;
+    }
+
+    @Override
+    public Long[] getBuffer() {
+        return Arrays.stream(items).boxed().toArray(Long[]::new);
+    }
+
+    public long[] getItems() {
+        return items.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "LongResource{" +
+                "size=" + size +
+                ", position=" + position +
+                ", items=" + Arrays.toString(items) +
+                ", state=" + state +
+                '}';
+    }
+}
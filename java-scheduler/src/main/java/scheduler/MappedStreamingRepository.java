@@ -0,0 +1,434 @@
+package scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Array;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A {@link MappedStreamingRepository} is a {@link StreamingRepository} that stores the {@link Cart}s of a
+ * {@link Track} in memory-mapped segment files, instead of on the heap.
+ * <p>
+ * Carts are appended to the active segment as compact binary records, and only the locations of the records of each
+ * frame id are kept in memory. Saving a cart appends a new record that supersedes the previous records of its frame,
+ * saving a single {@link ScheduledEvent} with {@link #saveOrder(ScheduledEvent)} appends a record of the event to the
+ * cart of its delivery time, and removing a cart appends a tombstone. A {@link Track} schedules events with
+ * {@link #appendOrder(ScheduledEvent, Function, BiConsumer)}, which only saves the event, so that committing an event
+ * to a frame writes only that event, instead of rewriting every event of the frame. The oldest segment files are deleted as soon as none of their records are live, which keeps
+ * the size of the directory proportional to the carts that have not been delivered yet.
+ * <p>
+ * When a repository is opened on a directory that already has segments, the index is recovered by replaying the
+ * records of every segment in order. A {@link Track} can then resume from {@link #getFirstId()} with the number of
+ * undelivered events returned by {@link #getOrderCount()}. The delivery time callback of a {@link ScheduledEvent} is
+ * a function and is not stored, and the resource of an event is loaded when the event is saved.
+ *
+ * @param <T> is the type of resource inside of the stored carts
+ */
+public class MappedStreamingRepository<T> implements StreamingRepository<Cart<T>, T>, AutoCloseable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final byte CART = 1;
+    private static final byte TOMBSTONE = 2;
+    private static final byte ORDER = 3;
+    private static final long NULL_ID = Long.MIN_VALUE;
+    private static final ResourceState[] STATES = ResourceState.values();
+
+    private final Path directory;
+    private final Codec<T> codec;
+    private final int segmentSize;
+    private final TreeMap<Integer, MappedByteBuffer> segments = new TreeMap<>();
+    private final Map<Integer, Integer> liveRecords = new HashMap<>();
+    private final TreeMap<Long, List<Long>> index = new TreeMap<>();
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private int activeSegment = -1;
+
+    public MappedStreamingRepository(Path directory, Codec<T> codec) {
+        this(directory, codec, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens a repository on a directory of segment files, recovering every cart that was saved and not removed.
+     *
+     * @param directory   is the directory that contains the segment files
+     * @param codec       is the codec that encodes the resources of each {@link ScheduledEvent}
+     * @param segmentSize is the size in bytes of each segment file, which limits the size of a single cart
+     */
+    public MappedStreamingRepository(Path directory, Codec<T> codec, int segmentSize) {
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open repository at " + directory, ex);
+        }
+    }
+
+    @Override
+    public synchronized Cart<T> getById(Long id) {
+        List<Long> locations = index.get(id);
+        if (locations == null) {
+            return null;
+        }
+
+        Cart<T> cart = new Cart<>(id);
+        for (long location : locations) {
+            ByteBuffer record = segments.get(segmentOf(location)).duplicate();
+            record.position(offsetOf(location) + Integer.BYTES);
+            byte type = record.get();
+            record.getLong();
+
+            int count = type == CART ? record.getInt() : 1;
+            for (int i = 0; i < count; i++) {
+                cart.commit(decodeOrder(record));
+            }
+        }
+        return cart;
+    }
+
+    @Override
+    public synchronized void save(Cart<T> cart) {
+        index(cart.getId(), append(write(CART, cart.getId(), buffer -> encode(cart, buffer))), true);
+    }
+
+    /**
+     * Appends a record of a {@link ScheduledEvent} to the cart of its delivery time, without rewriting the other events
+     * of the cart.
+     *
+     * @param scheduledEvent is the event to save
+     * @return the saved event
+     */
+    @Override
+    public synchronized ScheduledEvent<T> saveOrder(ScheduledEvent<T> scheduledEvent) {
+        long id = scheduledEvent.getDeliveryTime();
+        index(id, append(write(ORDER, id, buffer -> encodeOrder(scheduledEvent, buffer))), false);
+        return scheduledEvent;
+    }
+
+    /**
+     * Returns false, since every read of a cart decodes a copy of its events.
+     *
+     * @return false
+     */
+    @Override
+    public boolean keepsEventInstances() {
+        return false;
+    }
+
+    /**
+     * Appends a record of a {@link ScheduledEvent} to the cart of its delivery time, without loading the cart.
+     *
+     * @param scheduledEvent is the event to append
+     * @param factory        is not used, since the cart of the frame is not loaded
+     * @param commit         is not used, since the record of the event is added to its cart when the cart is read
+     */
+    @Override
+    public void appendOrder(ScheduledEvent<T> scheduledEvent, Function<Long, Cart<T>> factory,
+                            BiConsumer<? super Cart<T>, ScheduledEvent<T>> commit) {
+        saveOrder(scheduledEvent);
+    }
+
+    @Override
+    public synchronized void remove(Long id) {
+        if (index.containsKey(id)) {
+            scratch.clear();
+            scratch.position(Integer.BYTES);
+            scratch.put(TOMBSTONE);
+            scratch.putLong(id);
+            append(scratch);
+            index(id, null, true);
+        }
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /**
+     * Gets the lowest frame id that has a stored cart, which is the position that a recovered {@link Track} resumes
+     * from.
+     *
+     * @return the lowest frame id, or null if the repository is empty
+     */
+    public synchronized Long getFirstId() {
+        return index.isEmpty() ? null : index.firstKey();
+    }
+
+    /**
+     * Counts the distinct {@link ScheduledEvent}s that have not been exhausted across every stored cart.
+     *
+     * @return the number of undelivered events
+     */
+    public synchronized Integer getOrderCount() {
+        Set<Long> events = new HashSet<>();
+        for (Long id : index.keySet()) {
+            for (ScheduledEvent<T> scheduledEvent : getById(id).getOrders()) {
+                if (scheduledEvent.getState() != ResourceState.EXHAUSTED) {
+                    events.add(scheduledEvent.getId());
+                }
+            }
+        }
+        return events.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        segments.values().forEach(MappedByteBuffer::force);
+        segments.clear();
+    }
+
+    /**
+     * Writes a record to the scratch buffer, growing the buffer until the record fits.
+     */
+    private ByteBuffer write(byte type, long id, Consumer<ByteBuffer> body) {
+        while (true) {
+            scratch.clear();
+            scratch.position(Integer.BYTES);
+            scratch.put(type);
+            scratch.putLong(id);
+
+            try {
+                body.accept(scratch);
+                return scratch;
+            } catch (BufferOverflowException ex) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    private void encode(Cart<T> cart, ByteBuffer buffer) {
+        List<ScheduledEvent<T>> orders = cart.getOrders();
+        buffer.putInt(orders.size());
+
+        for (int i = 0; i < orders.size(); i++) {
+            encodeOrder(orders.get(i), buffer);
+        }
+    }
+
+    private void encodeOrder(ScheduledEvent<T> scheduledEvent, ByteBuffer buffer) {
+        Resource<T> resource = scheduledEvent.getResource();
+        if (resource.getState() == ResourceState.FULL) {
+            resource.load();
+        }
+
+        T[] items = resource.getBuffer();
+        buffer.putLong(scheduledEvent.getId() == null ? NULL_ID : scheduledEvent.getId());
+        buffer.putLong(scheduledEvent.getDeliveryTime());
+        buffer.put((byte) scheduledEvent.getState().ordinal());
+        buffer.put((byte) resource.getState().ordinal());
+        buffer.putInt(scheduledEvent.getFrameSize() == null ? 0 : scheduledEvent.getFrameSize());
+        buffer.putInt(scheduledEvent.getPriority());
+        buffer.putLong(scheduledEvent.getDeadline() == null ? NULL_ID : scheduledEvent.getDeadline());
+        buffer.putInt(resource.getPosition());
+        buffer.putInt(resource.getSize());
+
+        for (int j = 0; j < resource.getSize(); j++) {
+            codec.encode(items[j], buffer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ScheduledEvent<T> decodeOrder(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        long deliveryTime = buffer.getLong();
+        ResourceState eventState = STATES[buffer.get()];
+        ResourceState resourceState = STATES[buffer.get()];
+        int frameSize = buffer.getInt();
+        int priority = buffer.getInt();
+        long deadline = buffer.getLong();
+        int position = buffer.getInt();
+        int size = buffer.getInt();
+
+        T[] items = null;
+        for (int j = 0; j < size; j++) {
+            T item = codec.decode(buffer);
+            if (items == null) {
+                items = (T[]) Array.newInstance(item.getClass(), size);
+            }
+            items[j] = item;
+        }
+
+        Resource<T> resource = new Resource<>(size, position, items == null ? (T[]) new Object[0] : items);
+        resource.state = resourceState;
+
+        ScheduledEvent<T> scheduledEvent = new ScheduledEvent<>(id == NULL_ID ? null : id, deliveryTime, resource);
+        scheduledEvent.setState(eventState);
+        scheduledEvent.setFrameSize(frameSize == 0 ? null : frameSize);
+        scheduledEvent.setPriority(priority);
+        scheduledEvent.setDeadline(deadline == NULL_ID ? null : deadline);
+        return scheduledEvent;
+    }
+
+    /**
+     * Appends the record in the buffer to the active segment, rolling over to a new segment when it does not fit.
+     *
+     * @return the location of the record
+     */
+    private long append(ByteBuffer record) {
+        record.flip();
+        record.putInt(0, record.limit() - Integer.BYTES);
+
+        // A segment always ends with a zero length, which marks the end of the records during recovery
+        if (record.limit() + Integer.BYTES > segmentSize) {
+            throw new IllegalArgumentException("Record of " + record.limit() + " bytes does not fit in a segment of "
+                    + segmentSize + " bytes");
+        }
+
+        MappedByteBuffer segment = activeSegment < 0 ? null : segments.get(activeSegment);
+        if (segment == null || segment.remaining() < record.limit() + Integer.BYTES) {
+            segment = openSegment(activeSegment + 1);
+        }
+
+        // The length is written last, so that a record that was only partially written is read as the end of the segment
+        int offset = segment.position();
+        int length = record.getInt(0);
+        record.putInt(0, 0);
+        segment.put(record);
+        segment.putInt(offset, length);
+
+        return ((long) activeSegment << 32) | offset;
+    }
+
+    /**
+     * Points the index of a cart at a new record, which either supersedes the previous records of the cart or is added
+     * to them, and releases the segments that no longer have live records.
+     *
+     * @param id        is the frame id of the cart
+     * @param location  is the location of the new record, or null if the cart was removed
+     * @param supersede is true if the record replaces the previous records of the cart
+     */
+    private void index(Long id, Long location, boolean supersede) {
+        List<Long> previous = index.get(id);
+
+        if (location == null) {
+            index.remove(id);
+        } else if (supersede || previous == null) {
+            List<Long> locations = new ArrayList<>(1);
+            locations.add(location);
+            index.put(id, locations);
+        } else {
+            previous.add(location);
+        }
+
+        if (location != null) {
+            liveRecords.merge(segmentOf(location), 1, Integer::sum);
+        }
+
+        if (previous != null && (location == null || supersede)) {
+            for (Long released : previous) {
+                liveRecords.merge(segmentOf(released), -1, Integer::sum);
+            }
+            releaseSegments();
+        }
+    }
+
+    /**
+     * Deletes the oldest segments that do not have any live records. Segments are only deleted in order, since a newer
+     * segment may hold the tombstone of a record that is still inside of an older segment.
+     */
+    private void releaseSegments() {
+        while (!segments.isEmpty()) {
+            int oldest = segments.firstKey();
+            if (oldest == activeSegment || liveRecords.get(oldest) != 0) {
+                break;
+            }
+            deleteSegment(oldest);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(ids);
+
+        for (Integer id : ids) {
+            MappedByteBuffer segment = map(id);
+            segments.put(id, segment);
+            liveRecords.put(id, 0);
+            activeSegment = id;
+
+            int length;
+            while (segment.remaining() >= Integer.BYTES && (length = segment.getInt(segment.position())) > 0) {
+                long location = ((long) id << 32) | segment.position();
+                byte type = segment.get(segment.position() + Integer.BYTES);
+                long cartId = segment.getLong(segment.position() + Integer.BYTES + 1);
+
+                index(cartId, type == TOMBSTONE ? null : location, type != ORDER);
+                segment.position(segment.position() + Integer.BYTES + length);
+            }
+        }
+
+        releaseSegments();
+    }
+
+    private MappedByteBuffer openSegment(int id) {
+        MappedByteBuffer segment = map(id);
+        segments.put(id, segment);
+        liveRecords.put(id, 0);
+        activeSegment = id;
+        releaseSegments();
+        return segment;
+    }
+
+    private MappedByteBuffer map(int id) {
+        try (FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not map segment " + id, ex);
+        }
+    }
+
+    private void deleteSegment(int id) {
+        segments.remove(id);
+        liveRecords.remove(id);
+        try {
+            Files.deleteIfExists(segmentPath(id));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not delete segment " + id, ex);
+        }
+    }
+
+    private Path segmentPath(int id) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static int segmentOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedStreamingRepository{" +
+                "directory=" + directory +
+                ", segments=" + segments.keySet() +
+                ", carts=" + index.size() +
+                '}';
+    }
+}
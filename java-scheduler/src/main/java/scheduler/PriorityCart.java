@@ -0,0 +1,133 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * A {@link PriorityCart} is a {@link Cart} that delivers its {@link ScheduledEvent}s in order of priority instead of
+ * the order that they were committed. Events with the same priority are delivered by the earliest deadline first, and
+ * then in the order that they were committed.
+ * <p>
+ * A priority cart can have a budget, which is the number of events that are delivered in its frame. When more events
+ * are committed to the cart than the budget allows, the events with the lowest priority either overflow to the next
+ * frame, or are shed without being delivered, depending on the {@link Overflow} policy of the cart. Events that are
+ * due in the frame of the cart, because their deadline is at or before the frame, are always delivered. Events that
+ * were superseded do not count towards the budget.
+ *
+ * @param <T> is the type of resource delivered by the cart
+ */
+public class PriorityCart<T> extends Cart<T> {
+
+    /**
+     * The policy for the events that exceed the budget of a {@link PriorityCart}.
+     */
+    public enum Overflow {
+        /**
+         * Events over budget keep their resources and are delivered in a later frame.
+         */
+        DEFER,
+        /**
+         * Events over budget are exhausted without delivering their resources.
+         */
+        SHED
+    }
+
+    public static final Comparator<ScheduledEvent<?>> PRIORITY = Comparator
+            .comparingInt((ScheduledEvent<?> scheduledEvent) -> scheduledEvent.getPriority()).reversed()
+            .thenComparing(ScheduledEvent::getDeadline, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final PriorityQueue<Integer> heap = new PriorityQueue<>(this::compare);
+    private final int budget;
+    private final Overflow overflow;
+    private final Consumer<ScheduledEvent<T>> shedHandler;
+
+    public PriorityCart() {
+        this(Integer.MAX_VALUE, Overflow.DEFER);
+    }
+
+    public PriorityCart(Long id) {
+        this(id, Integer.MAX_VALUE, Overflow.DEFER, (event) -> {});
+    }
+
+    public PriorityCart(int budget, Overflow overflow) {
+        this(null, budget, overflow, (event) -> {});
+    }
+
+    /**
+     * Creates a {@link PriorityCart} that delivers at most a budget of events in its frame.
+     *
+     * @param id          is the frame of the cart
+     * @param budget      is the number of events that are delivered in the frame of the cart
+     * @param overflow    is the policy for the events that exceed the budget
+     * @param shedHandler is called with every event that is shed
+     */
+    public PriorityCart(Long id, int budget, Overflow overflow, Consumer<ScheduledEvent<T>> shedHandler) {
+        super(id);
+        if (budget < 1) {
+            throw new IllegalArgumentException("Budget must be positive: " + budget);
+        }
+
+        this.budget = budget;
+        this.overflow = overflow;
+        this.shedHandler = shedHandler;
+    }
+
+    @Override
+    public void commit(ScheduledEvent<T> scheduledEvent) {
+        super.commit(scheduledEvent);
+        heap.add(getOrders().size() - 1);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        heap.clear();
+    }
+
+    /**
+     * Selects the events with the highest priority that fit in the budget of the cart, along with every event that is
+     * due in the frame of the cart. The events that do not fit are deferred or shed.
+     *
+     * @return the events to unpack, in order of priority
+     */
+    @Override
+    protected List<ScheduledEvent<T>> select() {
+        List<ScheduledEvent<T>> orders = getOrders();
+        List<ScheduledEvent<T>> selected = new ArrayList<>(Math.min(orders.size(), budget));
+
+        while (!heap.isEmpty()) {
+            ScheduledEvent<T> scheduledEvent = orders.get(heap.poll());
+
+            if (scheduledEvent.isSuperseded()) {
+                exhaust(scheduledEvent);
+            } else if (selected.size() < budget || isDue(scheduledEvent)) {
+                selected.add(scheduledEvent);
+            } else if (overflow == Overflow.SHED) {
+                exhaust(scheduledEvent);
+                shedHandler.accept(scheduledEvent);
+            }
+        }
+
+        return selected;
+    }
+
+    private boolean isDue(ScheduledEvent<T> scheduledEvent) {
+        return scheduledEvent.getDeadline() != null && getId() != null && scheduledEvent.getDeadline() <= getId();
+    }
+
+    private int compare(Integer a, Integer b) {
+        int result = PRIORITY.compare(getOrders().get(a), getOrders().get(b));
+        return result != 0 ? result : Integer.compare(a, b);
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+}
@@ -4,8 +4,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * A {@link Resource} is an immutable container of items that incrementally returns a subset of the initial buffer and
@@ -15,7 +15,7 @@ import java.util.stream.Collectors;
  */
 public class Resource<T> {
 
-    protected Integer size;
+    protected int size;
     protected final AtomicInteger position = new AtomicInteger();
     protected T[] buffer;
     protected ResourceState state;
@@ -85,31 +85,71 @@ public class Resource<T> {
      * @return a subset of the buffer between the current position and the limit
      */
     public ArrayList<T> take(Integer limit) {
-        ArrayList<T> result;
+        int start = claim(limit);
+        int end = start + Math.min(limit, size - start);
+
+        ArrayList<T> result = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            result.add(buffer[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Drains the specified number of items from the resource buffer into a consumer and increments the position until
+     * the resource buffer is empty. Unlike {@link #take(Integer)}, no collection is created to hold the items.
+     *
+     * @param limit    is the number of items to drain from the resource buffer
+     * @param consumer is the consumer that accepts each item between the current position and the limit
+     * @return the number of items that were drained
+     */
+    public int drainTo(int limit, Consumer<? super T> consumer) {
+        int start = claim(limit);
+        int end = start + Math.min(limit, size - start);
+
+        for (int i = start; i < end; i++) {
+            consumer.accept(buffer[i]);
+        }
+
+        return end - start;
+    }
+
+    /**
+     * Claims the specified number of items from the resource buffer by moving the position forward. Once an item has
+     * been claimed, no other transaction can claim it.
+     *
+     * @param limit is the number of items to claim from the resource buffer
+     * @return the position of the first claimed item
+     */
+    protected int claim(int limit) {
         if (state == ResourceState.FULL) {
-            // Load resource from source function
-            buffer = fetchBuffer.apply(null);
-            if (size == -1)
-                size = buffer.length;
-            state = ResourceState.NOT_EMPTY;
+            load();
         }
 
         synchronized (position) {
-            int end = Math.min(position.get() + limit, size);
             int start = position.get();
+            int end = Math.min(start + limit, size);
             position.set(end);
 
-
-            result = Arrays.stream(Arrays.copyOfRange(buffer, start, position.get()))
-                    .collect(Collectors.toCollection(ArrayList::new));
-
-            if (position.get() >= size) {
+            if (end >= size) {
                 state = ResourceState.EXHAUSTED;
-            } else if (position.get() > 0) {
+            } else if (end > 0) {
                 state = ResourceState.NOT_EMPTY;
             }
+
+            return start;
         }
-        return result;
+    }
+
+    /**
+     * Loads the resource buffer from the source function.
+     */
+    protected void load() {
+        buffer = fetchBuffer.apply(null);
+        if (size == -1)
+            size = buffer.length;
+        state = ResourceState.NOT_EMPTY;
     }
 
     public void setFetchBuffer(Function<Void, T[]> fetchBuffer) {
@@ -12,6 +12,11 @@ public class ScheduledEvent<T> {
     private Consumer<ScheduledEvent<T>> updateDeliveryTime = (event) -> {};
     private Resource<T> resource;
     private ResourceState state;
+    private Integer frameSize;
+    private int priority = 0;
+    private Long deadline;
+    private Object coalesceKey;
+    private volatile boolean superseded = false;
 
     public ScheduledEvent() {
         state = ResourceState.FULL;
@@ -61,6 +66,77 @@ public class ScheduledEvent<T> {
         this.state = state;
     }
 
+    /**
+     * Gets the number of resources that are delivered from this event in each frame, or null if the event is delivered
+     * with the frame size of its {@link Track}.
+     *
+     * @return the frame size of the event
+     */
+    public Integer getFrameSize() {
+        return frameSize;
+    }
+
+    public void setFrameSize(Integer frameSize) {
+        this.frameSize = frameSize;
+    }
+
+    /**
+     * Gets the priority of the event. When a {@link PriorityCart} is delivered, events with a higher priority are
+     * delivered before events with a lower priority.
+     *
+     * @return the priority of the event, which is 0 by default
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Gets the last frame that the event should be delivered in. A {@link PriorityCart} delivers the events that are
+     * due in its frame even when the frame is over budget.
+     *
+     * @return the deadline of the event, or null if the event has no deadline
+     */
+    public Long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(Long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Gets the key that identifies the events that this event supersedes. When a {@link Track} coalesces events, a
+     * newer event replaces the pending event with the same key if the pending event is scheduled in the same frame or
+     * an earlier frame.
+     *
+     * @return the coalesce key of the event, or null if the event is never coalesced
+     */
+    public Object getCoalesceKey() {
+        return coalesceKey;
+    }
+
+    public void setCoalesceKey(Object coalesceKey) {
+        this.coalesceKey = coalesceKey;
+    }
+
+    /**
+     * Checks whether the event was replaced by a newer event with the same coalesce key. A superseded event is
+     * exhausted without delivering its resources.
+     *
+     * @return true if the event was superseded
+     */
+    public boolean isSuperseded() {
+        return superseded;
+    }
+
+    public void setSuperseded(boolean superseded) {
+        this.superseded = superseded;
+    }
+
     public Consumer<ScheduledEvent<T>> getUpdateDeliveryTime() {
         return updateDeliveryTime;
     }
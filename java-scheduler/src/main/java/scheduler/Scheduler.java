@@ -1,13 +1,376 @@
 package scheduler;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
 /**
  * A scheduler takes in an order that describes the delivery of resources. The scheduler is used by multiple
  * vendors to schedule deliveries in any chronological order.
+ * <p>
+ * The scheduler owns a clock that is divided into ticks of a fixed period, and delivers one frame of every registered
+ * {@link Track} for each tick. Frames are due at a fixed rate from the time the scheduler is started, so the time spent
+ * delivering a frame does not delay the frames after it. When delivering falls behind the clock, the missed frames are
+ * delivered back to back in batches of up to {@link #getMaxCatchUpFrames()} frames per tick, and the number of frames
+ * that are still missing is reported by {@link #getLag()}.
+ * <p>
+ * A scheduler hosts the tracks of many {@link Vendor}s. On every tick, the tracks are advanced in a round-robin order
+ * by a small, fixed pool of threads, and the position in the round where the next tick starts is rotated, so that no
+ * vendor is always delivered first or last when a tick runs late. A track is only ever delivered by one thread at a
+ * time, which makes the scheduler the one consumer of each of its tracks.
  */
-public class Scheduler {
-    private Track track;
+public class Scheduler implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_CATCH_UP_FRAMES = 16;
+
+    private final Map<Vendor<?>, Registration<?>> registrations = new ConcurrentHashMap<>();
+    private volatile Registration<?>[] round = new Registration<?>[0];
+    private final long tickNanos;
+    private final LongSupplier clock;
+    private final int threads;
+    private final ExecutorService workers;
+    private int maxCatchUpFrames = DEFAULT_MAX_CATCH_UP_FRAMES;
+    private volatile SchedulerMetrics metrics = SchedulerMetrics.NONE;
+    private volatile EventDispatcher eventDispatcher;
+    private ScheduledExecutorService executor;
+    private long rounds = 0L;
+    private volatile long startTime;
+    private volatile long frames = 0L;
+    private volatile long lag = 0L;
+
+    public Scheduler(long tickPeriod, TimeUnit unit) {
+        this(tickPeriod, unit, 1, System::nanoTime);
+    }
+
+    public Scheduler(long tickPeriod, TimeUnit unit, int threads) {
+        this(tickPeriod, unit, threads, System::nanoTime);
+    }
+
+    public Scheduler(long tickPeriod, TimeUnit unit, LongSupplier clock) {
+        this(tickPeriod, unit, 1, clock);
+    }
+
+    /**
+     * Creates a scheduler that delivers a frame of each registered track for every tick of a clock.
+     *
+     * @param tickPeriod is the period of time between two frames
+     * @param unit       is the unit of the tick period
+     * @param threads    is the number of threads that deliver the frames of a tick, including the ticking thread
+     * @param clock      is a monotonic clock that returns the current time in nanoseconds
+     */
+    public Scheduler(long tickPeriod, TimeUnit unit, int threads, LongSupplier clock) {
+        if (tickPeriod <= 0) {
+            throw new IllegalArgumentException("Tick period must be positive: " + tickPeriod);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive: " + threads);
+        }
+
+        this.tickNanos = unit.toNanos(tickPeriod);
+        this.clock = clock;
+        this.startTime = clock.getAsLong();
+        this.threads = threads;
+        this.workers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, daemon("scheduler-worker")) : null;
+    }
+
+    /**
+     * Registers the {@link Track} of a {@link Vendor} to be delivered on every tick of the scheduler, replacing the track
+     * that was previously registered for the same vendor. The frame handler is only called for frames that contain
+     * resources. When the scheduler has {@link SchedulerMetrics}, the track reports its frames to the same metrics.
+     *
+     * @param vendor  is the vendor that schedules events on the track
+     * @param track   is the track to deliver
+     * @param handler is the handler that processes the resources of each frame
+     * @param <T>     is the type of resource delivered by the track
+     */
+    public <T> void register(Vendor<?> vendor, Track<T> track, Consumer<List<T>> handler) {
+        register(vendor, new Registration<>(track, t -> {
+            List<T> frame = t.nextFrame();
+            if (frame != null && !frame.isEmpty()) {
+                handler.accept(frame);
+            }
+        }));
+    }
+
+    private void register(Vendor<?> vendor, Registration<?> registration) {
+        if (metrics != SchedulerMetrics.NONE) {
+            registration.track.setMetrics(metrics);
+        }
+
+        synchronized (registrations) {
+            registrations.put(vendor, registration);
+            round = registrations.values().toArray(new Registration<?>[0]);
+        }
+    }
+
+    /**
+     * Registers the {@link Track} of a {@link Vendor} with an action that is called for each resource of a frame. When
+     * the scheduler has an {@link EventDispatcher}, the actions of a frame run concurrently on the dispatcher, and
+     * otherwise they run one after the other on the thread that delivers the frame.
+     *
+     * @param vendor is the vendor that schedules events on the track
+     * @param track  is the track to deliver
+     * @param action is the action that processes each resource of a frame
+     * @param <T>    is the type of resource delivered by the track
+     * @see #setEventDispatcher(EventDispatcher)
+     */
+    public <T> void registerEach(Vendor<?> vendor, Track<T> track, Consumer<? super T> action) {
+        register(vendor, track, frame -> {
+            EventDispatcher dispatcher = eventDispatcher;
+            if (dispatcher == null) {
+                frame.forEach(action);
+            } else {
+                dispatcher.dispatch(frame, action);
+            }
+        });
+    }
+
+    /**
+     * Registers the {@link Track} of a {@link Vendor} with a handler that is called for the resources of each channel
+     * of a frame, such as the vendor or aggregate that scheduled the events. The channels of a frame are unpacked and
+     * handled in parallel on a {@link ForkJoinPool}, while the resources of a single channel are handled in the order
+     * that their events were scheduled.
+     *
+     * @param vendor  is the vendor that schedules events on the track
+     * @param track   is the track to deliver
+     * @param channel is the function that assigns a {@link ScheduledEvent} to a channel
+     * @param handler is the handler of the resources of a channel
+     * @param pool    is the pool that unpacks and handles the channels of each frame
+     * @param <T>     is the type of resource delivered by the track
+     * @param <K>     is the type of channel key
+     */
+    public <T, K> void registerByChannel(Vendor<?> vendor, Track<T> track,
+                                         Function<? super ScheduledEvent<T>, ? extends K> channel,
+                                         BiConsumer<? super K, ? super List<T>> handler, ForkJoinPool pool) {
+        register(vendor, new Registration<>(track, t -> t.nextFrame(channel, handler, pool)));
+    }
+
+    public void unregister(Vendor<?> vendor) {
+        synchronized (registrations) {
+            if (registrations.remove(vendor) != null) {
+                round = registrations.values().toArray(new Registration<?>[0]);
+            }
+        }
+    }
+
+    /**
+     * Gets the {@link Track} that is registered for a {@link Vendor}.
+     *
+     * @param vendor is the vendor of the track
+     * @return the track, or null if the vendor is not registered
+     */
+    public Track<?> getTrack(Vendor<?> vendor) {
+        Registration<?> registration = registrations.get(vendor);
+        return registration == null ? null : registration.track;
+    }
+
+    /**
+     * Starts delivering frames on a thread owned by the scheduler. The first frame is due one tick after the scheduler
+     * is started.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+
+        startTime = clock.getAsLong();
+        frames = 0L;
+        executor = Executors.newSingleThreadScheduledExecutor(daemon("scheduler"));
+        executor.scheduleAtFixedRate(this::tick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Delivers every frame that is due according to the clock, up to the maximum number of catch up frames. This method
+     * is called on every tick of a started scheduler, and can be called directly to drive a scheduler that is not
+     * started.
+     *
+     * @return the number of frames that were delivered
+     */
+    public synchronized int tick() {
+        long now = clock.getAsLong();
+        long due = (now - startTime) / tickNanos - frames;
+        int batch = (int) Math.min(Math.max(due, 0L), maxCatchUpFrames);
+
+        if (batch > 0) {
+            deliver(round, batch);
+        }
+
+        frames += batch;
+        lag = Math.max(due - batch, 0L);
+        metrics.tickCompleted(batch, lag, clock.getAsLong() - now);
+        return batch;
+    }
+
+    /**
+     * Delivers a batch of frames for every registration of a round. The registrations are claimed one at a time by the
+     * workers and the ticking thread, starting from a position in the round that moves forward on every tick.
+     */
+    private void deliver(Registration<?>[] registrations, int batch) {
+        int size = registrations.length;
+        if (size == 0) {
+            return;
+        }
+
+        int offset = (int) (rounds++ % size);
+        AtomicInteger cursor = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = cursor.getAndIncrement(); i < size; i = cursor.getAndIncrement()) {
+                registrations[(offset + i) % size].deliver(batch);
+            }
+        };
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; workers != null && i < Math.min(threads, size); i++) {
+            futures.add(workers.submit(worker));
+        }
+
+        worker.run();
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                ex.getCause().printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of frames that are due according to the clock, but were not delivered yet.
+     *
+     * @return the number of frames that the scheduler is behind the clock
+     */
+    public long getLag() {
+        return lag;
+    }
+
+    /**
+     * Gets the number of frames that were delivered since the scheduler was started.
+     *
+     * @return the number of delivered frames
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Gets the number of events that are scheduled on the registered tracks, but were not delivered yet.
+     *
+     * @return the number of pending events
+     */
+    public long getPendingEvents() {
+        long pending = 0L;
+        for (Registration<?> registration : round) {
+            pending += registration.track.getOrders();
+        }
+        return pending;
+    }
+
+    public SchedulerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the {@link SchedulerMetrics} that records the ticks of the scheduler, and the frames of the tracks that are
+     * registered after it is set.
+     *
+     * @param metrics is the metrics to report to
+     */
+    public void setMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics == null ? SchedulerMetrics.NONE : metrics;
+    }
+
+    public EventDispatcher getEventDispatcher() {
+        return eventDispatcher;
+    }
+
+    /**
+     * Sets the {@link EventDispatcher} that runs the actions of the tracks that are registered with
+     * {@link #registerEach(Vendor, Track, Consumer)}. The dispatcher is not closed when the scheduler is closed.
+     * <p>
+     * Each registered track holds a thread of the scheduler while its frame waits for permits and for the barrier of
+     * the dispatcher, so a long barrier timeout with many tracks can delay the frames of the other registrations.
+     *
+     * @param eventDispatcher is the dispatcher, or null to run the actions on the thread that delivers the frame
+     */
+    public void setEventDispatcher(EventDispatcher eventDispatcher) {
+        this.eventDispatcher = eventDispatcher;
+    }
+
+    public int getMaxCatchUpFrames() {
+        return maxCatchUpFrames;
+    }
+
+    /**
+     * Sets the maximum number of frames that are delivered in a single tick when the scheduler is behind the clock.
+     *
+     * @param maxCatchUpFrames is the maximum number of frames per tick
+     */
+    public void setMaxCatchUpFrames(int maxCatchUpFrames) {
+        if (maxCatchUpFrames < 1) {
+            throw new IllegalArgumentException("Max catch up frames must be positive: " + maxCatchUpFrames);
+        }
+        this.maxCatchUpFrames = maxCatchUpFrames;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        if (workers != null) {
+            workers.shutdown();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Scheduler{" +
+                "vendors=" + registrations.size() +
+                ", threads=" + threads +
+                ", tickNanos=" + tickNanos +
+                ", frames=" + frames +
+                ", lag=" + lag +
+                '}';
+    }
+
+    private static class Registration<T> {
+
+        private final Track<T> track;
+        private final Consumer<Track<T>> nextFrame;
+
+        private Registration(Track<T> track, Consumer<Track<T>> nextFrame) {
+            this.track = track;
+            this.nextFrame = nextFrame;
+        }
 
-    public Scheduler(Track track) {
-        this.track = track;
+        private void deliver(int batch) {
+            for (int i = 0; i < batch && !track.isEmpty(); i++) {
+                try {
+                    nextFrame.accept(track);
+                } catch (RuntimeException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,39 @@
+package scheduler;
+
+/**
+ * A {@link SchedulerMetrics} receives measurements from the frames delivered by a {@link Track} and the ticks of a
+ * {@link Scheduler}. The measurements are reported on the thread that delivers the frame, so implementations should
+ * only record them, such as by incrementing counters, and never block.
+ * <p>
+ * Measurements that can be sampled at any time, such as the lag of a scheduler or the number of pending events, are
+ * not reported, and can be read from {@link Scheduler#getLag()} and {@link Scheduler#getPendingEvents()} instead.
+ */
+public interface SchedulerMetrics {
+
+    /**
+     * A {@link SchedulerMetrics} that ignores every measurement.
+     */
+    SchedulerMetrics NONE = new SchedulerMetrics() {
+    };
+
+    /**
+     * Records the delivery of a frame of a {@link Track}.
+     *
+     * @param position    is the position of the frame
+     * @param events      is the number of events that were unpacked in the frame
+     * @param rescheduled is the number of events that still had resources, and were rescheduled to the next frame
+     * @param nanos       is the time spent delivering the frame, in nanoseconds
+     */
+    default void frameDelivered(long position, int events, int rescheduled, long nanos) {
+    }
+
+    /**
+     * Records a tick of a {@link Scheduler}.
+     *
+     * @param frames is the number of frames that were delivered for each track in the tick
+     * @param lag    is the number of frames that the scheduler is behind its clock after the tick
+     * @param nanos  is the time spent delivering the frames of the tick, in nanoseconds
+     */
+    default void tickCompleted(int frames, long lag, long nanos) {
+    }
+}
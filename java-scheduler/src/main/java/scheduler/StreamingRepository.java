@@ -1,9 +1,44 @@
 package scheduler;
 
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
 public interface StreamingRepository<T, V> {
     T getById(Long id);
     void save(T t);
     ScheduledEvent<V> saveOrder(ScheduledEvent<V> scheduledEvent);
     void remove(Long id);
     boolean isEmpty();
+
+    /**
+     * Returns true when the carts of this repository hold the same {@link ScheduledEvent} instances that were saved, so
+     * that a {@link Track} can find an event it scheduled in the cart of its frame. Repositories that decode a copy of
+     * every event of a cart when it is read return false.
+     *
+     * @return true when the saved events are the events that are read back
+     */
+    default boolean keepsEventInstances() {
+        return true;
+    }
+
+    /**
+     * Appends a {@link ScheduledEvent} to the cart of its delivery time. The cart of the frame is loaded, or created
+     * with the factory when the frame has no cart yet, the saved event is committed to it and the cart is saved.
+     * Repositories that can store a single event of a frame override this, so that scheduling an event does not rewrite
+     * every event of its frame.
+     *
+     * @param scheduledEvent is the event to append
+     * @param factory        is the factory of the cart of a frame
+     * @param commit         commits an event to a cart
+     */
+    default void appendOrder(ScheduledEvent<V> scheduledEvent, Function<Long, T> factory,
+                             BiConsumer<? super T, ScheduledEvent<V>> commit) {
+        T cart = getById(scheduledEvent.getDeliveryTime());
+        if (cart == null) {
+            cart = factory.apply(scheduledEvent.getDeliveryTime());
+        }
+
+        commit.accept(cart, saveOrder(scheduledEvent));
+        save(cart);
+    }
 }
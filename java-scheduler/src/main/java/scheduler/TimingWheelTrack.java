@@ -0,0 +1,273 @@
+package scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A {@link TimingWheelTrack} is a {@link Track} that commits {@link ScheduledEvent}s to a hierarchy of timing wheels
+ * instead of loading a {@link Cart} from a {@link StreamingRepository} for every frame.
+ * <p>
+ * Each wheel has 64 slots, and each slot of a wheel spans all 64 slots of the wheel below it. An event is committed
+ * to the lowest wheel that can tell its delivery time apart from the current position, which makes scheduling and
+ * advancing a frame constant time, no matter how far in the future the event is due. When the position crosses the
+ * boundary of a slot in a higher wheel, the events inside of that slot cascade down into the lower wheels.
+ * <p>
+ * The occupied slots of every wheel are tracked in a bitmask, which allows long runs of empty frames to be skipped
+ * with {@link #skipEmptyFrames()}. The slots of the wheels are {@link Cart}s that are reused once they are delivered,
+ * so that a track with a steady schedule does not allocate a new cart for every frame.
+ *
+ * @param <T> is the type of resource delivered by the track
+ */
+public class TimingWheelTrack<T> extends Track<T> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int WHEELS = (Long.SIZE + WHEEL_BITS - 1) / WHEEL_BITS;
+
+    private final Cart<T>[][] wheels;
+    private final long[] occupancy = new long[WHEELS];
+    private final Supplier<Cart<T>> cartFactory;
+    private Cart<T> spare;
+    private boolean delivering = false;
+
+    public TimingWheelTrack() {
+        this(Cart::new);
+    }
+
+    /**
+     * Creates a {@link TimingWheelTrack} that commits events to the carts of a factory, such as {@link PriorityCart}s.
+     *
+     * @param cartFactory is the factory that creates the carts of the wheels
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheelTrack(Supplier<Cart<T>> cartFactory) {
+        this.wheels = new Cart[WHEELS][WHEEL_SIZE];
+        this.cartFactory = cartFactory;
+        this.spare = cartFactory.get();
+    }
+
+    @Override
+    public void schedule(ScheduledEvent<T> scheduledEvent) {
+        // The slot of the current frame is detached while it is delivered, so an event that is scheduled by the unpack
+        // function is due in the next frame at the earliest
+        long earliest = delivering ? position + 1 : position;
+
+        if (scheduledEvent.getState() == ResourceState.FULL) {
+            orderRequests++;
+            // Make sure that the delivery time is in the future
+            if (scheduledEvent.getDeliveryTime() < earliest) {
+                scheduledEvent.setDeliveryTime(position + 1);
+            }
+            coalesce(scheduledEvent);
+        } else if (scheduledEvent.getDeliveryTime() < earliest) {
+            scheduledEvent.setDeliveryTime(position + 1);
+        }
+
+        commit(scheduledEvent);
+    }
+
+    @Override
+    protected <R> R deliver(Function<Cart<T>, R> unpack) {
+        R result = null;
+
+        if (orderRequests > 0) {
+            long start = System.nanoTime();
+            int events = 0;
+            int rescheduled = 0;
+            int slot = (int) (position & WHEEL_MASK);
+
+            if ((occupancy[0] & (1L << slot)) != 0) {
+                // Detach the cart from the wheel before unpacking it, so that it can be reused as a spare
+                Cart<T> item = wheels[0][slot];
+                wheels[0][slot] = spare;
+                occupancy[0] &= ~(1L << slot);
+
+                item.setId(position);
+                delivering = true;
+                try {
+                    result = unpack.apply(item);
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                } finally {
+                    delivering = false;
+                }
+
+                // Overflow order resources to the next frame until the resource state is exhausted
+                List<ScheduledEvent<T>> orders = item.getOrders();
+                events = orders.size();
+                for (int i = 0; i < orders.size(); i++) {
+                    ScheduledEvent<T> o = orders.get(i);
+                    if (o.getResource().getState() == ResourceState.EXHAUSTED) {
+                        orderRequests--;
+                        o.setState(ResourceState.EXHAUSTED);
+                        release(o);
+                    } else {
+                        o.setState(ResourceState.NOT_EMPTY);
+                        o.setDeliveryTime(position + 1);
+                        commit(o);
+                        rescheduled++;
+                    }
+                }
+
+                item.clear();
+                spare = item;
+            } else {
+                // The spare cart is always empty
+                delivering = true;
+                try {
+                    result = unpack.apply(spare);
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                } finally {
+                    delivering = false;
+                }
+            }
+
+            getMetrics().frameDelivered(position, events, rescheduled, System.nanoTime() - start);
+            position++;
+            cascade();
+        }
+
+        return result;
+    }
+
+    /**
+     * Advances the position of the track to the next frame that has a {@link ScheduledEvent} committed to it, without
+     * visiting any of the empty frames in between. The cost of skipping is bounded by the number of wheels, and not by
+     * the number of frames that are skipped.
+     *
+     * @return the position of the next frame that will be delivered
+     */
+    public Long skipEmptyFrames() {
+        while (orderRequests > 0) {
+            int slot = (int) (position & WHEEL_MASK);
+            long ahead = occupancy[0] & (-1L << slot);
+
+            if (ahead != 0) {
+                position = (position & ~WHEEL_MASK) | Long.numberOfTrailingZeros(ahead);
+                break;
+            }
+
+            // Every wheel below the first occupied slot ahead of the position is empty, so jump to the start of the slot
+            int wheel = 1;
+            for (; wheel < WHEELS; wheel++) {
+                int shift = wheel * WHEEL_BITS;
+                int digit = (int) ((position >>> shift) & WHEEL_MASK);
+                ahead = digit == WHEEL_MASK ? 0 : occupancy[wheel] & (-1L << (digit + 1));
+
+                if (ahead != 0) {
+                    position = (((position >>> shift) & ~WHEEL_MASK) | Long.numberOfTrailingZeros(ahead)) << shift;
+                    cascade(wheel);
+                    break;
+                }
+            }
+
+            if (wheel == WHEELS) {
+                break;
+            }
+        }
+
+        return position;
+    }
+
+    /**
+     * Takes a {@link TrackSnapshot} of the position of the track and of the events that are pending on it. Superseded
+     * events are left out, since they would never be delivered.
+     *
+     * @return a snapshot of the track
+     */
+    public TrackSnapshot<T> snapshot() {
+        List<ScheduledEvent<T>> events = new ArrayList<>(orderRequests);
+        for (int wheel = 0; wheel < WHEELS; wheel++) {
+            for (long slots = occupancy[wheel]; slots != 0; slots &= slots - 1) {
+                for (ScheduledEvent<T> scheduledEvent : wheels[wheel][Long.numberOfTrailingZeros(slots)].getOrders()) {
+                    if (!scheduledEvent.isSuperseded()) {
+                        events.add(scheduledEvent);
+                    }
+                }
+            }
+        }
+
+        return new TrackSnapshot<>(position, events);
+    }
+
+    /**
+     * Restores a {@link TrackSnapshot} into an empty track, which continues from the position of the snapshot.
+     *
+     * @param snapshot is the snapshot to restore
+     */
+    public void restore(TrackSnapshot<T> snapshot) {
+        if (orderRequests > 0) {
+            throw new IllegalStateException("Only an empty track can be restored: " + orderRequests + " pending events");
+        }
+
+        position = snapshot.getPosition();
+        for (ScheduledEvent<T> scheduledEvent : snapshot.getEvents()) {
+            orderRequests++;
+            coalesce(scheduledEvent);
+            commit(scheduledEvent);
+        }
+    }
+
+    /**
+     * Commits a {@link ScheduledEvent} to the lowest wheel where the slot of the delivery time is not the same slot as
+     * the current position.
+     */
+    private void commit(ScheduledEvent<T> scheduledEvent) {
+        long deliveryTime = Math.max(scheduledEvent.getDeliveryTime(), position);
+        long distance = deliveryTime ^ position;
+        int wheel = distance == 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(distance)) / WHEEL_BITS;
+        int slot = (int) ((deliveryTime >>> (wheel * WHEEL_BITS)) & WHEEL_MASK);
+
+        Cart<T> cart = wheels[wheel][slot];
+        if (cart == null) {
+            cart = cartFactory.get();
+            wheels[wheel][slot] = cart;
+        }
+
+        cart.commit(scheduledEvent);
+        occupancy[wheel] |= 1L << slot;
+    }
+
+    /**
+     * Cascades the slots of every wheel whose boundary was crossed by the current position, starting from the highest
+     * wheel, since a cascaded event may land in the current slot of the wheel below it.
+     */
+    private void cascade() {
+        int crossed = Math.min(Long.numberOfTrailingZeros(position) / WHEEL_BITS, WHEELS - 1);
+        for (int wheel = crossed; wheel > 0; wheel--) {
+            cascade(wheel);
+        }
+    }
+
+    private void cascade(int wheel) {
+        int slot = (int) ((position >>> (wheel * WHEEL_BITS)) & WHEEL_MASK);
+
+        if ((occupancy[wheel] & (1L << slot)) != 0) {
+            Cart<T> cart = wheels[wheel][slot];
+            occupancy[wheel] &= ~(1L << slot);
+
+            for (ScheduledEvent<T> scheduledEvent : cart.getOrders()) {
+                commit(scheduledEvent);
+            }
+
+            cart.clear();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return orderRequests == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TimingWheelTrack{" +
+                "position=" + position +
+                ", orderRequests=" + orderRequests +
+                '}';
+    }
+}
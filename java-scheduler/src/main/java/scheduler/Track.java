@@ -1,9 +1,13 @@
 package scheduler;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * A track is a lazily-loaded infinite stream of {@link Cart}s that are scheduled on a {@link Track}.
@@ -15,14 +19,41 @@ import java.util.stream.Collectors;
 public class Track<T> {
 
     private ExpandingResource<Cart<T>, T> log;
-    private Long position = 0L;
-    private Long maxPosition = 0L;
-    private Integer orderRequests = 0;
+    protected long position = 0L;
+    protected long maxPosition = 0L;
+    protected int orderRequests = 0;
+    private int frameSize = Constants.FRAME_SIZE;
+    private int maxFrameSize = Constants.FRAME_SIZE;
+    private LongSupplier clock;
+    private Map<Object, ScheduledEvent<T>> coalesced;
+    private SchedulerMetrics metrics = SchedulerMetrics.NONE;
 
     public Track(ExpandingResource<Cart<T>, T> log) {
         this.log = log;
     }
 
+    /**
+     * Creates a {@link Track} that resumes delivering the {@link Cart}s of a {@link StreamingRepository} that already
+     * has events committed to it, such as a {@link MappedStreamingRepository} that was recovered after a restart.
+     *
+     * @param log           is the log of carts, starting at the frame to resume from
+     * @param position      is the frame to resume from
+     * @param orderRequests is the number of events inside of the repository that have not been delivered
+     */
+    public Track(ExpandingResource<Cart<T>, T> log, Long position, Integer orderRequests) {
+        this.log = log;
+        this.position = position;
+        this.maxPosition = position;
+        this.orderRequests = orderRequests;
+    }
+
+    /**
+     * Creates a {@link Track} that does not load its {@link Cart}s from a {@link StreamingRepository}. Subclasses that
+     * use this constructor are responsible for storing their own carts.
+     */
+    protected Track() {
+    }
+
     public void schedule(ScheduledEvent<T> scheduledEvent) {
         if (scheduledEvent.getState() == ResourceState.FULL) {
             orderRequests++;
@@ -30,55 +61,222 @@ public class Track<T> {
             if (scheduledEvent.getDeliveryTime() < (position)) {
                 scheduledEvent.setDeliveryTime(position + 1);
             }
+            coalesce(scheduledEvent);
         }
 
-        Cart<T> cart = log.getRepository().getById(scheduledEvent.getDeliveryTime());
-        if (cart == null) {
-            cart = log.getFactory().apply(scheduledEvent.getDeliveryTime());
-        }
-
-        scheduledEvent = log.getRepository().saveOrder(scheduledEvent);
-        cart.commit(scheduledEvent);
-        log.getRepository().save(cart);
+        log.getRepository().appendOrder(scheduledEvent, log.getFactory(), Cart::commit);
         //maxPosition = maxPosition < order.getDeliveryTime() ? order.getDeliveryTime() : maxPosition;
     }
 
     public List<T> nextFrame() {
-        List<T> result = null;
+        int size = getFrameSize();
+        return deliver(cart -> {
+            List<T> result = new ArrayList<>();
+            cart.drainTo(size, result::add);
+            return result;
+        });
+    }
+
+    /**
+     * Delivers the next frame, unpacking the resources of each channel of the {@link Cart} in parallel. The resources
+     * of a single channel are delivered in the order that their events were scheduled.
+     *
+     * @param channel is the function that assigns a {@link ScheduledEvent} to a channel, such as its vendor
+     * @param pool    is the pool that unpacks the channels of the frame
+     * @param <K>     is the type of channel key
+     * @return the resources delivered in the frame for each channel
+     * @see Cart#drainByChannel(Function, ForkJoinPool)
+     */
+    public <K> Map<K, List<T>> nextFrame(Function<? super ScheduledEvent<T>, ? extends K> channel, ForkJoinPool pool) {
+        int size = getFrameSize();
+        return deliver(cart -> cart.drainByChannel(size, channel, pool));
+    }
+
+    /**
+     * Delivers the next frame, unpacking the resources of each channel of the {@link Cart} in parallel and handling
+     * them inside of the same pool task, so that the handlers of different channels run in parallel.
+     *
+     * @param channel is the function that assigns a {@link ScheduledEvent} to a channel, such as its vendor
+     * @param handler is the handler of the resources of a channel, which is only called for channels with resources
+     * @param pool    is the pool that unpacks and handles the channels of the frame
+     * @param <K>     is the type of channel key
+     * @return the resources delivered in the frame for each channel
+     * @see Cart#drainByChannel(int, Function, BiConsumer, ForkJoinPool)
+     */
+    public <K> Map<K, List<T>> nextFrame(Function<? super ScheduledEvent<T>, ? extends K> channel,
+                                         BiConsumer<? super K, ? super List<T>> handler, ForkJoinPool pool) {
+        int size = getFrameSize();
+        return deliver(cart -> cart.drainByChannel(size, channel, handler, pool));
+    }
+
+    public <K> Map<K, List<T>> nextFrame(Function<? super ScheduledEvent<T>, ? extends K> channel) {
+        return nextFrame(channel, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Delivers the {@link Cart} at the current position of the track and advances to the next frame. Events that still
+     * have resources after the cart is unpacked overflow to the next frame.
+     *
+     * @param unpack is the function that unpacks the resources of the delivered cart
+     * @param <R>    is the type of result returned by the unpack function
+     * @return the result of unpacking the cart, or null if there are no events scheduled on the track
+     */
+    protected <R> R deliver(Function<Cart<T>, R> unpack) {
+        R result = null;
 
         if (orderRequests > 0) {
-            LinkedBlockingQueue<Cart<T>> results = new LinkedBlockingQueue<>(log.take(1)
-                    .stream().collect(Collectors.toUnmodifiableList()));
-            Cart<T> item = results.poll();
-
-            //synchronized (Objects.requireNonNull(item)) {
-                try {
-                    result = item.streamSingleChannel().collect(Collectors.toCollection(ArrayList::new));
-                } catch (Exception ex) {
-                    ex.printStackTrace();
-                }
-            //}
+            long start = System.nanoTime();
+            int rescheduled = 0;
+            Cart<T> item = log.take(1).get(0);
+
+            try {
+                result = unpack.apply(item);
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
 
             // Overflow order resources to the next cart until the resource state is exhausted
-            item.getOrders().stream().collect(Collectors.toUnmodifiableList()).forEach(o -> {
+            List<ScheduledEvent<T>> orders = item.getOrders();
+            for (int i = 0; i < orders.size(); i++) {
+                ScheduledEvent<T> o = orders.get(i);
                 if (o.getResource().getState() == ResourceState.EXHAUSTED) {
                     orderRequests--;
                     o.setState(ResourceState.EXHAUSTED);
+                    release(o);
                 } else {
                     o.setState(ResourceState.NOT_EMPTY);
                     o.setDeliveryTime(position + 1);
                     schedule(o);
+                    rescheduled++;
                 }
-            });
+            }
 
             // Clean up
             log.getRepository().remove(item.getId());
+            metrics.frameDelivered(position, orders.size(), rescheduled, System.nanoTime() - start);
             position++;
         }
 
         return result;
     }
 
+    /**
+     * Gets the number of resources that are delivered from each {@link ScheduledEvent} in the next frame. When the
+     * track has an adaptive frame size, the frame size grows with the number of frames that the track has fallen
+     * behind its clock, up to the maximum frame size.
+     *
+     * @return the frame size of the next frame
+     */
+    public int getFrameSize() {
+        if (clock == null) {
+            return frameSize;
+        }
+
+        long lag = Math.max(0L, clock.getAsLong() - getPosition());
+        return (int) Math.min(maxFrameSize, frameSize * (lag + 1));
+    }
+
+    /**
+     * Sets the number of resources that are delivered from each {@link ScheduledEvent} in a frame, unless the event
+     * has a frame size of its own.
+     *
+     * @param frameSize is the number of resources per event and frame
+     */
+    public void setFrameSize(int frameSize) {
+        if (frameSize < 1) {
+            throw new IllegalArgumentException("Frame size must be positive: " + frameSize);
+        }
+        this.frameSize = frameSize;
+        this.maxFrameSize = Math.max(maxFrameSize, frameSize);
+    }
+
+    /**
+     * Enables an adaptive frame size that grows when the position of the track falls behind a clock, so that a track
+     * which cannot keep up with the clock catches up by delivering larger frames instead of rescheduling every event
+     * for each resource.
+     *
+     * @param clock        is the supplier of the frame that should be delivered at the current wall-clock time
+     * @param maxFrameSize is the upper bound of the adaptive frame size
+     */
+    public void setAdaptiveFrameSize(LongSupplier clock, int maxFrameSize) {
+        if (maxFrameSize < frameSize) {
+            throw new IllegalArgumentException("Max frame size must be at least the frame size: " + maxFrameSize);
+        }
+        this.clock = clock;
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * Enables or disables the coalescing of events. When a track coalesces events, an event with a coalesce key
+     * supersedes the pending event with the same key, as long as the pending event is scheduled in the same frame or an
+     * earlier frame. Only the newest of the events is delivered, and the superseded events are exhausted when their
+     * frame is delivered.
+     * <p>
+     * A track can only coalesce events when its repository keeps the instances of the events it saves, since the
+     * superseded flag is set on the pending event and is not written to the repository.
+     *
+     * @param coalescing is true to coalesce events by their coalesce key
+     * @throws IllegalStateException if the repository of the track decodes a copy of its events
+     */
+    public void setCoalescing(boolean coalescing) {
+        if (coalescing && log != null && !log.getRepository().keepsEventInstances()) {
+            throw new IllegalStateException("Events cannot be coalesced in a repository that does not keep the " +
+                    "instances of its events");
+        }
+        this.coalesced = coalescing ? new HashMap<>() : null;
+    }
+
+    public boolean isCoalescing() {
+        return coalesced != null;
+    }
+
+    /**
+     * Supersedes the pending event that has the same coalesce key as a new event.
+     *
+     * @param scheduledEvent is the new event
+     */
+    protected void coalesce(ScheduledEvent<T> scheduledEvent) {
+        Object key = scheduledEvent.getCoalesceKey();
+        if (coalesced == null || key == null) {
+            return;
+        }
+
+        ScheduledEvent<T> pending = coalesced.get(key);
+        if (pending != null) {
+            if (pending.getDeliveryTime() > scheduledEvent.getDeliveryTime()) {
+                // The pending event is delivered after the new event, so it is still the newest update
+                return;
+            }
+            pending.setSuperseded(true);
+        }
+
+        coalesced.put(key, scheduledEvent);
+    }
+
+    /**
+     * Releases the coalesce key of an event that was exhausted.
+     *
+     * @param scheduledEvent is the exhausted event
+     */
+    protected void release(ScheduledEvent<T> scheduledEvent) {
+        if (coalesced != null && scheduledEvent.getCoalesceKey() != null) {
+            coalesced.remove(scheduledEvent.getCoalesceKey(), scheduledEvent);
+        }
+    }
+
+    public SchedulerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the {@link SchedulerMetrics} that records every frame delivered by the track.
+     *
+     * @param metrics is the metrics to report to
+     */
+    public void setMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics == null ? SchedulerMetrics.NONE : metrics;
+    }
+
     public Long getPosition() {
         return position;
     }
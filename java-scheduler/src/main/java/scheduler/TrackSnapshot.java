@@ -0,0 +1,182 @@
+package scheduler;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A {@link TrackSnapshot} is a copy of the position of a {@link TimingWheelTrack} and of the {@link ScheduledEvent}s
+ * that are pending on it, including the resources that each event has left to deliver.
+ * <p>
+ * A snapshot is not affected by the track that it was taken from, and can be restored into any number of empty tracks.
+ * Restoring a snapshot always commits its events in the same order, so tracks restored from the same snapshot deliver
+ * the same frames. A snapshot can be written to a file with a {@link Codec} for its resources, but the delivery time
+ * callback and the coalesce key of an event are not written, like in a {@link MappedStreamingRepository}.
+ *
+ * @param <T> is the type of resource delivered by the track
+ */
+public class TrackSnapshot<T> {
+
+    private static final long NULL_ID = Long.MIN_VALUE;
+
+    private final long position;
+    private final List<ScheduledEvent<T>> events;
+
+    /**
+     * Creates a snapshot from the events of a track, which are copied and ordered by their delivery time.
+     *
+     * @param position is the position of the track
+     * @param events   is the pending events of the track
+     */
+    TrackSnapshot(long position, List<ScheduledEvent<T>> events) {
+        this.position = position;
+        this.events = new ArrayList<>(events.size());
+        for (ScheduledEvent<T> scheduledEvent : events) {
+            this.events.add(copy(scheduledEvent));
+        }
+        this.events.sort(Comparator.comparing(ScheduledEvent::getDeliveryTime));
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets a copy of the pending events of the snapshot, in the order that they are committed when the snapshot is
+     * restored.
+     *
+     * @return new copies of the pending events
+     */
+    public List<ScheduledEvent<T>> getEvents() {
+        List<ScheduledEvent<T>> result = new ArrayList<>(events.size());
+        for (ScheduledEvent<T> scheduledEvent : events) {
+            result.add(copy(scheduledEvent));
+        }
+        return result;
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    private static <T> ScheduledEvent<T> copy(ScheduledEvent<T> scheduledEvent) {
+        Resource<T> resource = scheduledEvent.getResource();
+        if (resource.getState() == ResourceState.FULL) {
+            resource.load();
+        }
+
+        @SuppressWarnings("unchecked")
+        T[] items = resource.getSize() == 0 ? (T[]) new Object[0] : resource.getBuffer();
+        ScheduledEvent<T> copy = new ScheduledEvent<>(scheduledEvent.getId(), scheduledEvent.getDeliveryTime(),
+                new Resource<>(resource.getSize(), resource.getPosition(), items));
+        copy.setFrameSize(scheduledEvent.getFrameSize());
+        copy.setPriority(scheduledEvent.getPriority());
+        copy.setDeadline(scheduledEvent.getDeadline());
+        copy.setCoalesceKey(scheduledEvent.getCoalesceKey());
+        return copy;
+    }
+
+    /**
+     * Writes the snapshot to a file, replacing the file if it exists.
+     *
+     * @param file  is the file to write
+     * @param codec is the codec that encodes the resources of each event
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file, Codec<T> codec) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+        while (true) {
+            try {
+                encode(buffer, codec);
+                break;
+            } catch (BufferOverflowException ex) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+
+        Files.write(file, Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    private void encode(ByteBuffer buffer, Codec<T> codec) {
+        buffer.clear();
+        buffer.putLong(position);
+        buffer.putInt(events.size());
+
+        for (ScheduledEvent<T> scheduledEvent : events) {
+            Resource<T> resource = scheduledEvent.getResource();
+            T[] items = resource.getBuffer();
+            buffer.putLong(scheduledEvent.getId() == null ? NULL_ID : scheduledEvent.getId());
+            buffer.putLong(scheduledEvent.getDeliveryTime());
+            buffer.putInt(scheduledEvent.getFrameSize() == null ? 0 : scheduledEvent.getFrameSize());
+            buffer.putInt(scheduledEvent.getPriority());
+            buffer.putLong(scheduledEvent.getDeadline() == null ? NULL_ID : scheduledEvent.getDeadline());
+            buffer.putInt(resource.getPosition());
+            buffer.putInt(resource.getSize());
+
+            for (int i = 0; i < resource.getSize(); i++) {
+                codec.encode(items[i], buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot that was written with {@link #write(Path, Codec)}.
+     *
+     * @param file  is the file to read
+     * @param codec is the codec that decodes the resources of each event
+     * @param <T>   is the type of resource delivered by the track
+     * @return the snapshot
+     * @throws IOException if the file cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TrackSnapshot<T> read(Path file, Codec<T> codec) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        long position = buffer.getLong();
+        int count = buffer.getInt();
+        List<ScheduledEvent<T>> events = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            long id = buffer.getLong();
+            long deliveryTime = buffer.getLong();
+            int frameSize = buffer.getInt();
+            int priority = buffer.getInt();
+            long deadline = buffer.getLong();
+            int resourcePosition = buffer.getInt();
+            int size = buffer.getInt();
+
+            T[] items = null;
+            for (int j = 0; j < size; j++) {
+                T item = codec.decode(buffer);
+                if (items == null) {
+                    items = (T[]) Array.newInstance(item.getClass(), size);
+                }
+                items[j] = item;
+            }
+
+            ScheduledEvent<T> scheduledEvent = new ScheduledEvent<>(id == NULL_ID ? null : id, deliveryTime,
+                    new Resource<>(size, resourcePosition, items == null ? (T[]) new Object[0] : items));
+            scheduledEvent.setFrameSize(frameSize == 0 ? null : frameSize);
+            scheduledEvent.setPriority(priority);
+            scheduledEvent.setDeadline(deadline == NULL_ID ? null : deadline);
+            events.add(scheduledEvent);
+        }
+
+        return new TrackSnapshot<>(position, events);
+    }
+
+    @Override
+    public String toString() {
+        return "TrackSnapshot{" +
+                "position=" + position +
+                ", events=" + events.size() +
+                '}';
+    }
+}
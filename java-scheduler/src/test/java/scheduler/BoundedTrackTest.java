@@ -0,0 +1,103 @@
+package scheduler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class BoundedTrackTest {
+
+    @Test
+    public void spillsEventsToLaterFrames() throws Exception {
+        BoundedTrack<Integer> track = new BoundedTrack<>(2, 100, BoundedTrack.Policy.SPILL);
+        for (int i = 0; i < 5; i++) {
+            track.schedule(new ScheduledEvent<>((long) i, 0L, Resource.of(i)));
+        }
+
+        Assert.assertEquals(Arrays.asList(0, 1), track.nextFrame());
+        Assert.assertEquals(Arrays.asList(2, 3), track.nextFrame());
+        Assert.assertEquals(Arrays.asList(4), track.nextFrame());
+        Assert.assertTrue(track.isEmpty());
+    }
+
+    @Test
+    public void failsWhenFull() throws Exception {
+        BoundedTrack<Integer> track = new BoundedTrack<>(2, 3, BoundedTrack.Policy.FAIL);
+        track.schedule(new ScheduledEvent<>(1L, 0L, Resource.of(1)));
+        track.schedule(new ScheduledEvent<>(2L, 0L, Resource.of(2)));
+
+        try {
+            track.schedule(new ScheduledEvent<>(3L, 0L, Resource.of(3)));
+            Assert.fail("The frame is full");
+        } catch (IllegalStateException expected) {
+        }
+
+        track.schedule(new ScheduledEvent<>(3L, 1L, Resource.of(3)));
+        Assert.assertEquals(0, track.remainingCapacity());
+
+        try {
+            track.schedule(new ScheduledEvent<>(4L, 2L, Resource.of(4)));
+            Assert.fail("The track is full");
+        } catch (IllegalStateException expected) {
+        }
+
+        Assert.assertEquals(Arrays.asList(1, 2), track.nextFrame());
+        Assert.assertEquals(2, track.remainingCapacity());
+    }
+
+    @Test
+    public void blocksProducersUntilFramesAreDelivered() throws Exception {
+        BoundedTrack<Integer> track = new BoundedTrack<>(10, 2, BoundedTrack.Policy.BLOCK);
+        ExecutorService producer = Executors.newSingleThreadExecutor();
+
+        Future<?> scheduled = producer.submit(() -> {
+            for (int i = 0; i < 3; i++) {
+                track.schedule(new ScheduledEvent<>((long) i, 0L, Resource.of(i)));
+            }
+        });
+
+        // The third event waits for the first frame to make room
+        try {
+            scheduled.get(100, TimeUnit.MILLISECONDS);
+            Assert.fail("The producer did not block");
+        } catch (TimeoutException expected) {
+        }
+
+        Assert.assertEquals(Arrays.asList(0, 1), track.nextFrame());
+        scheduled.get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(Arrays.asList(2), track.nextFrame());
+        Assert.assertTrue(track.isEmpty());
+        producer.shutdown();
+    }
+
+    @Test
+    public void requestsEventsWithinCapacity() throws Exception {
+        BoundedTrack<Integer> track = new BoundedTrack<>(100, 4, BoundedTrack.Policy.FAIL);
+        List<Integer> delivered = new ArrayList<>();
+
+        try (SubmissionPublisher<ScheduledEvent<Integer>> publisher = new SubmissionPublisher<>()) {
+            publisher.subscribe(track.subscriber());
+            for (int i = 0; i < 20; i++) {
+                publisher.submit(new ScheduledEvent<>((long) i, 0L, Resource.of(i)));
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (delivered.size() < 20 && System.nanoTime() < deadline) {
+                Assert.assertTrue(track.getOrders() <= 4);
+                List<Integer> frame = track.nextFrame();
+                if (frame != null) {
+                    delivered.addAll(frame);
+                } else {
+                    Thread.sleep(1);
+                }
+            }
+        }
+
+        delivered.sort(Integer::compare);
+        Assert.assertEquals(20, delivered.size());
+        Assert.assertEquals(Integer.valueOf(19), delivered.get(19));
+    }
+}
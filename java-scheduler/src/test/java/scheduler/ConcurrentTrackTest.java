@@ -0,0 +1,69 @@
+package scheduler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.*;
+
+public class ConcurrentTrackTest {
+
+    private static final int EVENTS_PER_PRODUCER = 50000;
+
+    @Test
+    public void concurrentProducersDoNotLoseEvents() throws Exception {
+        BitSet delivered = run(8);
+        Assert.assertEquals(8 * EVENTS_PER_PRODUCER, delivered.cardinality());
+    }
+
+    @Test
+    public void deliversEveryEventOnceForEachProducerCount() throws Exception {
+        for (int producers : new int[]{1, 2, 4, 8}) {
+            BitSet delivered = run(producers);
+            Assert.assertEquals(producers * EVENTS_PER_PRODUCER, delivered.cardinality());
+            Assert.assertEquals(producers * EVENTS_PER_PRODUCER, delivered.length());
+        }
+    }
+
+    /**
+     * Schedules events from the supplied number of producer threads, while the calling thread delivers the frames.
+     *
+     * @return the set of delivered event ids
+     */
+    private BitSet run(int producers) throws Exception {
+        ConcurrentTrack<Integer> track = new ConcurrentTrack<>();
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch ready = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            final int offset = p * EVENTS_PER_PRODUCER;
+            executor.submit(() -> {
+                ready.countDown();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = offset; i < offset + EVENTS_PER_PRODUCER; i++) {
+                    track.schedule(new ScheduledEvent<>((long) i, track.getPosition() + random.nextInt(100),
+                            Resource.of(i)));
+                }
+                return null;
+            });
+        }
+
+        executor.shutdown();
+        ready.await();
+
+        BitSet delivered = new BitSet(producers * EVENTS_PER_PRODUCER);
+        while (!(executor.isTerminated() && track.isEmpty())) {
+            List<Integer> frame = track.nextFrame();
+            if (frame != null) {
+                for (Integer item : frame) {
+                    Assert.assertFalse("Event delivered twice: " + item, delivered.get(item));
+                    delivered.set(item);
+                }
+            }
+        }
+
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        return delivered;
+    }
+}
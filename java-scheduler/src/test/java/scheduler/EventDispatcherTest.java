@@ -0,0 +1,132 @@
+package scheduler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class EventDispatcherTest {
+
+    @Test
+    public void limitsConcurrentActions() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+        try (EventDispatcher dispatcher = EventDispatcher.virtualThreads(4, 5, TimeUnit.SECONDS)) {
+            List<Integer> frame = IntStream.range(0, 32).boxed().collect(Collectors.toList());
+            Assert.assertTrue(dispatcher.dispatch(frame, item -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                running.decrementAndGet();
+                processed.add(item);
+            }));
+        }
+
+        // Every action finished before the barrier, and no more than four ran at a time
+        Assert.assertEquals(32, processed.size());
+        Assert.assertTrue(maxRunning.get() <= 4);
+        Assert.assertTrue(maxRunning.get() > 1);
+    }
+
+    @Test
+    public void completesFrameAfterBarrierTimeout() throws Exception {
+        CountDownLatch slow = new CountDownLatch(1);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+
+        try (EventDispatcher dispatcher = EventDispatcher.virtualThreads(8, 50, TimeUnit.MILLISECONDS)) {
+            boolean completed = dispatcher.dispatch(Arrays.asList(1, 2, 3), item -> {
+                if (item == 2) {
+                    await(slow);
+                }
+                processed.add(item);
+            });
+
+            // The slow action does not hold back the frame
+            Assert.assertFalse(completed);
+            Assert.assertFalse(processed.contains(2));
+            slow.countDown();
+        }
+    }
+
+    @Test
+    public void limitsActionsAcrossOverlappingFrames() throws Exception {
+        CountDownLatch slow = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+        try (EventDispatcher dispatcher = EventDispatcher.virtualThreads(2, 0, TimeUnit.MILLISECONDS)) {
+            // The first frame takes every permit and completes without waiting for its actions
+            Assert.assertFalse(dispatcher.dispatch(Arrays.asList(1, 2), item -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                await(slow);
+                running.decrementAndGet();
+                processed.add(item);
+            }));
+
+            // The next frame waits for the permits of the first before its actions are submitted
+            CompletableFuture<Boolean> next = CompletableFuture.supplyAsync(() -> dispatcher.dispatch(
+                    Arrays.asList(3, 4), item -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        running.decrementAndGet();
+                        processed.add(item);
+                    }));
+            sleep(50);
+            Assert.assertFalse(next.isDone());
+            Assert.assertTrue(processed.isEmpty());
+
+            slow.countDown();
+            next.get(5, TimeUnit.SECONDS);
+            while (processed.size() < 4) {
+                sleep(1);
+            }
+        }
+
+        Assert.assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void dispatchesRegisteredActions() throws Exception {
+        long[] clock = new long[]{0L};
+        Scheduler scheduler = new Scheduler(1, TimeUnit.MILLISECONDS, () -> clock[0]);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+        try (EventDispatcher dispatcher = EventDispatcher.virtualThreads(2, 5, TimeUnit.SECONDS)) {
+            scheduler.setEventDispatcher(dispatcher);
+            TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+            IntStream.range(0, 4).forEach(i -> track.schedule(new ScheduledEvent<>((long) i, 0L, Resource.of(i))));
+            scheduler.registerEach(new Vendor<>(1L, track), track, (Integer item) -> {
+                threads.add(Thread.currentThread().getName());
+                processed.add(item);
+            });
+
+            clock[0] = TimeUnit.MILLISECONDS.toNanos(1);
+            scheduler.tick();
+        }
+
+        Assert.assertEquals(new HashSet<>(Arrays.asList(0, 1, 2, 3)), processed);
+        Assert.assertFalse(threads.contains(Thread.currentThread().getName()));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
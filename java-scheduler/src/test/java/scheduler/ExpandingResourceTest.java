@@ -1,5 +1,6 @@
 package scheduler;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Arrays;
@@ -41,6 +42,22 @@ public class ExpandingResourceTest {
 
     }
 
+    @Test
+    public void takeManyInOrder() throws Exception {
+        TestStreamingRepository repository = new TestStreamingRepository();
+        LongStream.range(0L, 10L).forEach(i -> repository.save(new Cart<>(i)));
+
+        Cart<Integer>[] carts = new Cart[]{};
+        ExpandingResource<Cart<Integer>, Integer> resource = new ExpandingResource<>(carts, Cart::new, repository);
+
+        Long[] first = resource.take(4).stream().map(Cart::getId).toArray(Long[]::new);
+        Long[] second = resource.take(4).stream().map(Cart::getId).toArray(Long[]::new);
+
+        Assert.assertArrayEquals(new Long[]{0L, 1L, 2L, 3L}, first);
+        Assert.assertArrayEquals(new Long[]{4L, 5L, 6L, 7L}, second);
+        Assert.assertEquals(Integer.valueOf(8), resource.getPosition());
+    }
+
     class TestStreamingRepository implements StreamingRepository<Cart<Integer>, Integer> {
 
         private final Map<Long, Cart<Integer>> repo = new HashMap<>();
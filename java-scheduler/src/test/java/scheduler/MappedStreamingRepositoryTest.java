@@ -0,0 +1,152 @@
+package scheduler;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class MappedStreamingRepositoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void savesAndRecoversCarts() throws Exception {
+        Path directory = folder.newFolder().toPath();
+
+        try (MappedStreamingRepository<String> repository = new MappedStreamingRepository<>(directory, Codec.STRING)) {
+            Cart<String> cart = new Cart<>(7L);
+            cart.commit(new ScheduledEvent<>(1L, 7L, Resource.of("a", "b", "c")));
+            repository.save(cart);
+
+            Cart<String> removed = new Cart<>(8L);
+            removed.commit(new ScheduledEvent<>(2L, 8L, Resource.of("d")));
+            repository.save(removed);
+            repository.remove(8L);
+        }
+
+        try (MappedStreamingRepository<String> repository = new MappedStreamingRepository<>(directory, Codec.STRING)) {
+            Assert.assertNull(repository.getById(8L));
+
+            Cart<String> cart = repository.getById(7L);
+            Assert.assertEquals(Long.valueOf(7L), cart.getId());
+            Assert.assertEquals(1, cart.getOrders().size());
+            Assert.assertEquals(Long.valueOf(1L), cart.getOrders().get(0).getId());
+            Assert.assertEquals(Arrays.asList("a", "b"), cart.getOrders().get(0).getResource().take(2));
+            Assert.assertEquals(Long.valueOf(7L), repository.getFirstId());
+            Assert.assertEquals(Integer.valueOf(1), repository.getOrderCount());
+        }
+    }
+
+    @Test
+    public void deletesSegmentsWithoutLiveRecords() throws Exception {
+        Path directory = folder.newFolder().toPath();
+
+        try (MappedStreamingRepository<Integer> repository =
+                     new MappedStreamingRepository<>(directory, Codec.INTEGER, 1024)) {
+            for (long i = 0; i < 1000; i++) {
+                Cart<Integer> cart = new Cart<>(i);
+                cart.commit(new ScheduledEvent<>(i, i, Resource.of((int) i)));
+                repository.save(cart);
+                repository.remove(i);
+            }
+
+            Assert.assertTrue(repository.isEmpty());
+            try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+                Assert.assertEquals(1L, files.count());
+            }
+        }
+    }
+
+    @Test
+    public void resumesTrackAfterRestart() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        Random random = new Random(42L);
+        List<ScheduledEvent<Integer>> scheduledEvents = IntStream.range(0, 500)
+                .mapToObj(i -> new ScheduledEvent<>((long) i, (long) random.nextInt(200),
+                        Resource.of(IntStream.range(0, 1 + random.nextInt(3)).mapToObj(k -> i).toArray(Integer[]::new))))
+                .collect(Collectors.toList());
+
+        List<Integer> delivered = new ArrayList<>();
+        MappedStreamingRepository<Integer> repository =
+                new MappedStreamingRepository<>(directory, Codec.INTEGER, 64 * 1024);
+        Cart<Integer>[] carts = new Cart[]{};
+        Track<Integer> track = new Track<>(new ExpandingResource<>(carts, Cart::new, repository));
+        scheduledEvents.forEach(track::schedule);
+
+        for (int i = 0; i < 100; i++) {
+            delivered.addAll(track.nextFrame());
+        }
+        repository.close();
+
+        // Resume delivery from the recovered repository
+        repository = new MappedStreamingRepository<>(directory, Codec.INTEGER, 64 * 1024);
+        int position = repository.getFirstId().intValue();
+        track = new Track<>(new ExpandingResource<>(position, position, carts, Cart::new, repository),
+                (long) position, repository.getOrderCount());
+
+        while (!track.isEmpty()) {
+            delivered.addAll(track.nextFrame());
+        }
+        repository.close();
+
+        List<Integer> expected = scheduledEvents.stream()
+                .flatMap(e -> Arrays.stream(e.getResource().getBuffer()))
+                .sorted().collect(Collectors.toList());
+        Collections.sort(delivered);
+        Assert.assertEquals(expected, delivered);
+    }
+
+    @Test
+    public void appendsRecordPerScheduledEvent() throws Exception {
+        Path directory = folder.newFolder().toPath();
+
+        // Rewriting the cart for every event would write about 25 MB and roll over many 64 KB segments
+        try (MappedStreamingRepository<Integer> repository =
+                     new MappedStreamingRepository<>(directory, Codec.INTEGER, 64 * 1024)) {
+            Cart<Integer>[] carts = new Cart[]{};
+            Track<Integer> track = new Track<>(new ExpandingResource<>(carts, Cart::new, repository));
+            for (int i = 0; i < 1000; i++) {
+                track.schedule(new ScheduledEvent<>((long) i, 5L, Resource.of(i)));
+            }
+
+            Assert.assertEquals(1000, repository.getById(5L).getOrders().size());
+            try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+                Assert.assertEquals(Collections.singletonList("segment-00000000.log"),
+                        files.map(file -> file.getFileName().toString()).collect(Collectors.toList()));
+            }
+        }
+
+        try (MappedStreamingRepository<Integer> repository =
+                     new MappedStreamingRepository<>(directory, Codec.INTEGER, 64 * 1024)) {
+            List<ScheduledEvent<Integer>> orders = repository.getById(5L).getOrders();
+            Assert.assertEquals(1000, orders.size());
+            Assert.assertEquals(Long.valueOf(999L), orders.get(999).getId());
+            Assert.assertEquals(Integer.valueOf(1000), repository.getOrderCount());
+        }
+    }
+
+    @Test
+    public void rejectsCoalescingOfDecodedEvents() throws Exception {
+        try (MappedStreamingRepository<Integer> repository =
+                     new MappedStreamingRepository<>(folder.newFolder().toPath(), Codec.INTEGER, 64 * 1024)) {
+            Cart<Integer>[] carts = new Cart[]{};
+            Track<Integer> track = new Track<>(new ExpandingResource<>(carts, Cart::new, repository));
+            try {
+                track.setCoalescing(true);
+                Assert.fail("Coalescing must be rejected for a repository that decodes copies of its events");
+            } catch (IllegalStateException expected) {
+                Assert.assertFalse(track.isCoalescing());
+            }
+
+            track.setCoalescing(false);
+            Assert.assertFalse(track.isCoalescing());
+        }
+    }
+}
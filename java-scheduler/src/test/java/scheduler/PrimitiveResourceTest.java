@@ -0,0 +1,50 @@
+package scheduler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+public class PrimitiveResourceTest {
+
+    @Test
+    public void drainIntsAndIncrementPosition() throws Exception {
+        IntResource resource = new IntResource(IntStream.range(0, 10).toArray());
+        int[] sum = new int[1];
+
+        Assert.assertEquals(4, resource.drainToInt(4, i -> sum[0] += i));
+        Assert.assertEquals(6, sum[0]);
+        Assert.assertEquals(Integer.valueOf(4), resource.getPosition());
+        Assert.assertEquals(ResourceState.NOT_EMPTY, resource.getState());
+
+        Assert.assertEquals(6, resource.drainToInt(10, i -> sum[0] += i));
+        Assert.assertEquals(45, sum[0]);
+        Assert.assertEquals(ResourceState.EXHAUSTED, resource.getState());
+    }
+
+    @Test
+    public void drainLongsAndIncrementPosition() throws Exception {
+        LongResource resource = new LongResource(LongStream.range(0L, 10L).toArray());
+        long[] sum = new long[1];
+
+        Assert.assertEquals(10, resource.drainToLong(20, i -> sum[0] += i));
+        Assert.assertEquals(45L, sum[0]);
+        Assert.assertEquals(ResourceState.EXHAUSTED, resource.getState());
+    }
+
+    @Test
+    public void deliverIntResourceOnTrack() throws Exception {
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        track.schedule(new ScheduledEvent<>(1L, 2L, new IntResource(7, 8, 9)));
+
+        List<Integer> delivered = new ArrayList<>();
+        while (!track.isEmpty()) {
+            delivered.addAll(track.nextFrame());
+        }
+
+        Assert.assertArrayEquals(new Integer[]{7, 8, 9}, delivered.toArray());
+    }
+}
@@ -0,0 +1,70 @@
+package scheduler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PriorityCartTest {
+
+    @Test
+    public void deliversEventsInOrderOfPriority() throws Exception {
+        TimingWheelTrack<String> track = new TimingWheelTrack<>(PriorityCart::new);
+
+        track.schedule(event(1L, "location-1", 0, null));
+        track.schedule(event(2L, "location-2", 0, null));
+        track.schedule(event(3L, "prepared", 10, null));
+        track.schedule(event(4L, "assigned", 0, 0L));
+
+        Assert.assertEquals(Arrays.asList("prepared", "assigned", "location-1", "location-2"), track.nextFrame());
+    }
+
+    @Test
+    public void defersEventsOverBudget() throws Exception {
+        TimingWheelTrack<String> track = new TimingWheelTrack<>(() -> new PriorityCart<>(2, PriorityCart.Overflow.DEFER));
+
+        track.schedule(event(1L, "location-1", 0, null));
+        track.schedule(event(2L, "location-2", 0, null));
+        track.schedule(event(3L, "prepared", 10, null));
+        track.schedule(event(4L, "delivered", 10, null));
+
+        Assert.assertEquals(Arrays.asList("prepared", "delivered"), track.nextFrame());
+        Assert.assertEquals(Arrays.asList("location-1", "location-2"), track.nextFrame());
+        Assert.assertTrue(track.isEmpty());
+    }
+
+    @Test
+    public void shedsEventsOverBudget() throws Exception {
+        List<Long> shed = new ArrayList<>();
+        TimingWheelTrack<String> track = new TimingWheelTrack<>(() ->
+                new PriorityCart<>(null, 1, PriorityCart.Overflow.SHED, (event) -> shed.add(event.getId())));
+
+        track.schedule(event(1L, "location-1", 0, null));
+        track.schedule(event(2L, "location-2", 0, null));
+        track.schedule(event(3L, "prepared", 10, null));
+
+        Assert.assertEquals(Arrays.asList("prepared"), track.nextFrame());
+        Assert.assertEquals(Arrays.asList(1L, 2L), shed);
+        Assert.assertTrue(track.isEmpty());
+    }
+
+    @Test
+    public void deliversDueEventsOverBudget() throws Exception {
+        TimingWheelTrack<String> track = new TimingWheelTrack<>(() -> new PriorityCart<>(1, PriorityCart.Overflow.SHED));
+
+        track.schedule(event(1L, "prepared", 10, null));
+        track.schedule(event(2L, "location", 0, 0L));
+
+        Assert.assertEquals(Arrays.asList("prepared", "location"), track.nextFrame());
+        Assert.assertTrue(track.isEmpty());
+    }
+
+    private static ScheduledEvent<String> event(Long id, String item, int priority, Long deadline) {
+        ScheduledEvent<String> scheduledEvent = new ScheduledEvent<>(id, 0L, Resource.of(item));
+        scheduledEvent.setPriority(priority);
+        scheduledEvent.setDeadline(deadline);
+        return scheduledEvent;
+    }
+}
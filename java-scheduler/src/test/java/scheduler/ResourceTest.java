@@ -21,6 +21,21 @@ public class ResourceTest {
         Assert.assertEquals(resource.getPosition(), actualPos);
     }
 
+    @Test
+    public void drainFiveAndIncrementPosition() throws Exception {
+        Resource<Integer> resource = Resource.of(0, 1, 2, 3, 4, 5, 6);
+        List<Integer> drained = new ArrayList<>();
+
+        Assert.assertEquals(5, resource.drainTo(5, drained::add));
+        Assert.assertArrayEquals(new Integer[]{0, 1, 2, 3, 4}, drained.toArray());
+        Assert.assertEquals(Integer.valueOf(5), resource.getPosition());
+        Assert.assertEquals(ResourceState.NOT_EMPTY, resource.getState());
+
+        Assert.assertEquals(2, resource.drainTo(5, drained::add));
+        Assert.assertEquals(0, resource.drainTo(5, drained::add));
+        Assert.assertEquals(ResourceState.EXHAUSTED, resource.getState());
+    }
+
     @Test
     public void asyncIncrementalExhaustion() throws Exception {
         Resource<Integer> resource = new Resource<>(10, 0, IntStream.range(0, 10).boxed()
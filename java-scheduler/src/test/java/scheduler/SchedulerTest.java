@@ -0,0 +1,205 @@
+package scheduler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+public class SchedulerTest {
+
+    @Test
+    public void deliversOneFramePerTick() throws Exception {
+        long[] clock = new long[]{0L};
+        Scheduler scheduler = new Scheduler(10, TimeUnit.MILLISECONDS, () -> clock[0]);
+
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        IntStream.range(0, 5).forEach(i -> track.schedule(new ScheduledEvent<>((long) i, (long) i, Resource.of(i))));
+
+        List<Integer> delivered = new ArrayList<>();
+        scheduler.register(new Vendor<>(1L, track), track, delivered::addAll);
+
+        Assert.assertEquals(0, scheduler.tick());
+
+        clock[0] = TimeUnit.MILLISECONDS.toNanos(10);
+        Assert.assertEquals(1, scheduler.tick());
+        Assert.assertEquals(Arrays.asList(0), delivered);
+
+        // The next tick is not due yet
+        clock[0] = TimeUnit.MILLISECONDS.toNanos(19);
+        Assert.assertEquals(0, scheduler.tick());
+        Assert.assertEquals(0L, scheduler.getLag());
+    }
+
+    @Test
+    public void catchesUpMissedFramesInBatches() throws Exception {
+        long[] clock = new long[]{0L};
+        Scheduler scheduler = new Scheduler(1, TimeUnit.MILLISECONDS, () -> clock[0]);
+        scheduler.setMaxCatchUpFrames(4);
+
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        IntStream.range(0, 10).forEach(i -> track.schedule(new ScheduledEvent<>((long) i, (long) i, Resource.of(i))));
+
+        List<Integer> delivered = new ArrayList<>();
+        scheduler.register(new Vendor<>(1L, track), track, delivered::addAll);
+
+        // A stall of ten ticks is recovered over the next three ticks
+        clock[0] = TimeUnit.MILLISECONDS.toNanos(10);
+        Assert.assertEquals(4, scheduler.tick());
+        Assert.assertEquals(6L, scheduler.getLag());
+        Assert.assertEquals(4, scheduler.tick());
+        Assert.assertEquals(2, scheduler.tick());
+        Assert.assertEquals(0L, scheduler.getLag());
+        Assert.assertEquals(10L, scheduler.getFrames());
+
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), delivered);
+    }
+
+    @Test
+    public void deliversFramesOnStart() throws Exception {
+        CountDownLatch latch = new CountDownLatch(3);
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        IntStream.range(0, 3).forEach(i -> track.schedule(new ScheduledEvent<>((long) i, (long) i, Resource.of(i))));
+
+        try (Scheduler scheduler = new Scheduler(1, TimeUnit.MILLISECONDS)) {
+            scheduler.register(new Vendor<>(1L, track), track, frame -> latch.countDown());
+            scheduler.start();
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void sharesThreadPoolAcrossVendors() throws Exception {
+        long[] clock = new long[]{0L};
+        int vendors = 1000;
+
+        try (Scheduler scheduler = new Scheduler(1, TimeUnit.MILLISECONDS, 4, () -> clock[0])) {
+            Map<Long, List<Integer>> delivered = new ConcurrentHashMap<>();
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+
+            for (long v = 0; v < vendors; v++) {
+                TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+                IntStream.range(0, 3).forEach(i -> track.schedule(new ScheduledEvent<>((long) i, (long) i,
+                        Resource.of(i))));
+
+                List<Integer> frames = Collections.synchronizedList(new ArrayList<>());
+                delivered.put(v, frames);
+                scheduler.register(new Vendor<>(v, track), track, frame -> {
+                    threads.add(Thread.currentThread().getName());
+                    frames.addAll(frame);
+                });
+            }
+
+            for (int tick = 1; tick <= 3; tick++) {
+                clock[0] = TimeUnit.MILLISECONDS.toNanos(tick);
+                Assert.assertEquals(1, scheduler.tick());
+            }
+
+            // Every vendor advanced one frame per tick, in order, on at most four threads
+            Assert.assertEquals(vendors, delivered.size());
+            delivered.values().forEach(frames -> Assert.assertEquals(Arrays.asList(0, 1, 2), frames));
+            Assert.assertTrue(threads.size() <= 4);
+        }
+    }
+
+    @Test
+    public void unregistersVendors() throws Exception {
+        long[] clock = new long[]{0L};
+        Scheduler scheduler = new Scheduler(1, TimeUnit.MILLISECONDS, () -> clock[0]);
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        track.schedule(new ScheduledEvent<>(1L, 0L, Resource.of(1)));
+
+        Vendor<String> vendor = new Vendor<>(1L, "vendor");
+        List<Integer> delivered = new ArrayList<>();
+        scheduler.register(vendor, track, delivered::addAll);
+        Assert.assertSame(track, scheduler.getTrack(vendor));
+
+        scheduler.unregister(vendor);
+        clock[0] = TimeUnit.MILLISECONDS.toNanos(1);
+        scheduler.tick();
+
+        Assert.assertNull(scheduler.getTrack(vendor));
+        Assert.assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    public void reportsMetrics() throws Exception {
+        long[] clock = new long[]{0L};
+        Scheduler scheduler = new Scheduler(1, TimeUnit.MILLISECONDS, () -> clock[0]);
+        List<long[]> frames = new ArrayList<>();
+        List<long[]> ticks = new ArrayList<>();
+        scheduler.setMetrics(new SchedulerMetrics() {
+            @Override
+            public void frameDelivered(long position, int events, int rescheduled, long nanos) {
+                frames.add(new long[]{position, events, rescheduled});
+            }
+
+            @Override
+            public void tickCompleted(int frames, long lag, long nanos) {
+                ticks.add(new long[]{frames, lag});
+            }
+        });
+
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        track.schedule(new ScheduledEvent<>(1L, 0L, Resource.of(1, 2)));
+        track.schedule(new ScheduledEvent<>(2L, 0L, Resource.of(3)));
+        scheduler.register(new Vendor<>(1L, track), track, frame -> {
+        });
+        Assert.assertEquals(2L, scheduler.getPendingEvents());
+
+        clock[0] = TimeUnit.MILLISECONDS.toNanos(1);
+        scheduler.tick();
+        Assert.assertArrayEquals(new long[]{0L, 2L, 1L}, frames.get(0));
+        Assert.assertEquals(1L, scheduler.getPendingEvents());
+
+        clock[0] = TimeUnit.MILLISECONDS.toNanos(20);
+        scheduler.tick();
+        Assert.assertArrayEquals(new long[]{1L, 1L, 0L}, frames.get(1));
+        Assert.assertEquals(0L, scheduler.getPendingEvents());
+
+        Assert.assertArrayEquals(new long[]{1L, 0L}, ticks.get(0));
+        Assert.assertArrayEquals(new long[]{16L, 3L}, ticks.get(1));
+    }
+
+    @Test
+    public void handlesChannelsOfFrameInParallel() throws Exception {
+        long[] clock = new long[]{0L};
+        Scheduler scheduler = new Scheduler(10, TimeUnit.MILLISECONDS, () -> clock[0]);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        IntStream.range(0, 400).forEach(i -> track.schedule(new ScheduledEvent<>((long) i, 0L, Resource.of(i))));
+
+        // Every channel waits for the other channels, which only returns if the handlers run at the same time
+        CyclicBarrier barrier = new CyclicBarrier(4);
+        Map<Long, List<Integer>> delivered = new ConcurrentHashMap<>();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        scheduler.registerByChannel(new Vendor<>(1L, track), track, e -> e.getId() % 4, (channel, items) -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+            threads.add(Thread.currentThread());
+            delivered.put(channel, new ArrayList<>(items));
+        }, pool);
+
+        clock[0] = TimeUnit.MILLISECONDS.toNanos(10);
+        Assert.assertEquals(1, scheduler.tick());
+        pool.shutdown();
+
+        Assert.assertEquals(4, delivered.size());
+        Assert.assertEquals(4, threads.size());
+        delivered.forEach((channel, items) -> {
+            Assert.assertEquals(100, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Assert.assertEquals(channel.intValue() + i * 4, items.get(i).intValue());
+            }
+        });
+    }
+}
@@ -0,0 +1,221 @@
+package scheduler;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TimingWheelTrackTest {
+
+    @Test
+    public void deliversEventsAtScheduledFrames() throws Exception {
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+
+        // Schedule events on both sides of the boundaries between wheels
+        long[] frames = new long[]{0L, 1L, 63L, 64L, 65L, 4095L, 4096L, 262144L, 300001L};
+        for (long frame : frames) {
+            track.schedule(new ScheduledEvent<>(frame, frame, Resource.of((int) frame)));
+        }
+
+        Map<Long, List<Integer>> delivered = new HashMap<>();
+        while (!track.isEmpty()) {
+            long position = track.getPosition();
+            List<Integer> frame = track.nextFrame();
+            if (!frame.isEmpty()) {
+                delivered.put(position, frame);
+            }
+        }
+
+        Assert.assertEquals(frames.length, delivered.size());
+        for (long frame : frames) {
+            Assert.assertEquals(Collections.singletonList((int) frame), delivered.get(frame));
+        }
+    }
+
+    @Test
+    public void overflowsResourcesToNextFrame() throws Exception {
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        track.schedule(new ScheduledEvent<>(1L, 62L, Resource.of(1, 2, 3, 4)));
+
+        List<Integer> delivered = new ArrayList<>();
+        while (!track.isEmpty()) {
+            long position = track.getPosition();
+            List<Integer> frame = track.nextFrame();
+            if (!frame.isEmpty()) {
+                Assert.assertEquals(62L + delivered.size(), position);
+                delivered.addAll(frame);
+            }
+        }
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4), delivered);
+        Assert.assertEquals(Integer.valueOf(0), track.getOrders());
+    }
+
+    @Test
+    public void skipsEmptyFrames() throws Exception {
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        track.schedule(new ScheduledEvent<>(1L, 100000L, Resource.of(1)));
+        track.schedule(new ScheduledEvent<>(2L, 5000000L, Resource.of(2)));
+
+        Assert.assertEquals(Long.valueOf(100000L), track.skipEmptyFrames());
+        Assert.assertEquals(Collections.singletonList(1), track.nextFrame());
+        Assert.assertEquals(Long.valueOf(5000000L), track.skipEmptyFrames());
+        Assert.assertEquals(Collections.singletonList(2), track.nextFrame());
+        Assert.assertTrue(track.isEmpty());
+    }
+
+    @Test
+    public void deliversSameFramesAsTrack() throws Exception {
+        Cart<Integer>[] carts = new Cart[]{};
+        Track<Integer> track = new Track<>(new ExpandingResource<>(carts, Cart::new, new InMemoryRepository()));
+        TimingWheelTrack<Integer> timingWheelTrack = new TimingWheelTrack<>();
+
+        Random random = new Random(42L);
+        IntStream.range(0, 2000).forEach(i -> {
+            long deliveryTime = random.nextInt(10000);
+            Integer[] items = IntStream.range(0, 1 + random.nextInt(3)).mapToObj(k -> i).toArray(Integer[]::new);
+            track.schedule(new ScheduledEvent<>((long) i, deliveryTime, Resource.of(items)));
+            timingWheelTrack.schedule(new ScheduledEvent<>((long) i, deliveryTime, Resource.of(items)));
+        });
+
+        while (track.getOrders() > 0) {
+            Assert.assertEquals(track.getPosition(), timingWheelTrack.getPosition());
+            List<Integer> expected = track.nextFrame().stream().sorted().collect(Collectors.toList());
+            List<Integer> actual = timingWheelTrack.nextFrame().stream().sorted().collect(Collectors.toList());
+            Assert.assertEquals(expected, actual);
+        }
+
+        Assert.assertTrue(timingWheelTrack.isEmpty());
+    }
+
+    @Test
+    public void deliversChannelsInParallelAndInOrder() throws Exception {
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // Every event in a channel is scheduled on the same frame, in ascending order of its id
+        IntStream.range(0, 4000).forEach(i -> track.schedule(new ScheduledEvent<>((long) i, 10L, Resource.of(i))));
+
+        Map<Long, List<Integer>> delivered = new HashMap<>();
+        while (!track.isEmpty()) {
+            Map<Long, List<Integer>> frame = track.nextFrame(e -> e.getId() % 8, pool);
+            frame.forEach((channel, items) -> delivered.computeIfAbsent(channel, k -> new ArrayList<>()).addAll(items));
+        }
+        pool.shutdown();
+
+        Assert.assertEquals(8, delivered.size());
+        delivered.forEach((channel, items) -> {
+            Assert.assertEquals(500, items.size());
+            for (int i = 0; i < items.size(); i++) {
+                Assert.assertEquals(channel.intValue() + i * 8, items.get(i).intValue());
+            }
+        });
+    }
+
+    @Test
+    public void deliversTrackAndEventFrameSizes() throws Exception {
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        track.setFrameSize(3);
+
+        track.schedule(new ScheduledEvent<>(1L, 0L, Resource.of(1, 2, 3, 4, 5, 6, 7)));
+        ScheduledEvent<Integer> single = new ScheduledEvent<>(2L, 0L, Resource.of(10, 20, 30));
+        single.setFrameSize(1);
+        track.schedule(single);
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 10), track.nextFrame());
+        Assert.assertEquals(Arrays.asList(4, 5, 6, 20), track.nextFrame());
+        Assert.assertEquals(Arrays.asList(7, 30), track.nextFrame());
+        Assert.assertTrue(track.isEmpty());
+    }
+
+    @Test
+    public void growsFrameSizeWhenBehindClock() throws Exception {
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        long[] clock = new long[]{0L};
+        track.setAdaptiveFrameSize(() -> clock[0], 8);
+        track.schedule(new ScheduledEvent<>(1L, 0L, Resource.of(IntStream.range(0, 20).boxed().toArray(Integer[]::new))));
+
+        // The track is on time, so it delivers one resource per frame
+        Assert.assertEquals(1, track.nextFrame().size());
+
+        // The track falls behind the clock by three frames
+        clock[0] = 4L;
+        Assert.assertEquals(4, track.getFrameSize());
+        Assert.assertEquals(4, track.nextFrame().size());
+
+        // The frame size is bounded when the track is far behind
+        clock[0] = 1000L;
+        Assert.assertEquals(8, track.nextFrame().size());
+        Assert.assertEquals(7, track.nextFrame().size());
+        Assert.assertTrue(track.isEmpty());
+    }
+
+    @Test
+    public void coalescesSupersededEvents() throws Exception {
+        TimingWheelTrack<String> track = new TimingWheelTrack<>();
+        track.setCoalescing(true);
+
+        track.schedule(location(1L, 1L, "order-1:a"));
+        track.schedule(location(2L, 2L, "order-1:b"));
+        track.schedule(location(3L, 2L, "order-1:c"));
+        track.schedule(location(4L, 2L, "order-2:a"));
+
+        // A pending event that is delivered after a newer event is not superseded
+        track.schedule(location(5L, 3L, "order-3:b"));
+        track.schedule(location(6L, 2L, "order-3:a"));
+
+        Assert.assertEquals(6, (int) track.getOrders());
+        Assert.assertEquals(Collections.emptyList(), track.nextFrame());
+        Assert.assertEquals(Collections.emptyList(), track.nextFrame());
+        Assert.assertEquals(Arrays.asList("order-1:c", "order-2:a", "order-3:a"), track.nextFrame());
+        Assert.assertEquals(Arrays.asList("order-3:b"), track.nextFrame());
+        Assert.assertTrue(track.isEmpty());
+
+        // The key is released once its event is delivered
+        track.schedule(location(7L, 4L, "order-1:d"));
+        Assert.assertEquals(Arrays.asList("order-1:d"), track.nextFrame());
+    }
+
+    private static ScheduledEvent<String> location(Long id, Long deliveryTime, String update) {
+        ScheduledEvent<String> scheduledEvent = new ScheduledEvent<>(id, deliveryTime, Resource.of(update));
+        scheduledEvent.setCoalesceKey(update.substring(0, update.indexOf(':')));
+        return scheduledEvent;
+    }
+
+    @Test
+    public void recoversFromFailedUnpack() throws Exception {
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        track.schedule(new ScheduledEvent<>(1L, 0L, Resource.of(1, 2)));
+
+        Assert.assertNull(track.deliver(cart -> {
+            throw new IllegalStateException("Unpack failed");
+        }));
+
+        // The events of the failed frame overflow to the next frame instead of being lost
+        Assert.assertEquals(Long.valueOf(1L), track.getPosition());
+        Assert.assertEquals(Integer.valueOf(1), track.getOrders());
+        Assert.assertEquals(Collections.singletonList(1), track.nextFrame());
+        Assert.assertEquals(Collections.singletonList(2), track.nextFrame());
+        Assert.assertTrue(track.isEmpty());
+    }
+
+    @Test
+    public void deliversEventsScheduledDuringUnpackInNextFrame() throws Exception {
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        track.schedule(new ScheduledEvent<>(1L, 0L, Resource.of(1)));
+
+        List<Integer> first = track.deliver(cart -> {
+            track.schedule(new ScheduledEvent<>(2L, 0L, Resource.of(2)));
+            List<Integer> result = new ArrayList<>();
+            cart.drainTo(1, result::add);
+            return result;
+        });
+
+        Assert.assertEquals(Collections.singletonList(1), first);
+        Assert.assertEquals(Collections.singletonList(2), track.nextFrame());
+        Assert.assertTrue(track.isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package scheduler;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TrackSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replaysFramesFromSnapshot() throws Exception {
+        TimingWheelTrack<Integer> track = randomTrack(new TimingWheelTrack<>(), 42L);
+        track.nextFrame();
+        track.nextFrame();
+
+        TrackSnapshot<Integer> snapshot = track.snapshot();
+        List<List<Integer>> expected = drain(track);
+
+        // Every track restored from the snapshot delivers the frames of the original track
+        for (int i = 0; i < 2; i++) {
+            TimingWheelTrack<Integer> replay = new TimingWheelTrack<>();
+            replay.restore(snapshot);
+            Assert.assertEquals(snapshot.getPosition(), (long) replay.getPosition());
+            Assert.assertEquals(expected, drain(replay));
+        }
+    }
+
+    @Test
+    public void readsSnapshotFromFile() throws Exception {
+        TimingWheelTrack<Integer> track = randomTrack(new ConcurrentTrack<>(), 7L);
+        track.nextFrame();
+
+        Path file = folder.newFile("track.snapshot").toPath();
+        track.snapshot().write(file, Codec.INTEGER);
+        TrackSnapshot<Integer> snapshot = TrackSnapshot.read(file, Codec.INTEGER);
+
+        ConcurrentTrack<Integer> replay = new ConcurrentTrack<>();
+        replay.restore(snapshot);
+        Assert.assertEquals(drain(track), drain(replay));
+        Assert.assertTrue(replay.isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void restoresOnlyEmptyTracks() throws Exception {
+        TimingWheelTrack<Integer> track = randomTrack(new TimingWheelTrack<>(), 1L);
+        track.restore(track.snapshot());
+    }
+
+    /**
+     * Schedules events with a seeded random delivery time and a random number of resources.
+     */
+    private static TimingWheelTrack<Integer> randomTrack(TimingWheelTrack<Integer> track, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < 200; i++) {
+            Integer[] items = new Integer[1 + random.nextInt(4)];
+            for (int j = 0; j < items.length; j++) {
+                items[j] = i * 10 + j;
+            }
+            track.schedule(new ScheduledEvent<>((long) i, (long) random.nextInt(100), Resource.of(items)));
+        }
+        return track;
+    }
+
+    private static List<List<Integer>> drain(Track<Integer> track) {
+        List<List<Integer>> frames = new ArrayList<>();
+        while (!track.isEmpty()) {
+            frames.add(track.nextFrame());
+        }
+        return frames;
+    }
+}
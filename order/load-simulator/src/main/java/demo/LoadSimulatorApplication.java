@@ -8,8 +8,11 @@ import demo.driver.domain.DriverActor;
 import demo.restaurant.config.RestaurantProperties;
 import demo.restaurant.domain.Restaurant;
 import demo.restaurant.domain.RestaurantActor;
+import demo.scheduler.MicrometerSchedulerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -25,6 +28,8 @@ import org.springframework.retry.support.RetryTemplate;
 import org.springframework.util.FileCopyUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import scheduler.EventDispatcher;
+import scheduler.Scheduler;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -33,6 +38,10 @@ import java.io.UncheckedIOException;
 import java.time.Duration;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -72,12 +81,31 @@ public class LoadSimulatorApplication {
     @Bean
     @Profile({"docker", "development"})
     public CommandLineRunner commandLineRunner(OrderServiceClient orderServiceClient,
-                                               DriverServiceClient driverServiceClient) {
+                                               DriverServiceClient driverServiceClient,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${load-simulator.seed:#{null}}") Long seed,
+                                               @Value("${load-simulator.frame-concurrency:64}") int frameConcurrency) {
         return (args) -> {
+            // Every random value of the simulation is derived from one seed, which fixes the restaurants and the values of
+            // each of their orders. A run is not replayed exactly, since orders arrive and frames advance by the wall
+            // clock and the ids of scheduled events depend on the order in which threads schedule them
+            long simulationSeed = seed != null ? seed : System.nanoTime();
+            log.info("Starting load simulation with load-simulator.seed={}", simulationSeed);
+            Random random = new Random(simulationSeed);
 
             String file = resourceAsString(new ClassPathResource("/locations.json"));
             ObjectMapper mapper = new ObjectMapper();
 
+            // All actors share one event scheduler and one executor for new requests
+            Scheduler eventScheduler = new Scheduler(1000L, TimeUnit.MILLISECONDS,
+                    Runtime.getRuntime().availableProcessors());
+            eventScheduler.setMetrics(new MicrometerSchedulerMetrics(meterRegistry, eventScheduler));
+            // The actions of a frame are blocking requests, so each of them runs on its own virtual thread, with at most
+            // frame-concurrency requests in flight across all actors
+            eventScheduler.setEventDispatcher(EventDispatcher.virtualThreads(frameConcurrency, 1000L,
+                    TimeUnit.MILLISECONDS));
+            ScheduledExecutorService requestScheduler = Executors.newScheduledThreadPool(2);
+
             // Create restaurants
             List<RestaurantActor> restaurants =
                     Stream.of(mapper.readValue(file, Restaurant[].class))
@@ -87,7 +115,10 @@ public class LoadSimulatorApplication {
                             .map(restaurant -> {
                                 RestaurantActor restaurantActor = new RestaurantActor();
                                 restaurantActor.setRestaurant(restaurant);
-                                restaurantActor.init(new RestaurantProperties(Math.round(Math.random() * 35000.0) +
+                                restaurantActor.setEventScheduler(eventScheduler);
+                                restaurantActor.setNewOrderScheduler(requestScheduler);
+                                restaurantActor.setRandom(new Random(random.nextLong()));
+                                restaurantActor.init(new RestaurantProperties(Math.round(random.nextDouble() * 35000.0) +
                                         60000L, 1000L, 15.0), orderServiceClient);
                                 return restaurantActor;
                             })
@@ -106,6 +137,8 @@ public class LoadSimulatorApplication {
                         DriverActor driverActor = new DriverActor(new DriverProperties(
                                 5000L, 1000L, 15.0));
                         driverActor.setDriver(driver);
+                        driverActor.setEventScheduler(eventScheduler);
+                        driverActor.setNewDriverScheduler(requestScheduler);
                         driverActor.init(driverServiceClient, orderServiceClient);
                         return driverActor;
                     }).collect(Collectors.toList());
@@ -8,22 +8,19 @@ import demo.order.util.DistanceUnit;
 import demo.order.util.GeoUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scheduler.Scheduler;
+import scheduler.Vendor;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 public class DriverActor {
     private final Logger log = LoggerFactory.getLogger(this.getClass().getName());
-    private final ScheduledExecutorService scheduledExecutor = Executors.newSingleThreadScheduledExecutor();
-    private final ScheduledExecutorService newDriverScheduler = Executors.newSingleThreadScheduledExecutor();
-    private final ExecutorService parallelEventExecutor = Executors.newSingleThreadExecutor();
-    private final ExecutorService driverSchedulingRetryExecutor = Executors.newSingleThreadExecutor();
-    private final ExecutorService eventProcessorRetryExecutor = Executors.newSingleThreadExecutor();
+    private ScheduledExecutorService newDriverScheduler;
     private ScheduledFuture<?> driverScheduler;
-    private ScheduledFuture<?> eventScheduler;
+    private Scheduler eventScheduler;
+    private Vendor<DriverActor> vendor;
     private Long driverPreparedTime = 0L;
     private final DriverProperties properties;
     private final DriverScheduler deliveryScheduler = new DriverScheduler();
@@ -49,8 +46,26 @@ public class DriverActor {
         this.driverScheduler = driverScheduler;
     }
 
-    public ScheduledExecutorService getScheduledExecutor() {
-        return scheduledExecutor;
+    public Scheduler getEventScheduler() {
+        return eventScheduler;
+    }
+
+    /**
+     * Sets the {@link Scheduler} that delivers the events of this driver, which can be shared by many actors.
+     *
+     * @param eventScheduler is the scheduler to register the driver with
+     */
+    public void setEventScheduler(Scheduler eventScheduler) {
+        this.eventScheduler = eventScheduler;
+    }
+
+    /**
+     * Sets the executor that checks for new order requests for this driver, which can be shared by many actors.
+     *
+     * @param newDriverScheduler is the executor that runs the new order requests
+     */
+    public void setNewDriverScheduler(ScheduledExecutorService newDriverScheduler) {
+        this.newDriverScheduler = newDriverScheduler;
     }
 
     public void newOrderRequest() {
@@ -62,8 +77,7 @@ public class DriverActor {
             try {
                 orderRequest = driverServiceClient.fetchOrderRequest(driver.getDriverId());
             } catch (Exception ex) {
-                log.trace(String.format("Driver{id=%s} could not fetch order: ",
-                        driver.getDriverId()) + ex.getMessage());
+                log.trace("Driver{id={}} could not fetch order: {}", driver.getDriverId(), ex.getMessage());
             }
 
             if (orderRequest != null) {
@@ -87,8 +101,7 @@ public class DriverActor {
                         driverServiceClient.update(driver);
                     }
                     // Driver is in an invalid state or the order was already claimed
-                    log.info(String.format("Driver{id=%s} could not fetch order: ",
-                            driver.getDriverId()) + ex.getMessage());
+                    log.info("Driver{id={}} could not fetch order: {}", driver.getDriverId(), ex.getMessage());
                 }
             }
         } else {
@@ -221,10 +234,6 @@ public class DriverActor {
         addOrderDeliveredWorkflow(workflow);
     }
 
-    private long getFutureTimeFrame(double timeWindowRate) {
-        return (1 + ((Math.round(Math.random() * timeWindowRate))));
-    }
-
     public void open() {
         this.close();
         createEventScheduler();
@@ -232,60 +241,43 @@ public class DriverActor {
     }
 
     private void createEventScheduler() {
-        eventScheduler = scheduledExecutor.scheduleWithFixedDelay(this::processScheduledEvents,
-                properties.getPreparationTime(), properties.getPreparationTime(), TimeUnit.MILLISECONDS);
+        if (eventScheduler == null) {
+            eventScheduler = new Scheduler(properties.getPreparationTime(), TimeUnit.MILLISECONDS);
+        }
 
-        eventProcessorRetryExecutor.submit(() -> {
-            try {
-                eventScheduler.get();
-            } catch (ExecutionException e) {
-                Throwable rootException = e.getCause();
-                log.error("Error processing scheduled events", rootException);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            } finally {
-                createEventScheduler();
-            }
-        });
+        if (vendor == null) {
+            vendor = new Vendor<>(driver.getDriverId(), this);
+        }
+
+        eventScheduler.registerEach(vendor, deliveryScheduler, this::processScheduledEvent);
+        eventScheduler.start();
     }
 
     private void createDriverScheduler() {
-        this.setDriverScheduler(newDriverScheduler.scheduleAtFixedRate(this::newOrderRequest,
-                properties.getNewDriverTime(), properties.getNewDriverTime(), TimeUnit.MILLISECONDS));
+        if (newDriverScheduler == null) {
+            newDriverScheduler = Executors.newSingleThreadScheduledExecutor();
+        }
 
-        driverSchedulingRetryExecutor.submit(() -> {
+        this.setDriverScheduler(newDriverScheduler.scheduleAtFixedRate(() -> {
+            // An exception would cancel every future order request, so it is logged instead
             try {
-                driverScheduler.get();
-            } catch (ExecutionException e) {
-                Throwable rootException = e.getCause();
-                log.error("Error scheduling tasks", rootException);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            } finally {
-                createDriverScheduler();
+                newOrderRequest();
+            } catch (RuntimeException e) {
+                log.error("Error scheduling tasks", e);
             }
-        });
+        }, properties.getNewDriverTime(), properties.getNewDriverTime(), TimeUnit.MILLISECONDS));
     }
 
-    private void processScheduledEvents() {
-        if (!deliveryScheduler.isEmpty()) {
-            List<DriverEvent> deliveryEvents = deliveryScheduler.nextFrame();
+    private void processScheduledEvent(DriverEvent event) {
+        if (event.getDriverWorkflow().isActive()) {
+            Driver driver = event.getDriverAction().apply(event.getDriver());
 
-            if (deliveryEvents != null && deliveryEvents.size() > 0) {
-                deliveryEvents.forEach(event -> {
-                    if (event.getDriverWorkflow().isActive()) {
-                        Driver driver = event.getDriverAction().apply(event.getDriver());
+            // Roll the schedule forward for the driver if everything looks good
+            event.setDriver(driver);
+            event.getDriverWorkflow().setCurrentDriverState(this);
+            event.getDriverWorkflow().scheduleNext();
 
-                        // Roll the schedule forward for the driver if everything looks good
-                        event.setDriver(driver);
-                        event.getDriverWorkflow().setCurrentDriverState(this);
-                        event.getDriverWorkflow().scheduleNext();
-
-                        log.info("[DRIVER_EVENT]: " + this.toString() + ": " + Arrays.toString(deliveryEvents
-                                .toArray(DriverEvent[]::new)));
-                    }
-                });
-            }
+            log.debug("[DRIVER_EVENT]: {}: {}", this, event);
         }
     }
 
@@ -2,24 +2,23 @@ package demo.driver.domain;
 
 import scheduler.*;
 
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.logging.Logger;
 
-public class DriverScheduler extends Track<DriverEvent> {
+public class DriverScheduler extends ConcurrentTrack<DriverEvent> {
 
-    private final Logger log = Logger.getLogger(this.getClass().getName());
+    private final AtomicLong eventIds = new AtomicLong();
 
     public DriverScheduler() {
-        super(new ExpandingResource<Cart<DriverEvent>, DriverEvent>(new Cart[]{}, Cart::new,
-                new DriverRepository()));
+        // Location updates are delivered after every other event of the same frame
+        super(Runtime.getRuntime().availableProcessors(), PriorityCart::new);
     }
 
     public DriverWorkflow addToWorkflow(DriverWorkflow workflow, DriverActor driver,
                                           Consumer<ScheduledEvent<DriverEvent>> frame, DriverEventType type,
                                           Function<Driver, Driver> action) {
-        Long eventId = (long) Math.abs(UUID.randomUUID().hashCode());
+        Long eventId = eventIds.incrementAndGet();
         return addToWorkflow(workflow, driver, eventId, frame, type, action);
     }
 
@@ -32,13 +31,13 @@ public class DriverScheduler extends Track<DriverEvent> {
         // Create a new scheduled event that executes an action at a specified key frame in the future
         ScheduledEvent<DriverEvent> scheduledEvent =
                 new ScheduledEvent<>(eventId, Resource.of(driverEvent), frame);
+        scheduledEvent.setPriority(type == DriverEventType.LOCATION_UPDATED ? 0 : 1);
 
         return workflow.addEvent(scheduledEvent);
     }
 
     public void schedule(DriverWorkflow workflow) {
         ScheduledEvent<DriverEvent> scheduledEvent = workflow.scheduleNext();
-        log.info("[EVENT_SCHEDULED]: " + this.toString() + ": " + scheduledEvent.toString());
         this.schedule(scheduledEvent);
     }
 }
@@ -5,6 +5,7 @@ public class RestaurantProperties {
     private Long newOrderTime = 15000L;
     private Long preparationTime = 3000L;
     private Double preparationRate = 4.0;
+    private Integer maxPendingOrders = 100;
 
     public RestaurantProperties() {
     }
@@ -47,4 +48,12 @@ public class RestaurantProperties {
     public void setPreparationRate(Double preparationRate) {
         this.preparationRate = preparationRate;
     }
+
+    public Integer getMaxPendingOrders() {
+        return maxPendingOrders;
+    }
+
+    public void setMaxPendingOrders(Integer maxPendingOrders) {
+        this.maxPendingOrders = maxPendingOrders;
+    }
 }
@@ -3,24 +3,28 @@ package demo.restaurant.domain;
 import demo.order.domain.Order;
 import scheduler.*;
 
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.logging.Logger;
 
-public class DeliveryScheduler extends Track<DeliveryEvent> {
+public class DeliveryScheduler extends BoundedTrack<DeliveryEvent> {
 
-    private final Logger log = Logger.getLogger(this.getClass().getName());
+    private static final int FRAME_CAPACITY = 16;
+
+    private final AtomicLong eventIds = new AtomicLong();
 
     public DeliveryScheduler() {
-        super(new ExpandingResource<Cart<DeliveryEvent>, DeliveryEvent>(new Cart[]{}, Cart::new,
-                new DeliveryRepository()));
+        // Location updates are delivered after every other event of the same frame, and a burst of events spills
+        // over to the frames after it. Workflows schedule their next event from the frame handler, so the track
+        // itself is not bounded, and new orders are throttled by the restaurant instead.
+        super(Runtime.getRuntime().availableProcessors(), PriorityCart::new, FRAME_CAPACITY, Integer.MAX_VALUE,
+                Policy.SPILL);
     }
 
     public DeliveryWorkflow addToWorkflow(DeliveryWorkflow workflow, Order order,
                                           Consumer<ScheduledEvent<DeliveryEvent>> frame, DeliveryEventType type,
                                           Function<Order, Order> action) {
-        Long eventId = (long) Math.abs(UUID.randomUUID().hashCode());
+        Long eventId = eventIds.incrementAndGet();
         return addToWorkflow(workflow, order, eventId, frame, type, action);
     }
 
@@ -33,13 +37,13 @@ public class DeliveryScheduler extends Track<DeliveryEvent> {
         // Create a new scheduled event that executes an action at a specified key frame in the future
         ScheduledEvent<DeliveryEvent> scheduledEvent =
                 new ScheduledEvent<>(eventId, Resource.of(deliveryEvent), frame);
+        scheduledEvent.setPriority(type == DeliveryEventType.ORDER_LOCATION_UPDATED ? 0 : 1);
 
         return workflow.addEvent(scheduledEvent);
     }
 
     public void schedule(DeliveryWorkflow workflow) {
         ScheduledEvent<DeliveryEvent> scheduledEvent = workflow.scheduleNext();
-        log.info("[EVENT_SCHEDULED]: " + this.toString() + ": " + scheduledEvent.toString());
         this.schedule(scheduledEvent);
     }
 }
@@ -6,11 +6,11 @@ import demo.restaurant.config.RestaurantProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.client.HttpClientErrorException;
+import scheduler.Scheduler;
+import scheduler.Vendor;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.Random;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
 
 /**
  * The restaurant actor drives the state of an order forward after customer creation and until a driver pickup.
@@ -26,17 +26,15 @@ public class RestaurantActor {
 
     private final Logger log = LoggerFactory.getLogger(this.getClass().getName());
     private RestaurantProperties properties;
-    private final ScheduledExecutorService scheduledExecutor = Executors.newScheduledThreadPool(2);
-    private final ScheduledExecutorService newOrderScheduler = Executors.newSingleThreadScheduledExecutor();
-    private final ExecutorService parallelEventExecutor = Executors.newFixedThreadPool(5);
-    private final ExecutorService orderSchedulingRetryExecutor = Executors.newSingleThreadExecutor();
-    private final ExecutorService eventProcessorRetryExecutor = Executors.newSingleThreadExecutor();
+    private ScheduledExecutorService newOrderScheduler;
     private ScheduledFuture<?> orderScheduler;
-    private ScheduledFuture<?> eventScheduler;
+    private Scheduler eventScheduler;
+    private Vendor<RestaurantActor> vendor;
     private Long orderPreparedTime = 0L;
     private final DeliveryScheduler deliveryScheduler = new DeliveryScheduler();
     private OrderServiceClient orderServiceClient;
     private Restaurant restaurant;
+    private Random random = new Random();
 
     public RestaurantActor() {
     }
@@ -59,20 +57,62 @@ public class RestaurantActor {
         this.orderScheduler = orderScheduler;
     }
 
-    public ScheduledExecutorService getScheduledExecutor() {
-        return scheduledExecutor;
+    public Scheduler getEventScheduler() {
+        return eventScheduler;
+    }
+
+    /**
+     * Sets the {@link Scheduler} that delivers the events of this restaurant, which can be shared by many actors.
+     *
+     * @param eventScheduler is the scheduler to register the restaurant with
+     */
+    public void setEventScheduler(Scheduler eventScheduler) {
+        this.eventScheduler = eventScheduler;
+    }
+
+    /**
+     * Sets the executor that receives new orders for this restaurant, which can be shared by many actors.
+     *
+     * @param newOrderScheduler is the executor that runs the new order requests
+     */
+    public void setNewOrderScheduler(ScheduledExecutorService newOrderScheduler) {
+        this.newOrderScheduler = newOrderScheduler;
+    }
+
+    /**
+     * Sets the source of randomness for this restaurant. Every value is drawn on the thread that receives new orders,
+     * once for each order that arrives, so the same seed gives the same account and delays to the n-th order of the
+     * restaurant. The time at which an order arrives, and whether the restaurant has capacity for it, still follows
+     * the wall clock and the responses of the services.
+     *
+     * @param random is the random number generator of the restaurant
+     */
+    public void setRandom(Random random) {
+        this.random = random;
     }
 
     public void orderReceived() {
+        // Draw the random values of the order before anything else, so that the n-th order always gets the same ones
+        final long accountId = Math.round(random.nextDouble() * 100000000.0);
+        final long preparationTime = getFutureTimeFrame(properties.getPreparationRate());
+        final long assignedDelay = getFutureTimeFrame(20.0);
+        final long preparingDelay = getFutureTimeFrame(20.0);
+
+        // Turn away new orders while the restaurant is behind on the orders it already has
+        if (deliveryScheduler.getOrders() >= properties.getMaxPendingOrders()) {
+            log.debug("Restaurant{storeId={}} is at capacity", restaurant.getStoreId());
+            return;
+        }
+
         // Create a new order request with a random account ID
-        Order order = orderServiceClient.create(new Order(Math.round(Math.random() * 100000000.0)));
+        Order order = orderServiceClient.create(new Order(accountId));
 
-        orderPreparedTime += getFutureTimeFrame(properties.getPreparationRate());
+        orderPreparedTime += preparationTime;
         final long preparedTime = orderPreparedTime;
 
         DeliveryWorkflow workflow = deliveryScheduler
                 .addToWorkflow(DeliveryWorkflow.build(deliveryScheduler), order,
-                        (event) -> event.setDeliveryTime(deliveryScheduler.getPosition() + getFutureTimeFrame(20.0)),
+                        (event) -> event.setDeliveryTime(deliveryScheduler.getPosition() + assignedDelay),
                         DeliveryEventType.ORDER_ASSIGNED, (orderItem) ->
                                 orderServiceClient.assignOrder(orderItem.getOrderId(), restaurant.getStoreId()))
                 .addToWorkflow(order,
@@ -80,7 +120,7 @@ public class RestaurantActor {
                         DeliveryEventType.ORDER_LOCATION_UPDATED, (orderItem) ->
                                 orderServiceClient.updateOrderLocation(order.getOrderId(), restaurant.getLatitude(), restaurant.getLongitude()))
                 .addToWorkflow(order,
-                        (event) -> event.setDeliveryTime(deliveryScheduler.getPosition() + getFutureTimeFrame(20.0)),
+                        (event) -> event.setDeliveryTime(deliveryScheduler.getPosition() + preparingDelay),
                         DeliveryEventType.ORDER_PREPARING, (orderItem) ->
                                 orderServiceClient.prepareOrder(order.getOrderId()))
                 .addToWorkflow(order,
@@ -92,7 +132,7 @@ public class RestaurantActor {
     }
 
     private long getFutureTimeFrame(double timeWindowRate) {
-        return (1 + ((Math.round(Math.random() * timeWindowRate))));
+        return (1 + ((Math.round(random.nextDouble() * timeWindowRate))));
     }
 
     public void open() {
@@ -102,84 +142,58 @@ public class RestaurantActor {
     }
 
     private void createEventScheduler() {
-        eventScheduler = scheduledExecutor.scheduleWithFixedDelay(this::processScheduledEvents,
-                properties.getPreparationTime(), properties.getPreparationTime(), TimeUnit.MILLISECONDS);
+        if (eventScheduler == null) {
+            eventScheduler = new Scheduler(properties.getPreparationTime(), TimeUnit.MILLISECONDS);
+        }
 
-        eventProcessorRetryExecutor.submit(() -> {
-            try {
-                eventScheduler.get();
-            } catch (ExecutionException e) {
-                Throwable rootException = e.getCause();
-                log.error("Error processing scheduled events", rootException);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            } finally {
-                createEventScheduler();
-            }
-        });
+        if (vendor == null) {
+            vendor = new Vendor<>(restaurant.getStoreId().longValue(), this);
+        }
+
+        eventScheduler.registerEach(vendor, deliveryScheduler, this::processScheduledEvent);
+        eventScheduler.start();
     }
 
     private void createOrderScheduler() {
-        this.setOrderScheduler(newOrderScheduler.scheduleAtFixedRate(this::orderReceived,
-                properties.getNewOrderTime(), properties.getNewOrderTime(), TimeUnit.MILLISECONDS));
+        if (newOrderScheduler == null) {
+            newOrderScheduler = Executors.newSingleThreadScheduledExecutor();
+        }
 
-        orderSchedulingRetryExecutor.submit(() -> {
+        this.setOrderScheduler(newOrderScheduler.scheduleAtFixedRate(() -> {
+            // An exception would cancel every future order, so it is logged instead
             try {
-                orderScheduler.get();
-            } catch (ExecutionException e) {
-                Throwable rootException = e.getCause();
-                log.error("Error scheduling tasks", rootException);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            } finally {
-                createOrderScheduler();
+                orderReceived();
+            } catch (RuntimeException e) {
+                log.error("Error scheduling tasks", e);
             }
-        });
-    }
-
-    private void processScheduledEvents() {
-        if (!deliveryScheduler.isEmpty()) {
-            List<DeliveryEvent> deliveryEvents = deliveryScheduler.nextFrame();
-
-            if (deliveryEvents != null && deliveryEvents.size() > 0) {
-
-                List<Callable<Order>> events = deliveryEvents.stream().map(event -> (Callable<Order>) (() -> {
-                    Order order = null;
-                    try {
-                        order = event.getDeliveryAction().apply(event.getOrder());
-                    } catch (HttpClientErrorException e) {
-                        if (e.getStatusCode().is4xxClientError()) {
-                            // Check the order status on the server
-                            order = orderServiceClient.get(event.getOrder().getOrderId());
-                        }
-                    }
-
-                    if (order != null) {
-                        // Roll the schedule forward for the order if everything looks good
-                        event.setOrder(order);
-                        event.getDeliveryWorkflow().setCurrentOrderState(order);
-                        event.getDeliveryWorkflow().scheduleNext();
-                    } else {
-                        // Roll back the order state to the current client state and schedule the last event
-                        order = orderServiceClient.update(event.getOrder());
-                        event.setOrder(order);
-                        event.getDeliveryWorkflow().setCurrentOrderState(order);
-                        event.getDeliveryWorkflow().scheduleLast();
-                    }
-
-                    log.info("[ORDER_EVENT]: " + this.toString() + ": " + Arrays.toString(deliveryEvents
-                            .toArray(DeliveryEvent[]::new)));
-
-                    return order;
-                })).collect(Collectors.toList());
-
-                try {
-                    parallelEventExecutor.invokeAll(events);
-                } catch (InterruptedException e) {
-                    log.error("Event handler task failed with error", e);
-                }
+        }, properties.getNewOrderTime(), properties.getNewOrderTime(), TimeUnit.MILLISECONDS));
+    }
+
+    private void processScheduledEvent(DeliveryEvent event) {
+        Order order = null;
+        try {
+            order = event.getDeliveryAction().apply(event.getOrder());
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().is4xxClientError()) {
+                // Check the order status on the server
+                order = orderServiceClient.get(event.getOrder().getOrderId());
             }
         }
+
+        if (order != null) {
+            // Roll the schedule forward for the order if everything looks good
+            event.setOrder(order);
+            event.getDeliveryWorkflow().setCurrentOrderState(order);
+            event.getDeliveryWorkflow().scheduleNext();
+        } else {
+            // Roll back the order state to the current client state and schedule the last event
+            order = orderServiceClient.update(event.getOrder());
+            event.setOrder(order);
+            event.getDeliveryWorkflow().setCurrentOrderState(order);
+            event.getDeliveryWorkflow().scheduleLast();
+        }
+
+        log.debug("[ORDER_EVENT]: {}: {}", this, event);
     }
 
     public void close() {
@@ -0,0 +1,61 @@
+package demo.scheduler;
+
+import io.micrometer.core.instrument.*;
+import scheduler.Scheduler;
+import scheduler.SchedulerMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the {@link SchedulerMetrics} of the event {@link Scheduler} shared by the actors of the simulator to a
+ * Micrometer {@link MeterRegistry}, which makes them available from the actuator metrics endpoint.
+ */
+public class MicrometerSchedulerMetrics implements SchedulerMetrics {
+
+    private final DistributionSummary frameEvents;
+    private final Counter rescheduledEvents;
+    private final Timer frameTimer;
+    private final Timer tickTimer;
+
+    public MicrometerSchedulerMetrics(MeterRegistry registry, Scheduler scheduler) {
+        Gauge.builder("scheduler.lag", scheduler, Scheduler::getLag)
+                .description("Frames that are due but were not delivered yet")
+                .baseUnit("frames")
+                .register(registry);
+        Gauge.builder("scheduler.events.pending", scheduler, Scheduler::getPendingEvents)
+                .description("Events that are scheduled but were not delivered yet")
+                .baseUnit("events")
+                .register(registry);
+
+        this.frameEvents = DistributionSummary.builder("scheduler.frame.events")
+                .description("Events unpacked in each frame of a track")
+                .baseUnit("events")
+                .register(registry);
+        this.rescheduledEvents = Counter.builder("scheduler.events.rescheduled")
+                .description("Events that overflowed to the next frame of their track")
+                .baseUnit("events")
+                .register(registry);
+        this.frameTimer = Timer.builder("scheduler.frame.duration")
+                .description("Time spent delivering a frame of a track")
+                .register(registry);
+        this.tickTimer = Timer.builder("scheduler.tick.duration")
+                .description("Time spent delivering the frames of every track in a tick")
+                .register(registry);
+    }
+
+    @Override
+    public void frameDelivered(long position, int events, int rescheduled, long nanos) {
+        frameEvents.record(events);
+        if (rescheduled > 0) {
+            rescheduledEvents.increment(rescheduled);
+        }
+        frameTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void tickCompleted(int frames, long lag, long nanos) {
+        if (frames > 0) {
+            tickTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package demo.scheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import scheduler.*;
+
+import java.util.concurrent.TimeUnit;
+
+public class MicrometerSchedulerMetricsTest {
+
+    @Test
+    public void recordsFramesOfRegisteredTracks() {
+        long[] clock = new long[]{0L};
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Scheduler scheduler = new Scheduler(1, TimeUnit.MILLISECONDS, () -> clock[0]);
+        scheduler.setMetrics(new MicrometerSchedulerMetrics(registry, scheduler));
+
+        TimingWheelTrack<Integer> track = new TimingWheelTrack<>();
+        track.schedule(new ScheduledEvent<>(1L, 0L, Resource.of(1, 2)));
+        scheduler.register(new Vendor<>(1L, track), track, frame -> {
+        });
+        Assertions.assertEquals(1.0, registry.get("scheduler.events.pending").gauge().value());
+
+        clock[0] = TimeUnit.MILLISECONDS.toNanos(1);
+        scheduler.tick();
+
+        Assertions.assertEquals(1L, registry.get("scheduler.frame.events").summary().count());
+        Assertions.assertEquals(1.0, registry.get("scheduler.events.rescheduled").counter().count());
+        Assertions.assertEquals(1L, registry.get("scheduler.frame.duration").timer().count());
+        Assertions.assertEquals(0.0, registry.get("scheduler.lag").gauge().value());
+    }
+}
@@ -0,0 +1,32 @@
+package demo.config;
+
+import demo.driver.event.DriverEvent;
+import demo.driver.event.DriverEventRepository;
+import demo.event.EventLogs;
+import demo.order.event.OrderEvent;
+import demo.order.event.OrderEventRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Stores the order and driver events in segment files on the local disk instead of JPA, when
+ * {@code event.log.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "event.log", name = "enabled", havingValue = "true")
+public class EventLogConfig {
+
+    @Bean
+    @Primary
+    public OrderEventRepository orderEventLogRepository(EventLogs eventLogs) {
+        return eventLogs.getRepository(OrderEventRepository.class, OrderEvent.class);
+    }
+
+    @Bean
+    @Primary
+    public DriverEventRepository driverEventLogRepository(EventLogs eventLogs) {
+        return eventLogs.getRepository(DriverEventRepository.class, DriverEvent.class);
+    }
+}
@@ -2,17 +2,23 @@ package demo.config;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import demo.event.BasicReactiveEventService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.config.EnableWebFlux;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
@@ -41,6 +47,20 @@ public class WebMvcConfig implements WebFluxConfigurer {
         return new RestTemplate(Collections.singletonList(converter));
     }
 
+    @Bean
+    @LoadBalanced
+    @Scope("prototype")
+    protected WebClient.Builder loadBalancedWebClientBuilder(ObjectProvider<WebClientCustomizer> customizers) {
+        WebClient.Builder builder = WebClient.builder();
+        customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+        return builder;
+    }
+
+    @Bean
+    protected WebClient eventsWebClient(@LoadBalanced WebClient.Builder webClientBuilder) {
+        return BasicReactiveEventService.pooledWebClient(webClientBuilder, 64, Duration.ofSeconds(10));
+    }
+
     public void configureContentNegotiation(ContentNegotiationConfigurer configurer) {
         configurer.defaultContentType(MediaType.APPLICATION_JSON);
     }
@@ -8,13 +8,19 @@ import demo.driver.domain.DriverStatus;
 import demo.driver.event.DriverEvent;
 import demo.driver.event.DriverEventService;
 import demo.event.Events;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.RepresentationModel;
 import org.springframework.hateoas.server.LinkBuilder;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Method;
@@ -26,6 +32,9 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 @RequestMapping("/v1")
 public class DriverController {
 
+    private static final int EVENTS_PAGE_SIZE = 100;
+    private static final int MAX_EVENTS_PAGE_SIZE = 1000;
+
     private final DriverService driverService;
     private final DriverEventService eventService;
 
@@ -60,13 +69,21 @@ public class DriverController {
 
 
     @RequestMapping(path = "/drivers/{id}/events")
-    public Mono<ResponseEntity<Events>> getDriverEvents(@PathVariable Long id) {
-        return Optional.of(getDriverEventCollectionModel(id))
+    public Mono<ResponseEntity<Events>> getDriverEvents(@PathVariable Long id,
+                                                     @RequestParam(value = "after", required = false) Long after,
+                                                     @RequestParam(value = "size", defaultValue = "100") Integer size) {
+        return Optional.of(getDriverEventCollectionModel(id, after, size))
                 .map(e -> Mono.just(new ResponseEntity<>(e, HttpStatus.OK)))
                 .orElseThrow(() -> new BadRequestException(HttpStatus.BAD_REQUEST, "Could not get driver events"));
     }
 
 
+    @GetMapping(path = "/drivers/{id}/events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DriverEvent> streamDriverEvents(@PathVariable Long id) {
+        return eventService.stream(id, EVENTS_PAGE_SIZE);
+    }
+
+
     @RequestMapping(path = "/drivers/{id}/events/{eventId}")
     public Mono<ResponseEntity<DriverEvent>> getDriverEvent(@PathVariable Long id, @PathVariable Long eventId) {
         return Optional.of(getEventResource(eventId))
@@ -196,8 +213,40 @@ public class DriverController {
         return eventService.findOne(eventId);
     }
 
-    private Events getDriverEventCollectionModel(Long id) {
-        return eventService.find(id);
+    /**
+     * Get a slice of the event log of the {@link Driver} aggregate, with a link to the next slice if there are more
+     * events after it.
+     *
+     * @param id    is the unique identifier for the {@link Driver}
+     * @param after is the id of the last event that was already read, or null to start at the first event
+     * @param size  is the largest number of events to return
+     * @return a hypermedia resource for the slice of {@link DriverEvent}s
+     */
+    private Events getDriverEventCollectionModel(Long id, Long after, Integer size) {
+        if (size < 1) {
+            throw new BadRequestException(HttpStatus.BAD_REQUEST, "The page size must be positive");
+        }
+
+        size = Math.min(size, MAX_EVENTS_PAGE_SIZE);
+        Slice<DriverEvent> events = eventService.find(id, after, size);
+        Events result = new Events(id, events.getContent());
+
+        if (events.hasNext()) {
+            Long last = events.getContent().get(events.getNumberOfElements() - 1).getEventId();
+            result.add(Link.of(eventsLinkBuilder(id).toUriComponentsBuilder()
+                    .queryParam("after", last)
+                    .queryParam("size", size)
+                    .toUriString(), IanaLinkRelations.NEXT));
+        }
+
+        return result;
+    }
+
+    private WebMvcLinkBuilder eventsLinkBuilder(Long id) {
+        return linkTo(DriverController.class)
+                .slash("drivers")
+                .slash(id)
+                .slash("events");
     }
 
     private LinkBuilder linkBuilder(String name, Long id) {
@@ -228,7 +277,7 @@ public class DriverController {
 
         if (!driver.hasLink("events")) {
             // Add get events link
-            driver.add(linkBuilder("getDriverEvents", driver.getIdentity()).withRel("events"));
+            driver.add(eventsLinkBuilder(driver.getIdentity()).withRel("events"));
         }
 
         if (!driver.hasLink("self")) {
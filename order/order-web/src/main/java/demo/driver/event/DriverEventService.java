@@ -1,12 +1,14 @@
 package demo.driver.event;
 
-import demo.event.BasicEventService;
+import demo.event.BasicReactiveEventService;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 
 @Service
-public class DriverEventService extends BasicEventService<DriverEvent, Long> {
-    public DriverEventService(DriverEventRepository eventRepository, RestTemplate restTemplate) {
-        super(eventRepository, restTemplate);
+public class DriverEventService extends BasicReactiveEventService<DriverEvent, Long> {
+    public DriverEventService(DriverEventRepository eventRepository, RestTemplate restTemplate,
+                              WebClient eventsWebClient) {
+        super(eventRepository, restTemplate, eventsWebClient);
     }
 }
@@ -7,15 +7,21 @@ import demo.order.domain.OrderService;
 import demo.order.domain.OrderStatus;
 import demo.order.event.OrderEvent;
 import demo.order.event.OrderEventService;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.RepresentationModel;
 import org.springframework.hateoas.server.LinkBuilder;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.lang.reflect.Method;
@@ -28,6 +34,9 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 @Transactional
 public class OrderController {
 
+    private static final int EVENTS_PAGE_SIZE = 100;
+    private static final int MAX_EVENTS_PAGE_SIZE = 1000;
+
     private final OrderService orderService;
     private final OrderEventService eventService;
 
@@ -62,13 +71,21 @@ public class OrderController {
 
 
     @RequestMapping(path = "/orders/{id}/events")
-    public Mono<ResponseEntity<Events>> getOrderEvents(@PathVariable Long id) {
-        return Optional.of(getOrderEventCollectionModel(id))
+    public Mono<ResponseEntity<Events>> getOrderEvents(@PathVariable Long id,
+                                                     @RequestParam(value = "after", required = false) Long after,
+                                                     @RequestParam(value = "size", defaultValue = "100") Integer size) {
+        return Optional.of(getOrderEventCollectionModel(id, after, size))
                 .map(e -> Mono.just(new ResponseEntity<>(e, HttpStatus.OK)))
                 .orElseThrow(() -> new BadRequestException(HttpStatus.BAD_REQUEST, "Could not get order events"));
     }
 
 
+    @GetMapping(path = "/orders/{id}/events", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderEvent> streamOrderEvents(@PathVariable Long id) {
+        return eventService.stream(id, EVENTS_PAGE_SIZE);
+    }
+
+
     @RequestMapping(path = "/orders/{id}/events/{eventId}")
     public Mono<ResponseEntity<OrderEvent>> getOrderEvent(@PathVariable Long id, @PathVariable Long eventId) {
         return Optional.of(getEventResource(eventId))
@@ -243,8 +260,40 @@ public class OrderController {
         return eventService.findOne(eventId);
     }
 
-    private Events getOrderEventCollectionModel(Long id) {
-        return eventService.find(id);
+    /**
+     * Get a slice of the event log of the {@link Order} aggregate, with a link to the next slice if there are more
+     * events after it.
+     *
+     * @param id    is the unique identifier for the {@link Order}
+     * @param after is the id of the last event that was already read, or null to start at the first event
+     * @param size  is the largest number of events to return
+     * @return a hypermedia resource for the slice of {@link OrderEvent}s
+     */
+    private Events getOrderEventCollectionModel(Long id, Long after, Integer size) {
+        if (size < 1) {
+            throw new BadRequestException(HttpStatus.BAD_REQUEST, "The page size must be positive");
+        }
+
+        size = Math.min(size, MAX_EVENTS_PAGE_SIZE);
+        Slice<OrderEvent> events = eventService.find(id, after, size);
+        Events result = new Events(id, events.getContent());
+
+        if (events.hasNext()) {
+            Long last = events.getContent().get(events.getNumberOfElements() - 1).getEventId();
+            result.add(Link.of(eventsLinkBuilder(id).toUriComponentsBuilder()
+                    .queryParam("after", last)
+                    .queryParam("size", size)
+                    .toUriString(), IanaLinkRelations.NEXT));
+        }
+
+        return result;
+    }
+
+    private WebMvcLinkBuilder eventsLinkBuilder(Long id) {
+        return linkTo(OrderController.class)
+                .slash("orders")
+                .slash(id)
+                .slash("events");
     }
 
     private LinkBuilder linkBuilder(String name, Long id) {
@@ -275,7 +324,7 @@ public class OrderController {
 
         if (!order.hasLink("events")) {
             // Add get events link
-            order.add(linkBuilder("getOrderEvents", order.getIdentity()).withRel("events"));
+            order.add(eventsLinkBuilder(order.getIdentity()).withRel("events"));
         }
 
         if (!order.hasLink("self")) {
@@ -2,11 +2,8 @@ package demo.order.event;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import demo.event.Event;
+import demo.event.JsonPayloadCodec;
 import demo.order.controller.OrderController;
 import demo.order.domain.Order;
 import demo.order.domain.OrderStatus;
@@ -18,6 +15,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import org.springframework.hateoas.Link;
 
 import javax.persistence.*;
+import java.io.UncheckedIOException;
 import java.util.Date;
 import java.util.Objects;
 
@@ -37,6 +35,8 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class OrderEvent extends Event<Order, OrderEventType, Long> {
 
+    private static final JsonPayloadCodec PAYLOAD_CODEC = JsonPayloadCodec.getInstance();
+
     @Transient
     @JsonIgnore
     private final Logger log = LoggerFactory.getLogger(OrderEvent.class);
@@ -128,31 +128,31 @@ public class OrderEvent extends Event<Order, OrderEventType, Long> {
         this.type = type;
     }
 
+    /**
+     * Decodes the payload of the event. The payload is only decoded when the entity is read, and each call returns a
+     * new instance, so that changing the returned entity never changes the event or the entity of another reader.
+     *
+     * @return a copy of the entity of the event, or {@literal null} if the event has no payload
+     */
     @Override
     public Order getEntity() {
-        Order result = null;
+        Order entity = null;
         if (orderPayload != null) {
             try {
-                ObjectMapper objectMapper = new ObjectMapper()
-                        .configure(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT, true);
-                result = objectMapper.readValue(orderPayload, Order.class);
-            } catch (JsonProcessingException e) {
+                entity = PAYLOAD_CODEC.decode(orderPayload, Order.class);
+            } catch (UncheckedIOException e) {
                 log.error("Error deserializing entity payload", e);
             }
         }
 
-        return result;
+        return entity;
     }
 
     @Override
     public void setEntity(Order entity) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper()
-                    .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
-                    .configure(SerializationFeature.FAIL_ON_SELF_REFERENCES, false)
-                    .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, true);
-            orderPayload = objectMapper.writeValueAsString(entity);
-        } catch (JsonProcessingException e) {
+            orderPayload = PAYLOAD_CODEC.encodeToString(entity);
+        } catch (UncheckedIOException e) {
             log.error("Error serializing entity payload", e);
         }
     }
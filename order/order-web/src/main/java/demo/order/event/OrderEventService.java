@@ -1,12 +1,14 @@
 package demo.order.event;
 
-import demo.event.BasicEventService;
+import demo.event.BasicReactiveEventService;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 
 @Service
-public class OrderEventService extends BasicEventService<OrderEvent, Long> {
-    public OrderEventService(OrderEventRepository eventRepository, RestTemplate restTemplate) {
-        super(eventRepository, restTemplate);
+public class OrderEventService extends BasicReactiveEventService<OrderEvent, Long> {
+    public OrderEventService(OrderEventRepository eventRepository, RestTemplate restTemplate,
+                             WebClient eventsWebClient) {
+        super(eventRepository, restTemplate, eventsWebClient);
     }
 }
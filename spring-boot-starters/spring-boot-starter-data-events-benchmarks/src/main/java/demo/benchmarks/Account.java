@@ -0,0 +1,69 @@
+package demo.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import demo.domain.Aggregate;
+import org.springframework.hateoas.Link;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An {@link Aggregate} whose state is the sum of the amounts of its {@link AccountEvent}s, so that the benchmarks
+ * measure reading the events and not applying them.
+ */
+public class Account extends Aggregate<AccountEvent, Long> {
+
+    private Long id;
+    private long balance;
+    private long transactions;
+
+    public Account() {
+    }
+
+    public Account(Long id) {
+        this.id = id;
+    }
+
+    public Account apply(AccountEvent event) {
+        balance += event.getAmount();
+        transactions++;
+        return this;
+    }
+
+    @Override
+    public Long getIdentity() {
+        return id;
+    }
+
+    public void setIdentity(Long id) {
+        this.id = id;
+    }
+
+    public long getBalance() {
+        return balance;
+    }
+
+    public void setBalance(long balance) {
+        this.balance = balance;
+    }
+
+    public long getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(long transactions) {
+        this.transactions = transactions;
+    }
+
+    @Override
+    @JsonIgnore
+    public List<AccountEvent> getEvents() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    @JsonIgnore
+    public Link getId() {
+        return Link.of("/accounts/" + id);
+    }
+}
@@ -0,0 +1,94 @@
+package demo.benchmarks;
+
+import demo.event.Event;
+
+import java.util.Date;
+
+/**
+ * An {@link Event} that adds an amount to the balance of an {@link Account}.
+ */
+public class AccountEvent extends Event<Account, String, Long> {
+
+    private Long eventId;
+    private String type;
+    private Long aggregateId;
+    private long amount;
+    private Date createdAt;
+    private Date lastModified;
+
+    public AccountEvent() {
+    }
+
+    public AccountEvent(Long aggregateId, long amount) {
+        this.type = amount < 0 ? "ACCOUNT_DEBITED" : "ACCOUNT_CREDITED";
+        this.aggregateId = aggregateId;
+        this.amount = amount;
+    }
+
+    @Override
+    public Long getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    @Override
+    public Account getEntity() {
+        return null;
+    }
+
+    @Override
+    public void setEntity(Account entity) {
+    }
+
+    @Override
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    @Override
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public void setAmount(long amount) {
+        this.amount = amount;
+    }
+
+    @Override
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+}
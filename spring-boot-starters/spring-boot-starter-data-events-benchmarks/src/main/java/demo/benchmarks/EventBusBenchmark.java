@@ -0,0 +1,57 @@
+package demo.benchmarks;
+
+import demo.event.EventBus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of publishing {@link AccountEvent}s to an {@link EventBus} with a subscriber that is called
+ * on the publishing thread, and with a subscriber that reads the ring of the bus with one or more partitions. The
+ * asynchronous publisher waits whenever the subscriber is a full ring behind it, so the score includes the time to
+ * handle the events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark {
+
+    private static final int ACCOUNTS = 64;
+
+    @Param({"SYNC", "ASYNC"})
+    public EventBus.Delivery delivery;
+
+    @Param({"1", "4"})
+    public int partitions;
+
+    private EventBus eventBus;
+    private AccountEvent[] events;
+    private int next;
+
+    @Setup
+    public void setup() {
+        eventBus = new EventBus(EventBus.DEFAULT_BUFFER_SIZE);
+        eventBus.subscribe("balance", AccountEvent.class, delivery, partitions,
+                event -> Blackhole.consumeCPU(event.getAmount() & 0x3f));
+
+        events = new AccountEvent[ACCOUNTS * 16];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new AccountEvent((long) (i % ACCOUNTS), i);
+            events[i].setEventId((long) i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventBus.close();
+    }
+
+    @Benchmark
+    public void publish() {
+        eventBus.publish(events[next++ & (events.length - 1)]);
+    }
+}
@@ -0,0 +1,84 @@
+package demo.benchmarks;
+
+import demo.event.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to rebuild an {@link Account} from an {@link EventLogRepository} against the length of its
+ * history, by replaying every event of the account and by replaying only the events after its latest
+ * {@link Snapshot}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RehydrationBenchmark {
+
+    private static final long ACCOUNT_ID = 1L;
+    private static final int ACCOUNTS = 4;
+
+    /**
+     * The number of events of the account that are appended after its latest snapshot.
+     */
+    private static final int TAIL = 50;
+
+    @Param({"100", "1000", "10000"})
+    public int history;
+
+    @Param({"0", "100"})
+    public int snapshotInterval;
+
+    private Path directory;
+    private EventLogRepository<AccountEvent> repository;
+    private AggregateRehydrator<Account, AccountEvent, Long> rehydrator;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("rehydration-benchmark");
+        repository = new EventLogRepository<>(directory, new JsonEventCodec<>(AccountEvent.class), 64L << 20, false);
+        rehydrator = new AggregateRehydrator<>(new BasicEventService<>(repository, null),
+                new InMemorySnapshotRepository<>(Account.class), Account::new, Account::apply, snapshotInterval);
+
+        // The events of the account are interleaved with the events of other accounts, as they would be in a log
+        Random random = new Random(42L);
+        append(history - TAIL, random);
+
+        // Snapshot the history before the tail, which is shorter than the interval, so every read replays the tail
+        if (snapshotInterval > 0) {
+            rehydrator.snapshot(ACCOUNT_ID);
+        }
+        append(TAIL, random);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        repository.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Account rehydrate() {
+        return rehydrator.rehydrate(ACCOUNT_ID);
+    }
+
+    private void append(int count, Random random) {
+        List<AccountEvent> events = new ArrayList<>(count * ACCOUNTS);
+        for (int i = 0; i < count; i++) {
+            for (long account = ACCOUNT_ID; account < ACCOUNT_ID + ACCOUNTS; account++) {
+                events.add(new AccountEvent(account, random.nextInt(1000) - 500));
+            }
+        }
+        repository.saveAll(events);
+    }
+}
@@ -5,21 +5,15 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import demo.event.Event;
 import demo.event.EventService;
 import org.springframework.context.ApplicationContext;
-import org.springframework.core.ResolvableType;
 import org.springframework.hateoas.*;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
-import org.springframework.util.ReflectionUtils;
-import org.springframework.web.bind.annotation.RequestParam;
 
 import java.io.Serializable;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-
 /**
  * An {@link Aggregate} is an entity that contains references to one or more other {@link Entity} objects. Aggregates
  * may contain a collection of references to a {@link Command}. All command references on an aggregate should be
@@ -37,7 +31,8 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
             .orElse(null);
 
     /**
-     * Retrieves an {@link Action} for this {@link Module}
+     * Retrieves an {@link Action} for this {@link Module}. A singleton action is only resolved the first time that it
+     * is requested, and is then taken from the {@link DispatchCache}.
      *
      * @return the action for this provider
      * @throws IllegalArgumentException if the application context is unavailable or the provider does not exist
@@ -46,6 +41,10 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
     @JsonIgnore
     protected <T extends Action<A>, A extends Aggregate> T getAction(
             Class<T> actionType) throws IllegalArgumentException {
+        if (applicationContext != null) {
+            return DispatchCache.of(applicationContext).getAction(this, actionType);
+        }
+
         Module provider = getModule();
         Service service = provider.getDefaultService();
         return (T) service.getAction(actionType);
@@ -60,9 +59,7 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
     @SuppressWarnings("unchecked")
     @JsonIgnore
     public <T extends Module<A>, A extends Aggregate<E, ID>> T getModule() throws IllegalArgumentException {
-        return getModule((Class<T>) ResolvableType
-                .forClassWithGenerics(Module.class, ResolvableType.forInstance(this))
-                .getRawClass());
+        return getModule((Class<T>) DispatchCache.getProviderType(getClass()));
     }
 
     /**
@@ -75,7 +72,7 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
     public <T extends Module<A>, A extends Aggregate<E, ID>> T getModule(Class<T> providerType) throws
             IllegalArgumentException {
         Assert.notNull(applicationContext, "The application context is unavailable");
-        T provider = applicationContext.getBean(providerType);
+        T provider = DispatchCache.of(applicationContext).getModule(providerType);
         Assert.notNull(provider, "The requested provider is not registered in the application context");
         return (T) provider;
     }
@@ -91,11 +88,25 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
      */
 
     public E sendEvent(E event, Link... links) {
-        return getEventService().send(appendEvent(event), links);
+        E appended = appendEvent(event);
+
+        // The event must be saved before it is sent
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.flush();
+        }
+
+        // Subscribers in this process receive the event without a network hop, once it is committed
+        if (applicationContext != null) {
+            EventPublisher.of(applicationContext).publishAfterCommit(appended);
+        }
+
+        return getEventService().send(appended, links);
     }
 
     /**
-     * Append a new {@link Event} to the {@link Aggregate} reference for the supplied identifier.
+     * Append a new {@link Event} to the {@link Aggregate} reference for the supplied identifier. When a
+     * {@link UnitOfWork} is in progress, the event and the update of the aggregate are saved when it is flushed.
      *
      * @param event is the {@link Event} to append to the {@link Aggregate} entity
      * @return the newly appended {@link Event}
@@ -104,6 +115,14 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
     @SuppressWarnings("unchecked")
     public E appendEvent(E event) {
         event.setEntity(this);
+
+        UnitOfWork unitOfWork = UnitOfWork.current();
+        if (unitOfWork != null) {
+            unitOfWork.append(this, getEventService(), event);
+            getEvents().add(event);
+            return event;
+        }
+
         getEventService().save(event);
         getEvents().add(event);
         getEntityService().update(this);
@@ -122,38 +141,16 @@ public abstract class Aggregate<E extends Event, ID extends Serializable> extend
         return links;
     }
 
+    /**
+     * Retrieves the links of the {@link Command}s of this {@link Aggregate}, from the templates of its type in the
+     * {@link CommandRegistry}.
+     *
+     * @return the command links of this instance
+     */
     @JsonIgnore
     public CommandResources getCommands() {
         CommandResources commandResources = new CommandResources();
-
-        // Get command annotations on the aggregate
-        List<Command> commands = Arrays.stream(this.getClass()
-                .getMethods())
-                .filter(a -> a.isAnnotationPresent(Command.class))
-                .map(a -> a.getAnnotation(Command.class))
-                .collect(Collectors.toList());
-
-        // Compile the collection of command links
-        List<Link> commandLinks = commands.stream()
-                .map(a -> Arrays.stream(ReflectionUtils.getAllDeclaredMethods(a.controller()))
-                        .filter(m -> m.getName()
-                                .equalsIgnoreCase(a.method()))
-                        .findFirst()
-                        .orElseGet(null))
-                .map(m -> {
-                    String uri = linkTo(m, getIdentity()).withRel(m.getName())
-                            .getHref();
-
-                    return Link.of(UriTemplate.of(uri, new TemplateVariables(Arrays.stream(m.getParameters())
-                            .filter(p -> p.isAnnotationPresent(RequestParam.class))
-                            .map(p -> new TemplateVariable(p.getAnnotation(RequestParam.class)
-                                    .value(), TemplateVariable.VariableType.REQUEST_PARAM))
-                            .toArray(TemplateVariable[]::new))), m.getName());
-                })
-                .collect(Collectors.toList());
-
-        commandResources.add(commandLinks);
-
+        commandResources.add(CommandRegistry.getLinks(getClass(), getIdentity()));
         return commandResources;
     }
 
@@ -0,0 +1,135 @@
+package demo.domain;
+
+import org.springframework.hateoas.*;
+import org.springframework.hateoas.server.core.AnnotationMappingDiscoverer;
+import org.springframework.hateoas.server.core.MappingDiscoverer;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link CommandRegistry} holds the link templates of the {@link Command}s of each {@link Aggregate} type. The
+ * templates of an aggregate type are compiled once from its {@link Command} annotations and the request mappings of
+ * their controllers, so that the command links of an aggregate only need its id to be expanded into them.
+ * <p>
+ * Aggregate types are registered at startup by {@link DomainAutoConfig}, and any other aggregate type is registered the
+ * first time that its commands are requested.
+ *
+ * @author Kenny Bastani
+ */
+public final class CommandRegistry {
+
+    private static final Map<Class<?>, List<CommandTemplate>> templates = new ConcurrentHashMap<>();
+    private static final MappingDiscoverer discoverer = new AnnotationMappingDiscoverer(RequestMapping.class);
+
+    private CommandRegistry() {
+    }
+
+    /**
+     * Compiles the command templates of an aggregate type, if they were not already compiled.
+     *
+     * @param aggregateType is the aggregate type to register
+     * @throws IllegalStateException if a command does not have a method on its controller
+     */
+    public static void register(Class<?> aggregateType) {
+        getTemplates(aggregateType);
+    }
+
+    public static List<CommandTemplate> getTemplates(Class<?> aggregateType) {
+        return templates.computeIfAbsent(aggregateType, CommandRegistry::compile);
+    }
+
+    /**
+     * Creates the command links of an aggregate, relative to the current request.
+     *
+     * @param aggregateType is the type of the aggregate
+     * @param id            is the identity of the aggregate
+     * @return the command links of the aggregate
+     */
+    public static List<Link> getLinks(Class<?> aggregateType, Object id) {
+        List<CommandTemplate> commandTemplates = getTemplates(aggregateType);
+        UriComponentsBuilder baseUri = baseUri();
+        List<Link> links = new ArrayList<>(commandTemplates.size());
+        for (CommandTemplate commandTemplate : commandTemplates) {
+            links.add(commandTemplate.toLink(baseUri, id));
+        }
+        return links;
+    }
+
+    private static UriComponentsBuilder baseUri() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes) {
+            return ServletUriComponentsBuilder.fromCurrentServletMapping();
+        }
+        return UriComponentsBuilder.fromUriString("http://localhost");
+    }
+
+    private static List<CommandTemplate> compile(Class<?> aggregateType) {
+        List<CommandTemplate> result = new ArrayList<>();
+
+        for (Method method : aggregateType.getMethods()) {
+            Command command = method.getAnnotation(Command.class);
+            if (command == null) {
+                continue;
+            }
+
+            Method target = Arrays.stream(ReflectionUtils.getAllDeclaredMethods(command.controller()))
+                    .filter(m -> m.getName().equalsIgnoreCase(command.method()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(String.format(
+                            "The command %s of %s has no method on %s", command.method(),
+                            aggregateType.getSimpleName(), command.controller().getSimpleName())));
+
+            TemplateVariable[] variables = Arrays.stream(target.getParameters())
+                    .filter(p -> p.isAnnotationPresent(RequestParam.class))
+                    .map(p -> new TemplateVariable(p.getAnnotation(RequestParam.class).value(),
+                            TemplateVariable.VariableType.REQUEST_PARAM))
+                    .toArray(TemplateVariable[]::new);
+
+            result.add(new CommandTemplate(target.getName(), discoverer.getMapping(command.controller(), target),
+                    new TemplateVariables(variables)));
+        }
+
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * The link template of a {@link Command}, which is expanded with the identity of an aggregate.
+     */
+    public static class CommandTemplate {
+
+        private final String rel;
+        private final String path;
+        private final TemplateVariables variables;
+
+        CommandTemplate(String rel, String path, TemplateVariables variables) {
+            this.rel = rel;
+            this.path = path;
+            this.variables = variables;
+        }
+
+        public Link toLink(UriComponentsBuilder baseUri, Object id) {
+            String href = baseUri.cloneBuilder().path(path).buildAndExpand(id).encode().toUriString();
+            return Link.of(UriTemplate.of(href, variables), rel);
+        }
+
+        public String getRel() {
+            return rel;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public TemplateVariables getVariables() {
+            return variables;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package demo.domain;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ResolvableType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link DispatchCache} binds the {@link Action} and {@link Module} types that are requested by {@link Aggregate}s
+ * to their beans, so that dispatching a {@link Command} to its action is a single map lookup after the first time.
+ * <p>
+ * Only singleton beans are cached, and the cache is replaced when the application context of the {@link Module}s
+ * changes, such as between tests that start different contexts.
+ *
+ * @author Kenny Bastani
+ */
+final class DispatchCache {
+
+    private static final ClassValue<Class<?>> providerTypes = new ClassValue<>() {
+        @Override
+        protected Class<?> computeValue(Class<?> aggregateType) {
+            return ResolvableType.forClassWithGenerics(Module.class, ResolvableType.forClass(aggregateType))
+                    .getRawClass();
+        }
+    };
+
+    private static volatile DispatchCache current;
+
+    private final ApplicationContext applicationContext;
+    private final Map<Class<?>, Action<?>> actions = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Module<?>> modules = new ConcurrentHashMap<>();
+
+    private DispatchCache(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Gets the cache of an application context, replacing the cache of any other context.
+     *
+     * @param applicationContext is the application context of the beans
+     * @return the cache of the application context
+     */
+    static DispatchCache of(ApplicationContext applicationContext) {
+        DispatchCache cache = current;
+        if (cache == null || cache.applicationContext != applicationContext) {
+            cache = new DispatchCache(applicationContext);
+            current = cache;
+        }
+        return cache;
+    }
+
+    static Class<?> getProviderType(Class<?> aggregateType) {
+        return providerTypes.get(aggregateType);
+    }
+
+    /**
+     * Gets the action of an aggregate, resolving it through the default service of the aggregate's module the first
+     * time that it is requested.
+     */
+    @SuppressWarnings("unchecked")
+    <T extends Action<?>> T getAction(Aggregate<?, ?> aggregate, Class<T> actionType) {
+        Action<?> action = actions.get(actionType);
+        if (action == null) {
+            Service service = aggregate.getModule().getDefaultService();
+            action = service.getAction(actionType);
+            if (isSingleton(actionType)) {
+                actions.put(actionType, action);
+            }
+        }
+        return (T) action;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T extends Module<?>> T getModule(Class<T> providerType) {
+        Module<?> module = modules.get(providerType);
+        if (module == null) {
+            module = applicationContext.getBean(providerType);
+            if (isSingleton(providerType)) {
+                modules.put(providerType, module);
+            }
+        }
+        return (T) module;
+    }
+
+    private boolean isSingleton(Class<?> type) {
+        String[] names = applicationContext.getBeanNamesForType(type);
+        return names.length == 1 && applicationContext.isSingleton(names[0]);
+    }
+}
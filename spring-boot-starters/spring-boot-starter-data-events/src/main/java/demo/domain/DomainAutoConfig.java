@@ -0,0 +1,46 @@
+package demo.domain;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackages;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+/**
+ * This class registers the {@link Aggregate} types of the application with the {@link CommandRegistry} at startup, by
+ * scanning the auto-configuration packages of the application.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@ConditionalOnClass(RequestMapping.class)
+public class DomainAutoConfig implements SmartInitializingSingleton {
+
+    private final BeanFactory beanFactory;
+
+    public DomainAutoConfig(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!AutoConfigurationPackages.has(beanFactory)) {
+            return;
+        }
+
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AssignableTypeFilter(Aggregate.class));
+
+        for (String basePackage : AutoConfigurationPackages.get(beanFactory)) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                CommandRegistry.register(ClassUtils.resolveClassName(candidate.getBeanClassName(),
+                        DomainAutoConfig.class.getClassLoader()));
+            }
+        }
+    }
+}
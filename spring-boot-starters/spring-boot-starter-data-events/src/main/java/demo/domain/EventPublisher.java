@@ -0,0 +1,97 @@
+package demo.domain;
+
+import demo.event.Event;
+import demo.event.EventBus;
+import demo.event.JsonEventCodec;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link EventPublisher} publishes the events that are sent by {@link Aggregate}s to the {@link EventBus} of the
+ * application context, once the transaction that sent them commits.
+ * <p>
+ * An event is only copied when a subscriber of the bus matches its class. The copy is decoded from the fields that an
+ * event log would store, so it carries the encoded payload of the event, and the payload is only decoded when a
+ * subscriber reads the entity of the copy, on the thread of the subscriber.
+ *
+ * @author Kenny Bastani
+ */
+final class EventPublisher {
+
+    private static volatile EventPublisher current;
+
+    private final ApplicationContext applicationContext;
+    private final Map<Class<?>, JsonEventCodec<?>> codecs = new ConcurrentHashMap<>();
+    private volatile Optional<EventBus> eventBus;
+
+    private EventPublisher(ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * Gets the publisher of an application context, replacing the publisher of any other context.
+     *
+     * @param applicationContext is the application context of the {@link EventBus}
+     * @return the publisher of the application context
+     */
+    static EventPublisher of(ApplicationContext applicationContext) {
+        EventPublisher publisher = current;
+        if (publisher == null || publisher.applicationContext != applicationContext) {
+            publisher = new EventPublisher(applicationContext);
+            current = publisher;
+        }
+        return publisher;
+    }
+
+    /**
+     * Publishes a copy of an event after the current transaction commits, or right away when there is no transaction.
+     * The copy shares no state with the event, which is changed by the event service when the event is applied, so
+     * that the subscribers on other threads never see it change. Nothing is copied or registered with the transaction
+     * when the bus has no subscriber of the event.
+     *
+     * @param event is the event that was sent
+     */
+    void publishAfterCommit(Event event) {
+        EventBus bus = getEventBus().orElse(null);
+        if (bus == null || !bus.hasSubscribers(event.getClass())) {
+            return;
+        }
+
+        Event copy = copyOf(event);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bus.publish(copy);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bus.publish(copy);
+            }
+        });
+    }
+
+    /**
+     * Gets the {@link EventBus} of the application context, which is looked up the first time that it is requested.
+     */
+    private Optional<EventBus> getEventBus() {
+        Optional<EventBus> bus = eventBus;
+        if (bus == null) {
+            bus = Optional.ofNullable(applicationContext.getBeanProvider(EventBus.class).getIfUnique());
+            eventBus = bus;
+        }
+        return bus;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Event> E copyOf(E event) {
+        JsonEventCodec<E> codec = (JsonEventCodec<E>) codecs.computeIfAbsent(event.getClass(),
+                type -> new JsonEventCodec<>((Class<E>) type));
+        return codec.decode(codec.encode(event));
+    }
+}
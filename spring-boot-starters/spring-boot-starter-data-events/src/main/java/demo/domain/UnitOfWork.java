@@ -0,0 +1,246 @@
+package demo.domain;
+
+import demo.event.Event;
+import demo.event.EventService;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link UnitOfWork} buffers the {@link Event}s that are appended to {@link Aggregate}s, along with the updates of
+ * those aggregates, and saves them together when it is flushed. The events of each {@link EventService} are saved with
+ * a single {@link EventService#saveAll(List)}, which a JPA repository sends as one JDBC batch when Hibernate batching
+ * is configured, before the aggregates are updated. An aggregate instance that is appended to several times is only
+ * updated once.
+ * <p>
+ * When {@code event.unit-of-work.enabled} is set, a unit of work is started for every transaction that appends an
+ * event, and is flushed before the transaction commits. A unit of work can also be started explicitly with
+ * {@link #begin()}, outside of a transaction.
+ * <p>
+ * When {@code event.unit-of-work.group-commit} is set, the events of units of work that are flushed at the same time
+ * on different threads are merged and saved together by one of those threads, while the other threads wait for the
+ * save to complete. Only a unit of work that is flushed outside of a transaction joins a group, such as one that was
+ * started with {@link #begin()}. A unit of work that is flushed in a transaction always saves its own events in that
+ * transaction, so that its events are rolled back with the rest of the transaction, and never with the transaction of
+ * another thread.
+ *
+ * @author Kenny Bastani
+ */
+public class UnitOfWork implements AutoCloseable {
+
+    private static final ThreadLocal<UnitOfWork> explicit = new ThreadLocal<>();
+    private static final GroupCommit groupCommit = new GroupCommit();
+
+    private final Map<EventService, List<Event>> events = new LinkedHashMap<>();
+    private final List<Aggregate> aggregates = new ArrayList<>();
+    private final Set<Aggregate> appended = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final boolean grouped;
+
+    public UnitOfWork(boolean grouped) {
+        this.grouped = grouped;
+    }
+
+    /**
+     * Starts a unit of work on the current thread, which is flushed by {@link #commit()}. Closing the unit of work
+     * discards the work that was not committed.
+     *
+     * @return the unit of work
+     * @throws IllegalStateException if a unit of work was already started on the current thread
+     */
+    public static UnitOfWork begin() {
+        if (explicit.get() != null) {
+            throw new IllegalStateException("A unit of work is already in progress");
+        }
+
+        UnitOfWork unitOfWork = new UnitOfWork(getProperty("group-commit"));
+        explicit.set(unitOfWork);
+        return unitOfWork;
+    }
+
+    /**
+     * Gets the unit of work of the current thread. If no unit of work was started with {@link #begin()}, the unit of
+     * work of the current transaction is returned, which is started if it is enabled.
+     *
+     * @return the current unit of work, or {@literal null} if appended events are saved immediately
+     */
+    public static UnitOfWork current() {
+        UnitOfWork unitOfWork = explicit.get();
+        if (unitOfWork != null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return unitOfWork;
+        }
+
+        unitOfWork = (UnitOfWork) TransactionSynchronizationManager.getResource(UnitOfWork.class);
+        if (unitOfWork == null && getProperty("enabled")) {
+            unitOfWork = new UnitOfWork(getProperty("group-commit"));
+            TransactionSynchronizationManager.bindResource(UnitOfWork.class, unitOfWork);
+            TransactionSynchronizationManager.registerSynchronization(new Synchronization(unitOfWork));
+        }
+
+        return unitOfWork;
+    }
+
+    private static boolean getProperty(String name) {
+        return Optional.ofNullable(Module.getApplicationContext())
+                .map(context -> context.getEnvironment()
+                        .getProperty("event.unit-of-work." + name, Boolean.class, false))
+                .orElse(false);
+    }
+
+    /**
+     * Buffers an event that was appended to an aggregate, and the update of the aggregate.
+     *
+     * @param aggregate    is the aggregate that the event was appended to
+     * @param eventService is the service that saves the event
+     * @param event        is the appended event
+     */
+    public <E extends Event, ID extends Serializable> void append(Aggregate<E, ID> aggregate,
+                                                                 EventService<E, ID> eventService, E event) {
+        events.computeIfAbsent(eventService, service -> new ArrayList<>()).add(event);
+
+        // Aggregates are tracked by instance, since an aggregate that was not created yet has no identity
+        if (appended.add(aggregate)) {
+            aggregates.add(aggregate);
+        }
+    }
+
+    /**
+     * Saves the buffered events and then updates the buffered aggregates.
+     */
+    @SuppressWarnings("unchecked")
+    public void flush() {
+        List<Aggregate> updates = new ArrayList<>(aggregates);
+        Map<EventService, List<Event>> batch = new LinkedHashMap<>(events);
+        aggregates.clear();
+        appended.clear();
+        events.clear();
+
+        if (grouped && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            groupCommit.commit(batch);
+        } else {
+            batch.forEach(EventService::saveAll);
+        }
+
+        for (Aggregate aggregate : updates) {
+            aggregate.getEntityService().update(aggregate);
+        }
+    }
+
+    /**
+     * Flushes the unit of work that was started with {@link #begin()}, and ends it.
+     */
+    public void commit() {
+        flush();
+        close();
+    }
+
+    /**
+     * Discards the work that was not flushed, and ends the unit of work if it was started with {@link #begin()}.
+     */
+    @Override
+    public void close() {
+        aggregates.clear();
+        appended.clear();
+        events.clear();
+        if (explicit.get() == this) {
+            explicit.remove();
+        }
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty() && aggregates.isEmpty();
+    }
+
+    /**
+     * Flushes a unit of work before its transaction commits, and unbinds it when the transaction completes.
+     */
+    private static class Synchronization implements TransactionSynchronization {
+
+        private final UnitOfWork unitOfWork;
+
+        Synchronization(UnitOfWork unitOfWork) {
+            this.unitOfWork = unitOfWork;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(UnitOfWork.class);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(UnitOfWork.class, unitOfWork);
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            unitOfWork.flush();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            unitOfWork.close();
+            TransactionSynchronizationManager.unbindResourceIfPossible(UnitOfWork.class);
+        }
+    }
+
+    /**
+     * Merges the batches of events that are committed concurrently outside of a transaction. The first thread that
+     * commits a batch saves every batch that is queued by the time it holds the lock, and the batches that are queued
+     * while it saves them are saved together by the next thread.
+     */
+    private static class GroupCommit {
+
+        private final Queue<Batch> queue = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock lock = new ReentrantLock();
+
+        @SuppressWarnings("unchecked")
+        void commit(Map<EventService, List<Event>> events) {
+            Batch batch = new Batch(events);
+            queue.add(batch);
+
+            lock.lock();
+            try {
+                if (!batch.done.isDone()) {
+                    List<Batch> batches = new ArrayList<>();
+                    Map<EventService, List<Event>> merged = new LinkedHashMap<>();
+                    for (Batch next = queue.poll(); next != null; next = queue.poll()) {
+                        batches.add(next);
+                        next.events.forEach((service, list) -> merged
+                                .computeIfAbsent(service, s -> new ArrayList<>()).addAll(list));
+                    }
+
+                    try {
+                        merged.forEach(EventService::saveAll);
+                        batches.forEach(next -> next.done.complete(null));
+                    } catch (RuntimeException ex) {
+                        batches.forEach(next -> next.done.completeExceptionally(ex));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                batch.done.join();
+            } catch (CompletionException ex) {
+                throw (RuntimeException) ex.getCause();
+            }
+        }
+    }
+
+    private static class Batch {
+
+        private final Map<EventService, List<Event>> events;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Batch(Map<EventService, List<Event>> events) {
+            this.events = events;
+        }
+    }
+}
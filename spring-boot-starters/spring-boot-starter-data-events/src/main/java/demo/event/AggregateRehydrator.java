@@ -0,0 +1,126 @@
+package demo.event;
+
+import demo.domain.Aggregate;
+import org.springframework.data.domain.Slice;
+
+import java.io.Serializable;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Rebuilds the state of an {@link Aggregate} from its {@link Event}s, starting from the latest {@link Snapshot} of the
+ * aggregate instead of its first event.
+ * <p>
+ * The events after the snapshot are read from the {@link EventService} one slice at a time and applied in event id
+ * order with a reducer. Whenever the number of events that were applied since the last snapshot reaches the snapshot
+ * interval, a new snapshot is saved, so that the number of events that are replayed to rehydrate an aggregate stays
+ * below the interval however long its history is.
+ *
+ * @param <A>  is the type of {@link Aggregate} that is rehydrated
+ * @param <E>  is the type of {@link Event} of the aggregate
+ * @param <ID> is the type of the aggregate and event ids
+ * @author Kenny Bastani
+ * @see Snapshot
+ * @see SnapshotRepository
+ */
+@SuppressWarnings("unchecked")
+public class AggregateRehydrator<A extends Aggregate, E extends Event, ID extends Serializable> {
+
+    private final EventService<E, ID> eventService;
+    private final SnapshotRepository<A, ID> snapshotRepository;
+    private final Function<ID, A> initialState;
+    private final BiFunction<A, E, A> reducer;
+    private final int snapshotInterval;
+    private int pageSize = 100;
+
+    /**
+     * Creates a rehydrator for a type of aggregate.
+     *
+     * @param eventService       is the service that reads the events of an aggregate
+     * @param snapshotRepository is the repository of the snapshots of the aggregates
+     * @param initialState       creates the state of an aggregate before its first event
+     * @param reducer            applies an event to the state of an aggregate and returns the new state
+     * @param snapshotInterval   is the number of events after which a new snapshot is saved, or zero to never save
+     *                           snapshots
+     */
+    public AggregateRehydrator(EventService<E, ID> eventService, SnapshotRepository<A, ID> snapshotRepository,
+                               Function<ID, A> initialState, BiFunction<A, E, A> reducer, int snapshotInterval) {
+        if (snapshotInterval < 0) {
+            throw new IllegalArgumentException("Invalid snapshot interval: " + snapshotInterval);
+        }
+
+        this.eventService = eventService;
+        this.snapshotRepository = snapshotRepository;
+        this.initialState = initialState;
+        this.reducer = reducer;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Rebuilds the current state of an aggregate from its latest snapshot and the events after it.
+     *
+     * @param aggregateId is the id of the aggregate
+     * @return the current state of the aggregate
+     */
+    public A rehydrate(ID aggregateId) {
+        return replay(aggregateId, snapshotInterval).getAggregate();
+    }
+
+    /**
+     * Rehydrates an aggregate and saves a snapshot of its current state, regardless of the snapshot interval.
+     *
+     * @param aggregateId is the id of the aggregate
+     * @return the snapshot of the aggregate, or an empty optional if the aggregate has no events
+     */
+    public Optional<Snapshot<A, ID>> snapshot(ID aggregateId) {
+        Snapshot<A, ID> snapshot = replay(aggregateId, 0);
+        if (snapshot.getEventId() == null) {
+            return Optional.empty();
+        }
+
+        snapshotRepository.save(snapshot);
+        return Optional.of(snapshot);
+    }
+
+    /**
+     * Applies the events after the latest snapshot of an aggregate, saving a snapshot after every interval of events
+     * if the interval is positive.
+     */
+    private Snapshot<A, ID> replay(ID aggregateId, int interval) {
+        Optional<Snapshot<A, ID>> snapshot = snapshotRepository.findLatest(aggregateId);
+        A state = snapshot.map(Snapshot::getAggregate).orElseGet(() -> initialState.apply(aggregateId));
+        ID after = snapshot.map(Snapshot::getEventId).orElse(null);
+        long version = snapshot.map(Snapshot::getVersion).orElse(0L);
+        int applied = 0;
+
+        Slice<E> slice;
+        do {
+            slice = eventService.find(aggregateId, after, pageSize);
+            for (E event : slice) {
+                state = reducer.apply(state, event);
+                after = (ID) event.getEventId();
+                version++;
+
+                if (interval > 0 && ++applied >= interval) {
+                    snapshotRepository.save(new Snapshot<>(aggregateId, after, version, state));
+                    applied = 0;
+                }
+            }
+        } while (slice.hasNext() && slice.hasContent());
+
+        return new Snapshot<>(aggregateId, after, version, state);
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+}
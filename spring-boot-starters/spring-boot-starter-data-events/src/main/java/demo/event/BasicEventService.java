@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.MediaTypes;
@@ -17,6 +18,8 @@ import org.springframework.web.client.RestTemplate;
 import java.io.IOException;
 import java.io.Serializable;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Event service implementation of {@link EventService} for managing {@link Event} entities.
@@ -42,6 +45,14 @@ public class BasicEventService<T extends Event, ID extends Serializable> impleme
         this.restTemplate = restTemplate;
     }
 
+    public String getEventsWorker() {
+        return eventsWorker;
+    }
+
+    public void setEventsWorker(String eventsWorker) {
+        this.eventsWorker = eventsWorker;
+    }
+
     public <E extends Aggregate, S extends T> S send(S event, Link... links) {
         // Assemble request to the event stream processor
         RequestEntity<EntityModel<T>> requestEntity = RequestEntity.post(URI.create(eventsWorker))
@@ -73,6 +84,12 @@ public class BasicEventService<T extends Event, ID extends Serializable> impleme
         return save(event);
     }
 
+    public <S extends T> List<S> saveAll(List<S> events) {
+        List<S> result = new ArrayList<>(events.size());
+        eventRepository.saveAll(events).forEach(result::add);
+        return result;
+    }
+
     public <S extends ID> T findOne(S id) {
         return eventRepository.findById(id).orElse(null);
     }
@@ -82,4 +99,11 @@ public class BasicEventService<T extends Event, ID extends Serializable> impleme
                 PageRequest.of(0, Integer.MAX_VALUE))
                 .getContent());
     }
+
+    public Slice<T> find(ID entityId, ID after, int size) {
+        PageRequest pageRequest = PageRequest.of(0, size);
+        return after == null ? eventRepository.findAllByAggregateIdOrderByEventIdAsc(entityId, pageRequest)
+                : eventRepository.findAllByAggregateIdAndEventIdGreaterThanOrderByEventIdAsc(entityId, after,
+                pageRequest);
+    }
 }
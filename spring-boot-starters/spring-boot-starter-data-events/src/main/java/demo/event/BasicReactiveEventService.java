@@ -0,0 +1,158 @@
+package demo.event;
+
+import demo.domain.Aggregate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Event service implementation of {@link ReactiveEventService}, which sends {@link Event}s to the events worker with a
+ * {@link WebClient} instead of a blocking {@link RestTemplate}.
+ * <p>
+ * A request that could not connect to the worker, or that was rejected with a {@code 503} or {@code 429} response, is
+ * retried with an exponential backoff and random jitter, so that the retries of many events do not reach the worker at
+ * the same time. Those are the failures where the worker has not applied the event, so other errors, such as a
+ * response timeout after the request was sent, are not retried and an event is never applied twice. Once the retries
+ * are exhausted, the event fails with a {@link ResourceAccessException}, like
+ * {@link BasicEventService#send(Event, Link...)}.
+ * <p>
+ * The blocking {@link #send(Event, Link...)} of an {@link Aggregate} still uses the load balanced {@link RestTemplate},
+ * so the reactive methods are only used by code that calls them directly.
+ *
+ * @author Kenny Bastani
+ * @see Event
+ * @see ReactiveEventService
+ */
+@SuppressWarnings("unchecked")
+public class BasicReactiveEventService<T extends Event, ID extends Serializable> extends BasicEventService<T, ID>
+        implements ReactiveEventService<T, ID> {
+
+    private static final Logger log = LoggerFactory.getLogger(BasicReactiveEventService.class);
+
+    @Value("${events.retry.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${events.retry.min-backoff-ms:100}")
+    private long minBackoffMillis = 100L;
+
+    @Value("${events.retry.jitter:0.5}")
+    private double jitter = 0.5;
+
+    @Value("${events.max-in-flight:16}")
+    private int maxInFlight = 16;
+
+    private final WebClient webClient;
+
+    public <RT extends EventRepository> BasicReactiveEventService(RT eventRepository, RestTemplate restTemplate,
+                                                                  WebClient webClient) {
+        super(eventRepository, restTemplate);
+        this.webClient = webClient;
+    }
+
+    /**
+     * Creates a {@link WebClient} that keeps a pool of connections to the events worker.
+     *
+     * @param builder         is the builder of the client
+     * @param maxConnections  is the largest number of connections in the pool
+     * @param responseTimeout is the longest time to wait for the response of a request
+     * @return the client
+     */
+    public static WebClient pooledWebClient(WebClient.Builder builder, int maxConnections, Duration responseTimeout) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("events-worker")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+
+        return builder.clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
+                        .responseTimeout(responseTimeout)))
+                .build();
+    }
+
+    public <S extends T> Mono<S> sendAsync(S event, Link... links) {
+        Class<? extends Aggregate> entityType = event.getEntity().getClass();
+
+        return webClient.post()
+                .uri(URI.create(getEventsWorker()))
+                .contentType(MediaTypes.HAL_JSON)
+                .bodyValue(EntityModel.of(event))
+                .retrieve()
+                .bodyToMono(entityType)
+                .retryWhen(Retry.backoff(Math.max(0, maxAttempts - 1), Duration.ofMillis(minBackoffMillis))
+                        .jitter(jitter)
+                        .filter(BasicReactiveEventService::isRetryable))
+                .map(entity -> {
+                    // Set the applied entity reference to the event
+                    event.setEntity(entity);
+                    return event;
+                })
+                .onErrorMap(ex -> !(ex instanceof ResourceAccessException), ex -> {
+                    log.error("Error", ex);
+                    return new ResourceAccessException(ex.getMessage(), new IOException(ex));
+                });
+    }
+
+    public <S extends T> Flux<S> sendAll(Iterable<S> events) {
+        return Flux.fromIterable(events).flatMapSequential(this::sendAsync, maxInFlight);
+    }
+
+    private static boolean isRetryable(Throwable ex) {
+        if (ex instanceof WebClientResponseException) {
+            HttpStatus status = ((WebClientResponseException) ex).getStatusCode();
+            return status == HttpStatus.SERVICE_UNAVAILABLE || status == HttpStatus.TOO_MANY_REQUESTS;
+        }
+        return ex instanceof WebClientRequestException && ex.getCause() instanceof ConnectException;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getMinBackoffMillis() {
+        return minBackoffMillis;
+    }
+
+    public void setMinBackoffMillis(long minBackoffMillis) {
+        this.minBackoffMillis = minBackoffMillis;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+}
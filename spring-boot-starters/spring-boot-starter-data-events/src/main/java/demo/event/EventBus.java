@@ -0,0 +1,319 @@
+package demo.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Dispatches the {@link Event}s of the application to the subscribers in the same process, so that projections and
+ * read models are updated without sending the event over the network.
+ * <p>
+ * A subscriber receives the events of one event class, either synchronously on the thread that publishes the event,
+ * or asynchronously from an {@link EventRingBuffer} that is shared by the asynchronous subscribers of the bus. An
+ * asynchronous subscriber reads the ring with one thread per partition, and the events of an aggregate always go to
+ * the same partition, so a subscriber receives the events of each aggregate in the order that they were published.
+ *
+ * @author Kenny Bastani
+ * @see EventSubscriber
+ */
+public class EventBus implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventBus.class);
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    /**
+     * The ways that an event can be delivered to a subscriber.
+     */
+    public enum Delivery {
+        /**
+         * The subscriber is called on the thread that publishes the event, before the publish returns, and an
+         * exception that it throws is thrown to the publisher.
+         */
+        SYNC,
+
+        /**
+         * The subscriber is called on a thread of the bus after the event is published, and an exception that it
+         * throws is logged.
+         */
+        ASYNC
+    }
+
+    private final EventRingBuffer ringBuffer;
+    private final List<Subscription<?>> syncSubscriptions = new CopyOnWriteArrayList<>();
+    private final List<Subscription<?>> asyncSubscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed = false;
+
+    public EventBus() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates an event bus.
+     *
+     * @param bufferSize is the number of events that can be published ahead of the slowest asynchronous subscriber,
+     *                   which must be a power of two
+     */
+    public EventBus(int bufferSize) {
+        this.ringBuffer = new EventRingBuffer(bufferSize);
+    }
+
+    /**
+     * Subscribes a handler to the events of a class, on the thread that publishes each event.
+     *
+     * @param name      is the name of the subscriber
+     * @param eventType is the class of the events, which also matches the events of its subclasses
+     * @param handler   is the handler of the events
+     * @return the subscription of the handler
+     */
+    public <E extends Event> Subscription<E> subscribe(String name, Class<E> eventType, Consumer<? super E> handler) {
+        return subscribe(name, eventType, Delivery.SYNC, 1, handler);
+    }
+
+    /**
+     * Subscribes a handler to the events of a class.
+     *
+     * @param name       is the name of the subscriber
+     * @param eventType  is the class of the events, which also matches the events of its subclasses
+     * @param delivery   is the way that the events are delivered to the handler
+     * @param partitions is the number of threads that call an asynchronous handler, each of which receives the events
+     *                   of a subset of the aggregates
+     * @param handler    is the handler of the events
+     * @return the subscription of the handler
+     */
+    public <E extends Event> Subscription<E> subscribe(String name, Class<E> eventType, Delivery delivery,
+                                                       int partitions, Consumer<? super E> handler) {
+        if (closed) {
+            throw new IllegalStateException("The event bus is closed");
+        }
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Invalid number of partitions: " + partitions);
+        }
+
+        Subscription<E> subscription = new Subscription<>(this, name, eventType, delivery, handler);
+        if (delivery == Delivery.SYNC) {
+            syncSubscriptions.add(subscription);
+        } else {
+            subscription.start(partitions);
+            asyncSubscriptions.add(subscription);
+        }
+        return subscription;
+    }
+
+    /**
+     * Publishes an event to the subscribers of its class. The synchronous subscribers are called first, and the event
+     * is then added to the ring of the asynchronous subscribers, which waits while the ring is full.
+     * <p>
+     * An asynchronous subscriber must not publish to its own bus, directly or by sending an event from an aggregate.
+     * While the ring is full, the publish waits for every asynchronous subscriber to move forward, including the one
+     * that is publishing, so its thread would wait for itself forever.
+     *
+     * @param event is the event to publish
+     */
+    public void publish(Event event) {
+        if (closed) {
+            throw new IllegalStateException("The event bus is closed");
+        }
+
+        for (Subscription<?> subscription : syncSubscriptions) {
+            subscription.deliver(event);
+        }
+
+        if (!asyncSubscriptions.isEmpty()) {
+            ringBuffer.publish(event);
+        }
+    }
+
+    /**
+     * Returns true when a subscriber of the bus receives the events of a class.
+     *
+     * @param eventType is the class of the events
+     * @return true if a subscriber matches the class, or one of its superclasses
+     */
+    public boolean hasSubscribers(Class<?> eventType) {
+        for (Subscription<?> subscription : syncSubscriptions) {
+            if (subscription.getEventType().isAssignableFrom(eventType)) {
+                return true;
+            }
+        }
+        for (Subscription<?> subscription : asyncSubscriptions) {
+            if (subscription.getEventType().isAssignableFrom(eventType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getBufferSize() {
+        return ringBuffer.getBufferSize();
+    }
+
+    /**
+     * Closes the bus and stops the threads of the asynchronous subscribers, once they have handled the events that
+     * were published before the bus was closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        syncSubscriptions.clear();
+        for (Subscription<?> subscription : new ArrayList<>(asyncSubscriptions)) {
+            subscription.cancel();
+        }
+    }
+
+    private void remove(Subscription<?> subscription) {
+        syncSubscriptions.remove(subscription);
+        asyncSubscriptions.remove(subscription);
+    }
+
+    /**
+     * A handler that is subscribed to the events of a class.
+     *
+     * @param <E> is the class of the events
+     */
+    public static class Subscription<E extends Event> {
+
+        private final EventBus eventBus;
+        private final String name;
+        private final Class<E> eventType;
+        private final Delivery delivery;
+        private final Consumer<? super E> handler;
+        private final List<Partition> partitions = new ArrayList<>();
+
+        private Subscription(EventBus eventBus, String name, Class<E> eventType, Delivery delivery,
+                             Consumer<? super E> handler) {
+            this.eventBus = eventBus;
+            this.name = name;
+            this.eventType = eventType;
+            this.delivery = delivery;
+            this.handler = handler;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Class<E> getEventType() {
+            return eventType;
+        }
+
+        public Delivery getDelivery() {
+            return delivery;
+        }
+
+        /**
+         * Unsubscribes the handler. An asynchronous handler is first called with the events that were published
+         * before it was unsubscribed.
+         */
+        public void cancel() {
+            eventBus.remove(this);
+
+            List<Partition> stopped;
+            synchronized (partitions) {
+                stopped = new ArrayList<>(partitions);
+                partitions.clear();
+            }
+
+            stopped.forEach(Partition::stop);
+            for (Partition partition : stopped) {
+                partition.join();
+            }
+        }
+
+        private void start(int partitionCount) {
+            // Every partition starts at the same sequence, so that no event of the partitions is skipped
+            List<AtomicLong> sequences = eventBus.ringBuffer.addGatingSequences(partitionCount);
+            synchronized (partitions) {
+                for (int partition = 0; partition < partitionCount; partition++) {
+                    Partition consumer = new Partition(partition, partitionCount, sequences.get(partition));
+                    partitions.add(consumer);
+                    consumer.thread.start();
+                }
+            }
+        }
+
+        private void deliver(Event event) {
+            if (eventType.isInstance(event)) {
+                handler.accept(eventType.cast(event));
+            }
+        }
+
+        /**
+         * Reads the ring of the event bus on its own thread, and calls the handler with the events of the aggregates
+         * of the partition.
+         */
+        private class Partition implements Runnable {
+
+            private final int partition;
+            private final int partitionCount;
+            private final AtomicLong sequence;
+            private final Thread thread;
+            private volatile boolean running = true;
+
+            Partition(int partition, int partitionCount, AtomicLong sequence) {
+                this.partition = partition;
+                this.partitionCount = partitionCount;
+                this.sequence = sequence;
+                this.thread = new Thread(this, "event-bus-" + name + "-" + partition);
+                this.thread.setDaemon(true);
+            }
+
+            @Override
+            public void run() {
+                EventRingBuffer ringBuffer = eventBus.ringBuffer;
+                long next = sequence.get() + 1;
+                int idle = 0;
+
+                // Keep reading after the partition is stopped, until every published event has been handled
+                while (running || ringBuffer.isPublished(next)) {
+                    if (!ringBuffer.isPublished(next)) {
+                        idle = EventRingBuffer.idle(idle);
+                        continue;
+                    }
+
+                    Event event = ringBuffer.get(next);
+                    if (partitionOf(event) == partition) {
+                        try {
+                            deliver(event);
+                        } catch (Exception ex) {
+                            log.error("Subscriber " + name + " failed to handle event " + event.getEventId(), ex);
+                        }
+                    }
+
+                    sequence.lazySet(next++);
+                    idle = 0;
+                }
+
+                ringBuffer.removeGatingSequence(sequence);
+            }
+
+            private int partitionOf(Event event) {
+                Object aggregateId = event.getAggregateId();
+                return aggregateId == null ? 0 : Math.floorMod(aggregateId.hashCode(), partitionCount);
+            }
+
+            private void stop() {
+                running = false;
+            }
+
+            private void join() {
+                if (thread == Thread.currentThread()) {
+                    return;
+                }
+
+                try {
+                    thread.join(TimeUnit.SECONDS.toMillis(30));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package demo.event;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class auto-configures an {@link EventBus} bean when {@code event.bus.enabled} is set, and subscribes the
+ * {@link EventSubscriber} methods of the application to it. A copy of each event that is sent by an
+ * {@link demo.domain.Aggregate} is then published to the bus once the transaction that sent it commits.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "event.bus", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(EventProperties.class)
+public class EventBusAutoConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public EventBus eventBus(EventProperties eventProperties) {
+        return new EventBus(eventProperties.getBus().getBufferSize());
+    }
+
+    @Bean
+    public static EventSubscriberPostProcessor eventSubscriberPostProcessor(ObjectProvider<EventBus> eventBus) {
+        return new EventSubscriberPostProcessor(eventBus);
+    }
+}
@@ -0,0 +1,27 @@
+package demo.event;
+
+/**
+ * An {@link EventCodec} converts an {@link Event} to and from the bytes of a record in an {@link EventLogRepository}.
+ *
+ * @param <E> is the type of {@link Event} that is encoded
+ * @author Kenny Bastani
+ * @see JsonEventCodec
+ */
+public interface EventCodec<E extends Event> {
+
+    /**
+     * Encodes an event into the body of a log record.
+     *
+     * @param event is the event to encode
+     * @return the encoded event
+     */
+    byte[] encode(E event);
+
+    /**
+     * Decodes an event from the body of a log record.
+     *
+     * @param bytes is the encoded event
+     * @return the decoded event
+     */
+    E decode(byte[] bytes);
+}
@@ -0,0 +1,28 @@
+package demo.event;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * This class auto-configures an {@link EventLogs} bean when {@code event.log.enabled} is set. Unlike
+ * {@link EventAutoConfig}, it does not back off when the application declares its own {@link EventService}.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "event.log", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(EventProperties.class)
+public class EventLogAutoConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public EventLogs eventLogs(EventProperties eventProperties) {
+        EventProperties.Log log = eventProperties.getLog();
+        return new EventLogs(Paths.get(log.getDirectory()), log.getSegmentSize(), log.isSync());
+    }
+}
@@ -0,0 +1,546 @@
+package demo.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.support.PropertyComparator;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * An {@link EventRepository} that appends {@link Event}s to a log of segment files on the local disk, instead of
+ * storing a row for every event in a database.
+ * <p>
+ * Each event is a record with a binary header, which holds the length of the record, a checksum, the event id and the
+ * aggregate id, followed by the body of the event from an {@link EventCodec}. A new segment is started when the
+ * current segment reaches its size limit, and segments are never modified once written. The repository keeps an index
+ * from each event id, and from each aggregate id to the offsets of its records in event id order, which is rebuilt by scanning the segments
+ * when the log is opened. A record that was not completely written, such as after a crash, is truncated from the log.
+ * <p>
+ * Event ids are assigned in order by the repository. Saving an event that already has an id appends a new record that
+ * replaces the previous record of the event. Since the log is append-only, events cannot be deleted.
+ * <p>
+ * An event that is saved while a transaction is active gets its id and creation time right away, but is only appended
+ * to the log after the transaction commits, and is discarded if the transaction rolls back. Until then, the event is
+ * not visible to readers of the repository, including the transaction that saved it. The records of a log are
+ * therefore not always in event id order, when transactions commit in a different order than they saved their events.
+ * The log does not take part in the commit itself, so the events of a transaction that committed can still be lost if
+ * the process stops before they are appended.
+ *
+ * @param <E> is the type of {@link Event} stored in the log
+ * @author Kenny Bastani
+ * @see EventLogs
+ */
+public class EventLogRepository<E extends Event<?, ?, Long>> implements EventRepository<E, Long>, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(EventLogRepository.class);
+
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 24;
+    private static final int OFFSET_BITS = 40;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final long NULL_ID = Long.MIN_VALUE;
+
+    private final Path directory;
+    private final EventCodec<E> codec;
+    private final long segmentSize;
+    private final boolean sync;
+    private final List<FileChannel> segments = new CopyOnWriteArrayList<>();
+    private final TreeMap<Long, Long> events = new TreeMap<>();
+    private final Map<Long, NavigableMap<Long, Long>> aggregates = new HashMap<>();
+    private long sequence = 0L;
+
+    /**
+     * Opens the event log in a directory, creating the directory if it does not exist.
+     *
+     * @param directory   is the directory of the segment files
+     * @param codec       is the codec that encodes the body of each record
+     * @param segmentSize is the size in bytes at which a new segment is started
+     * @param sync        is true if every append is forced to the disk before it returns
+     */
+    public EventLogRepository(Path directory, EventCodec<E> codec, long segmentSize, boolean sync) {
+        if (segmentSize <= HEADER_SIZE || segmentSize > OFFSET_MASK) {
+            throw new IllegalArgumentException("Invalid segment size: " + segmentSize);
+        }
+
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+
+        try {
+            open();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error opening event log " + directory, ex);
+        }
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        for (Path file : files) {
+            segments.add(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            recover(segments.size() - 1);
+        }
+
+        if (segments.isEmpty()) {
+            roll();
+        }
+    }
+
+    /**
+     * Indexes the records of a segment, and truncates the segment at the first record that is incomplete or does not
+     * match its checksum.
+     */
+    private void recover(int segment) throws IOException {
+        FileChannel channel = segments.get(segment);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long size = channel.size();
+        long offset = 0L;
+
+        while (offset + HEADER_SIZE <= size) {
+            header.clear();
+            read(channel, header, offset);
+            int length = header.getInt(0);
+            if (length < 0 || offset + HEADER_SIZE + length > size) {
+                break;
+            }
+
+            ByteBuffer body = ByteBuffer.allocate(length);
+            read(channel, body, offset + HEADER_SIZE);
+            if (header.getInt(4) != checksum(header, body.array())) {
+                break;
+            }
+
+            long eventId = header.getLong(8);
+            index(eventId, header.getLong(16), address(segment, offset));
+            sequence = Math.max(sequence, eventId);
+            offset += HEADER_SIZE + length;
+        }
+
+        if (offset < size) {
+            log.warn("Truncating event log segment {} at offset {} of {}", segment, offset, size);
+            channel.truncate(offset);
+        }
+    }
+
+    private FileChannel roll() throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", segments.size(), SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (!segments.isEmpty()) {
+            segments.get(segments.size() - 1).force(true);
+        }
+        segments.add(channel);
+        return channel;
+    }
+
+    @Override
+    public <S extends E> S save(S event) {
+        saveAll(Collections.singletonList(event));
+        return event;
+    }
+
+    @Override
+    public <S extends E> Iterable<S> saveAll(Iterable<S> entities) {
+        List<S> result = new ArrayList<>();
+        synchronized (this) {
+            for (S event : entities) {
+                prepare(event);
+                result.add(event);
+            }
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            getPendingAppends().events.addAll(result);
+        } else {
+            appendAll(result);
+        }
+        return result;
+    }
+
+    /**
+     * Assigns the id and the creation time of an event when it is saved, before it is appended.
+     */
+    private void prepare(E event) {
+        Date now = new Date();
+        if (event.getCreatedAt() == null) {
+            event.setCreatedAt(now);
+        }
+        event.setLastModified(now);
+
+        if (event.getEventId() == null) {
+            event.setEventId(++sequence);
+        } else {
+            sequence = Math.max(sequence, event.getEventId());
+        }
+    }
+
+    private synchronized void appendAll(List<? extends E> events) {
+        for (E event : events) {
+            append(event);
+        }
+        force();
+    }
+
+    private void append(E event) {
+        long eventId = event.getEventId();
+        long aggregateId = Optional.ofNullable(event.getAggregateId()).orElse(NULL_ID);
+        byte[] body = codec.encode(event);
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + body.length);
+        record.putInt(0, body.length);
+        record.putLong(8, eventId);
+        record.putLong(16, aggregateId);
+        record.position(HEADER_SIZE);
+        record.put(body);
+        record.putInt(4, checksum(record, body));
+        record.flip();
+
+        try {
+            FileChannel channel = segments.get(segments.size() - 1);
+            if (channel.size() > 0 && channel.size() + record.remaining() > segmentSize) {
+                channel = roll();
+            }
+
+            long offset = channel.size();
+            while (record.hasRemaining()) {
+                channel.write(record, offset + record.position());
+            }
+
+            index(eventId, aggregateId, address(segments.size() - 1, offset));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error appending event " + eventId + " to " + directory, ex);
+        }
+    }
+
+    /**
+     * Gets the events that the current transaction saved to this log, which are appended when it commits.
+     */
+    @SuppressWarnings("unchecked")
+    private PendingAppends getPendingAppends() {
+        PendingAppends pending = (PendingAppends) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingAppends();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private void force() {
+        if (sync) {
+            try {
+                segments.get(segments.size() - 1).force(false);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Error syncing event log " + directory, ex);
+            }
+        }
+    }
+
+    /**
+     * Points the indexes of an event at its latest record, replacing the previous record of the event.
+     */
+    private void index(long eventId, long aggregateId, long address) throws IOException {
+        Long previous = events.put(eventId, address);
+        if (previous != null) {
+            NavigableMap<Long, Long> addresses = aggregates.get(readHeader(previous).getLong(16));
+            if (addresses != null) {
+                addresses.remove(eventId);
+            }
+        }
+
+        if (aggregateId != NULL_ID) {
+            aggregates.computeIfAbsent(aggregateId, id -> new TreeMap<>()).put(eventId, address);
+        }
+    }
+
+    @Override
+    public Optional<E> findById(Long id) {
+        Long address;
+        synchronized (this) {
+            address = events.get(id);
+        }
+        return Optional.ofNullable(address).map(this::readEvent);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        synchronized (this) {
+            return events.containsKey(id);
+        }
+    }
+
+    @Override
+    public Iterable<E> findAll() {
+        return readEvents(addresses());
+    }
+
+    @Override
+    public Iterable<E> findAll(Sort sort) {
+        return sort(readEvents(addresses()), sort);
+    }
+
+    @Override
+    public Page<E> findAll(Pageable pageable) {
+        return page(addresses(), pageable);
+    }
+
+    @Override
+    public Iterable<E> findAllById(Iterable<Long> ids) {
+        List<Long> addresses = new ArrayList<>();
+        synchronized (this) {
+            for (Long id : ids) {
+                Optional.ofNullable(events.get(id)).ifPresent(addresses::add);
+            }
+        }
+        return readEvents(addresses);
+    }
+
+    @Override
+    public Page<E> findAllByAggregateId(Long aggregateId, Pageable pageable) {
+        List<Long> addresses;
+        synchronized (this) {
+            addresses = new ArrayList<>(aggregates.getOrDefault(aggregateId, Collections.emptyNavigableMap()).values());
+        }
+        return page(addresses, pageable);
+    }
+
+    @Override
+    public Slice<E> findAllByAggregateIdOrderByEventIdAsc(Long aggregateId, Pageable pageable) {
+        return findAllByAggregateIdAndEventIdGreaterThanOrderByEventIdAsc(aggregateId, NULL_ID, pageable);
+    }
+
+    /**
+     * Reads the events of an aggregate that follow an event id. Only the records on the slice are read, and the
+     * offset of the pageable is skipped in the index, so reading from an event id costs the same at any point in
+     * the history of the aggregate.
+     */
+    @Override
+    public Slice<E> findAllByAggregateIdAndEventIdGreaterThanOrderByEventIdAsc(Long aggregateId, Long eventId,
+                                                                               Pageable pageable) {
+        NavigableMap<Long, Long> index;
+        synchronized (this) {
+            index = aggregates.getOrDefault(aggregateId, Collections.emptyNavigableMap());
+        }
+        return slice(index.tailMap(eventId, false), pageable);
+    }
+
+    @Override
+    public Slice<E> findAllByEventIdGreaterThanOrderByEventIdAsc(Long eventId, Pageable pageable) {
+        return slice(events.tailMap(eventId, false), pageable);
+    }
+
+    @Override
+    public synchronized long count() {
+        return events.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        throw new UnsupportedOperationException("Events cannot be deleted from an append-only log");
+    }
+
+    @Override
+    public void delete(E entity) {
+        throw new UnsupportedOperationException("Events cannot be deleted from an append-only log");
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        throw new UnsupportedOperationException("Events cannot be deleted from an append-only log");
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends E> entities) {
+        throw new UnsupportedOperationException("Events cannot be deleted from an append-only log");
+    }
+
+    @Override
+    public void deleteAll() {
+        throw new UnsupportedOperationException("Events cannot be deleted from an append-only log");
+    }
+
+    /**
+     * Reads a slice of the records of an index, in the order of the index.
+     */
+    private Slice<E> slice(NavigableMap<Long, Long> index, Pageable pageable) {
+        int size = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        long skip = pageable.isPaged() ? pageable.getOffset() : 0L;
+        List<Long> addresses = new ArrayList<>(Math.min(size, 1024));
+        boolean hasNext;
+
+        synchronized (this) {
+            Iterator<Long> iterator = index.values().iterator();
+            for (; skip > 0 && iterator.hasNext(); skip--) {
+                iterator.next();
+            }
+            while (iterator.hasNext() && addresses.size() < size) {
+                addresses.add(iterator.next());
+            }
+            hasNext = iterator.hasNext();
+        }
+
+        return new SliceImpl<>(readEvents(addresses), pageable, hasNext);
+    }
+
+    private synchronized List<Long> addresses() {
+        return new ArrayList<>(events.values());
+    }
+
+    /**
+     * Reads a page of events. Only the records on the page are read, unless the page is sorted by a property of the
+     * events, in which case every record is read before sorting.
+     */
+    private Page<E> page(List<Long> addresses, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(sort(readEvents(addresses), pageable.getSort()), pageable, addresses.size());
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), addresses.size());
+        int to = (int) Math.min((long) from + pageable.getPageSize(), addresses.size());
+        List<E> content;
+        if (pageable.getSort().isSorted()) {
+            content = sort(readEvents(addresses), pageable.getSort()).subList(from, to);
+        } else {
+            content = readEvents(addresses.subList(from, to));
+        }
+
+        return new PageImpl<>(content, pageable, addresses.size());
+    }
+
+    private List<E> sort(List<E> events, Sort sort) {
+        Comparator<E> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<E> next = new PropertyComparator<>(order.getProperty(), order.isIgnoreCase(),
+                    order.isAscending());
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+
+        if (comparator != null) {
+            events.sort(comparator);
+        }
+        return events;
+    }
+
+    private List<E> readEvents(List<Long> addresses) {
+        List<E> result = new ArrayList<>(addresses.size());
+        for (Long address : addresses) {
+            result.add(readEvent(address));
+        }
+        return result;
+    }
+
+    private E readEvent(long address) {
+        try {
+            FileChannel channel = segments.get((int) (address >>> OFFSET_BITS));
+            ByteBuffer body = ByteBuffer.allocate(readHeader(address).getInt(0));
+            read(channel, body, (address & OFFSET_MASK) + HEADER_SIZE);
+            return codec.decode(body.array());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error reading event log " + directory, ex);
+        }
+    }
+
+    private ByteBuffer readHeader(long address) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        read(segments.get((int) (address >>> OFFSET_BITS)), header, address & OFFSET_MASK);
+        return header;
+    }
+
+    private static void read(FileChannel channel, ByteBuffer buffer, long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of event log segment at offset " + offset);
+            }
+        }
+    }
+
+    private static long address(int segment, long offset) {
+        return ((long) segment << OFFSET_BITS) | offset;
+    }
+
+    /**
+     * Computes the checksum of a record from the ids in its header and its body.
+     */
+    private static int checksum(ByteBuffer header, byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(header.array(), 8, HEADER_SIZE - 8);
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (FileChannel channel : segments) {
+            if (channel.isOpen()) {
+                channel.force(true);
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Holds the events that a transaction saved to the log, and appends them after the transaction commits.
+     */
+    private class PendingAppends implements TransactionSynchronization {
+
+        private final List<E> events = new ArrayList<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(EventLogRepository.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(EventLogRepository.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            appendAll(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            events.clear();
+            TransactionSynchronizationManager.unbindResourceIfPossible(EventLogRepository.this);
+        }
+    }
+}
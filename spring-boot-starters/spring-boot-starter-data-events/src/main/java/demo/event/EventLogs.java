@@ -0,0 +1,96 @@
+package demo.event;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opens an {@link EventLogRepository} for each type of {@link Event}, in a directory of the event type under a common
+ * directory. The repositories are closed when the {@link EventLogs} is closed.
+ * <p>
+ * An application that declares its own {@link EventRepository} interface, such as {@code OrderEventRepository}, can get
+ * an implementation of that interface that is backed by the log of its event type, and declare it as a bean in place
+ * of the Spring Data repository.
+ *
+ * @author Kenny Bastani
+ * @see EventLogAutoConfig
+ */
+public class EventLogs implements Closeable {
+
+    private final Path directory;
+    private final long segmentSize;
+    private final boolean sync;
+    private final Map<Class<?>, EventLogRepository<?>> repositories = new ConcurrentHashMap<>();
+    private final Map<Method, Method> methods = new ConcurrentHashMap<>();
+
+    public EventLogs(Path directory, long segmentSize, boolean sync) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+    }
+
+    /**
+     * Gets the log repository of an event type, opening the log if it is not open.
+     *
+     * @param eventType is the type of event stored in the log
+     * @return the log repository of the event type
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Event<?, ?, Long>> EventLogRepository<E> getRepository(Class<E> eventType) {
+        return (EventLogRepository<E>) repositories.computeIfAbsent(eventType, type ->
+                new EventLogRepository<>(directory.resolve(type.getSimpleName()), new JsonEventCodec<>(eventType),
+                        segmentSize, sync));
+    }
+
+    /**
+     * Gets an implementation of an {@link EventRepository} interface that delegates to the log repository of an event
+     * type. Query methods that are declared on the interface, other than those of {@link EventRepository}, throw an
+     * {@link UnsupportedOperationException}.
+     *
+     * @param repositoryType is the repository interface to implement
+     * @param eventType      is the type of event stored in the log
+     * @return the repository
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Event<?, ?, Long>, R extends EventRepository<E, Long>> R getRepository(Class<R> repositoryType,
+                                                                                          Class<E> eventType) {
+        EventLogRepository<E> repository = getRepository(eventType);
+        return (R) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> {
+                    Method target = methods.computeIfAbsent(method, this::resolve);
+                    if (target == null) {
+                        throw new UnsupportedOperationException("Not supported by an event log: " + method);
+                    }
+
+                    try {
+                        return target.invoke(repository, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+                });
+    }
+
+    private Method resolve(Method method) {
+        try {
+            return EventLogRepository.class.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (EventLogRepository<?> repository : repositories.values()) {
+            repository.close();
+        }
+    }
+}
@@ -4,6 +4,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "event")
 public class EventProperties {
@@ -11,6 +13,18 @@ public class EventProperties {
     @NestedConfigurationProperty
     private Props props;
 
+    @NestedConfigurationProperty
+    private Log log = new Log();
+
+    @NestedConfigurationProperty
+    private UnitOfWork unitOfWork = new UnitOfWork();
+
+    @NestedConfigurationProperty
+    private Outbox outbox = new Outbox();
+
+    @NestedConfigurationProperty
+    private Bus bus = new Bus();
+
     public Props getProps() {
         return props;
     }
@@ -19,7 +33,171 @@ public class EventProperties {
         this.props = props;
     }
 
+    public Log getLog() {
+        return log;
+    }
+
+    public void setLog(Log log) {
+        this.log = log;
+    }
+
+    public UnitOfWork getUnitOfWork() {
+        return unitOfWork;
+    }
+
+    public void setUnitOfWork(UnitOfWork unitOfWork) {
+        this.unitOfWork = unitOfWork;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public void setOutbox(Outbox outbox) {
+        this.outbox = outbox;
+    }
+
+    public Bus getBus() {
+        return bus;
+    }
+
+    public void setBus(Bus bus) {
+        this.bus = bus;
+    }
+
     public static class Props {
         // TODO: Implement
     }
+
+    /**
+     * Properties of the {@link EventLogs} that store events in segment files on the local disk.
+     */
+    public static class Log {
+        private boolean enabled = false;
+        private String directory = "events";
+        private long segmentSize = 64L * 1024 * 1024;
+        private boolean sync = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public long getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(long segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public boolean isSync() {
+            return sync;
+        }
+
+        public void setSync(boolean sync) {
+            this.sync = sync;
+        }
+    }
+
+    /**
+     * Properties of the {@link demo.domain.UnitOfWork} that buffers the events appended in a transaction.
+     */
+    public static class UnitOfWork {
+        private boolean enabled = false;
+        private boolean groupCommit = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isGroupCommit() {
+            return groupCommit;
+        }
+
+        public void setGroupCommit(boolean groupCommit) {
+            this.groupCommit = groupCommit;
+        }
+    }
+
+    /**
+     * Properties of the {@link OutboxRelayScheduler} that polls the {@link OutboxRelay}s of the application.
+     */
+    public static class Outbox {
+        private boolean enabled = false;
+        private Duration pollInterval = Duration.ofSeconds(1);
+        private boolean skipLocked = true;
+        private String table = JdbcHighWaterMarkRepository.DEFAULT_TABLE;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public boolean isSkipLocked() {
+            return skipLocked;
+        }
+
+        public void setSkipLocked(boolean skipLocked) {
+            this.skipLocked = skipLocked;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public void setTable(String table) {
+            this.table = table;
+        }
+    }
+
+    /**
+     * Properties of the {@link EventBus} that dispatches events to the subscribers in the same process.
+     */
+    public static class Bus {
+        private boolean enabled = false;
+        private int bufferSize = EventBus.DEFAULT_BUFFER_SIZE;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+    }
 }
@@ -2,6 +2,7 @@ package demo.event;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
@@ -18,4 +19,24 @@ import java.io.Serializable;
 @NoRepositoryBean
 public interface EventRepository<E extends Event, ID extends Serializable> extends PagingAndSortingRepository<E, ID> {
     Page<E> findAllByAggregateId(@Param("aggregateId") ID aggregateId, Pageable pageable);
+
+    /**
+     * Retrieves a slice of the events of an aggregate in event id order, without counting the events of the
+     * aggregate.
+     */
+    Slice<E> findAllByAggregateIdOrderByEventIdAsc(@Param("aggregateId") ID aggregateId, Pageable pageable);
+
+    /**
+     * Retrieves a slice of the events of an aggregate that follow an event id, which is used as a cursor to read
+     * the history of an aggregate one slice at a time.
+     */
+    Slice<E> findAllByAggregateIdAndEventIdGreaterThanOrderByEventIdAsc(@Param("aggregateId") ID aggregateId,
+                                                                        @Param("eventId") ID eventId,
+                                                                        Pageable pageable);
+
+    /**
+     * Retrieves a slice of the events of every aggregate that follow an event id, in event id order, which is used by
+     * an {@link OutboxRelay} to read the events that were appended after its high-water mark.
+     */
+    Slice<E> findAllByEventIdGreaterThanOrderByEventIdAsc(@Param("eventId") ID eventId, Pageable pageable);
 }
@@ -0,0 +1,128 @@
+package demo.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded ring of preallocated slots that {@link Event}s are published to by any number of threads and read from by
+ * the consumers of an {@link EventBus}, in the style of the LMAX Disruptor.
+ * <p>
+ * A publisher claims the next sequence with a single atomic increment, writes the event to the slot of the sequence
+ * and then marks the slot as published with the sequence. Each consumer reads every sequence in order and tracks the
+ * last sequence that it has read with its own gating sequence, so that a publisher only waits when the slowest
+ * consumer is a full ring behind it. Nothing is allocated and no lock is taken to publish or read an event.
+ *
+ * @author Kenny Bastani
+ */
+final class EventRingBuffer {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long PARK_NANOS = 50_000L;
+
+    private final Event[] entries;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong(-1);
+    private final List<AtomicLong> gatingSequences = new CopyOnWriteArrayList<>();
+
+    EventRingBuffer(int bufferSize) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("The buffer size must be a power of two: " + bufferSize);
+        }
+
+        this.entries = new Event[bufferSize];
+        this.published = new AtomicLongArray(bufferSize);
+        this.mask = bufferSize - 1;
+        for (int i = 0; i < bufferSize; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Publishes an event to the next slot of the ring, waiting while the slot has not been read by every consumer.
+     *
+     * @param event is the event to publish
+     */
+    void publish(Event event) {
+        long sequence = cursor.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+
+        int idle = 0;
+        while (wrapPoint > minimumGatingSequence(sequence)) {
+            idle = idle(idle);
+        }
+
+        int index = (int) sequence & mask;
+        entries[index] = event;
+        published.lazySet(index, sequence);
+    }
+
+    /**
+     * Checks whether the event of a sequence has been published. A sequence that is checked must not be more than a
+     * full ring ahead of the gating sequence of the consumer that checks it.
+     */
+    boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == sequence;
+    }
+
+    /**
+     * Gets the event of a sequence that has been published.
+     */
+    Event get(long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    /**
+     * Adds the gating sequences of new consumers, which start reading at the first sequence that is claimed after
+     * they are added.
+     */
+    List<AtomicLong> addGatingSequences(int count) {
+        long start = cursor.get();
+        List<AtomicLong> sequences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sequences.add(new AtomicLong(start));
+        }
+        gatingSequences.addAll(sequences);
+        return sequences;
+    }
+
+    void removeGatingSequence(AtomicLong sequence) {
+        gatingSequences.remove(sequence);
+    }
+
+    int getBufferSize() {
+        return entries.length;
+    }
+
+    /**
+     * Waits for a publisher or consumer to make progress, spinning first, then yielding and finally parking the
+     * thread, so that an idle consumer does not keep a core busy.
+     *
+     * @param idle is the number of times that the caller has waited without progress
+     * @return the next value of the idle counter
+     */
+    static int idle(int idle) {
+        if (idle < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idle < YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+            return idle;
+        }
+        return idle + 1;
+    }
+
+    private long minimumGatingSequence(long defaultSequence) {
+        long minimum = defaultSequence;
+        for (AtomicLong sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+}
@@ -1,9 +1,15 @@
 package demo.event;
 
 import demo.domain.Aggregate;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.Link;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Service interface for managing {@link Event} entities.
@@ -39,6 +45,20 @@ public interface EventService<T extends Event, ID extends Serializable> {
      */
     <S extends T> S save(ID id, S event);
 
+    /**
+     * Saves a batch of event entities. Use the returned instances for further operations as the save operation might
+     * have changed the entity instances completely.
+     *
+     * @return the saved event entities
+     */
+    default <S extends T> List<S> saveAll(List<S> events) {
+        List<S> result = new ArrayList<>(events.size());
+        for (S event : events) {
+            result.add(save(event));
+        }
+        return result;
+    }
+
     /**
      * Retrieves an {@link Event} entity by its id.
      *
@@ -52,4 +72,34 @@ public interface EventService<T extends Event, ID extends Serializable> {
      * @return a {@link Events} containing a collection of {@link Event}s
      */
     <E extends Events> E find(ID entityId);
+
+    /**
+     * Retrieves a slice of an entity's {@link Event}s in event id order, starting after an event id. The id of the last
+     * event of a slice is the cursor of the next slice.
+     *
+     * @param entityId is the id of the entity
+     * @param after    is the id of the event before the slice, or {@literal null} to start at the first event
+     * @param size     is the largest number of events in the slice
+     * @return a {@link Slice} of the entity's {@link Event}s
+     */
+    Slice<T> find(ID entityId, ID after, int size);
+
+    /**
+     * Streams an entity's {@link Event}s in event id order. The events are read one slice at a time as they are
+     * requested by the subscriber, and at most one slice is read ahead of the events that were requested, so that only
+     * a slice or two of the history of the entity is held in memory.
+     *
+     * @param entityId is the id of the entity
+     * @param pageSize is the number of events in each slice that is read
+     * @return a {@link Flux} of the entity's {@link Event}s
+     */
+    @SuppressWarnings("unchecked")
+    default Flux<T> stream(ID entityId, int pageSize) {
+        return Mono.fromCallable(() -> find(entityId, null, pageSize))
+                .expand(slice -> slice.hasNext() && slice.hasContent() ? Mono.fromCallable(() -> find(entityId,
+                        (ID) slice.getContent().get(slice.getNumberOfElements() - 1).getEventId(), pageSize))
+                        : Mono.empty())
+                .concatMapIterable(Slice::getContent, 1)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
@@ -0,0 +1,39 @@
+package demo.event;
+
+import java.lang.annotation.*;
+
+/**
+ * Subscribes a method of a bean to the {@link EventBus} of the application. The method takes a single parameter,
+ * which is the class of {@link Event} that it receives.
+ * <pre class="code">
+ * &#064;EventSubscriber(types = "ORDER_DELIVERED", delivery = EventBus.Delivery.ASYNC, partitions = 4)
+ * public void onOrderDelivered(OrderEvent event) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Kenny Bastani
+ * @see EventSubscriberPostProcessor
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface EventSubscriber {
+
+    /**
+     * The names of the event types that the method receives, or every type of its event class if empty.
+     */
+    String[] types() default {};
+
+    /**
+     * The way that events are delivered to the method. An asynchronous method must not send events, since it would
+     * wait for itself while the ring of the {@link EventBus} is full.
+     */
+    EventBus.Delivery delivery() default EventBus.Delivery.ASYNC;
+
+    /**
+     * The number of threads that call the method for an asynchronous subscriber. The events of an aggregate are always
+     * handled by the same thread, in the order that they were published.
+     */
+    int partitions() default 1;
+}
@@ -0,0 +1,72 @@
+package demo.event;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Subscribes the {@link EventSubscriber} methods of the beans of the application to the {@link EventBus}.
+ *
+ * @author Kenny Bastani
+ */
+public class EventSubscriberPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<EventBus> eventBus;
+
+    public EventSubscriberPostProcessor(ObjectProvider<EventBus> eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof EventBus) {
+            return bean;
+        }
+
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        Map<Method, EventSubscriber> methods = MethodIntrospector.selectMethods(targetClass,
+                (MethodIntrospector.MetadataLookup<EventSubscriber>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, EventSubscriber.class));
+
+        methods.forEach((method, subscriber) -> subscribe(bean, beanName, method, subscriber));
+        return bean;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void subscribe(Object bean, String beanName, Method method, EventSubscriber subscriber) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length != 1 || !Event.class.isAssignableFrom(parameterTypes[0])) {
+            throw new IllegalStateException("The event subscriber " + method +
+                    " must take a single parameter of a type of event");
+        }
+
+        Method invocableMethod = AopUtils.selectInvocableMethod(method, bean.getClass());
+        ReflectionUtils.makeAccessible(invocableMethod);
+        Consumer<Event> handler = event -> ReflectionUtils.invokeMethod(invocableMethod, bean, event);
+
+        // Filter the events by their type before they reach the method
+        if (subscriber.types().length > 0) {
+            Set<String> types = Arrays.stream(subscriber.types()).collect(Collectors.toSet());
+            Consumer<Event> delegate = handler;
+            handler = event -> {
+                if (types.contains(String.valueOf(event.getType()))) {
+                    delegate.accept(event);
+                }
+            };
+        }
+
+        eventBus.getObject().subscribe(beanName + "." + method.getName(),
+                (Class<Event>) parameterTypes[0], subscriber.delivery(), subscriber.partitions(), handler);
+    }
+}
@@ -0,0 +1,47 @@
+package demo.event;
+
+import java.util.OptionalLong;
+
+/**
+ * Repository interface for the high-water marks of {@link OutboxRelay}s. The high-water mark of a relay is the id of
+ * the last {@link Event} that it published, and every event after it is yet to be published.
+ *
+ * @author Kenny Bastani
+ * @see InMemoryHighWaterMarkRepository
+ * @see JdbcHighWaterMarkRepository
+ */
+public interface HighWaterMarkRepository {
+
+    /**
+     * Locks the high-water mark of a relay, so that only one instance of the relay publishes a batch at a time. The
+     * mark stays locked until it is unlocked or until the current transaction ends.
+     *
+     * @param relay is the name of the relay
+     * @return the high-water mark of the relay, which is zero if it has not published an event, or an empty optional
+     * if the mark is locked by another instance of the relay
+     */
+    OptionalLong lock(String relay);
+
+    /**
+     * Moves the high-water mark of a relay that is locked by the caller.
+     *
+     * @param relay   is the name of the relay
+     * @param eventId is the id of the last event that was published by the relay
+     */
+    void update(String relay, long eventId);
+
+    /**
+     * Unlocks the high-water mark of a relay that is locked by the caller.
+     *
+     * @param relay is the name of the relay
+     */
+    void unlock(String relay);
+
+    /**
+     * Gets the high-water mark of a relay without locking it.
+     *
+     * @param relay is the name of the relay
+     * @return the high-water mark of the relay, which is zero if it has not published an event
+     */
+    long get(String relay);
+}
@@ -0,0 +1,42 @@
+package demo.event;
+
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link HighWaterMarkRepository} that keeps the high-water marks in memory, for relays whose events are stored in
+ * memory or on the local disk, such as by an {@link EventLogRepository}.
+ *
+ * @author Kenny Bastani
+ */
+public class InMemoryHighWaterMarkRepository implements HighWaterMarkRepository {
+
+    private final Map<String, Long> marks = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public OptionalLong lock(String relay) {
+        ReentrantLock lock = locks.computeIfAbsent(relay, name -> new ReentrantLock());
+        return lock.tryLock() ? OptionalLong.of(get(relay)) : OptionalLong.empty();
+    }
+
+    @Override
+    public void update(String relay, long eventId) {
+        marks.put(relay, eventId);
+    }
+
+    @Override
+    public void unlock(String relay) {
+        ReentrantLock lock = locks.get(relay);
+        if (lock != null && lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long get(String relay) {
+        return marks.getOrDefault(relay, 0L);
+    }
+}
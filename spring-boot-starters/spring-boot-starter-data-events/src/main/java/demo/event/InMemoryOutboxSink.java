@@ -0,0 +1,41 @@
+package demo.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link OutboxSink} that keeps the {@link Event}s that it receives in memory, for tests of the events that are
+ * relayed by an {@link OutboxRelay}.
+ *
+ * @param <E> is the type of {@link Event} that is published
+ * @author Kenny Bastani
+ */
+public class InMemoryOutboxSink<E extends Event> implements OutboxSink<E> {
+
+    private final List<E> events = new ArrayList<>();
+    private int batches = 0;
+
+    @Override
+    public synchronized void publish(List<E> events) {
+        this.events.addAll(events);
+        batches++;
+    }
+
+    /**
+     * Gets the events that were published to the sink.
+     *
+     * @return a copy of the published events, in the order that they were published
+     */
+    public synchronized List<E> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    public synchronized int getBatches() {
+        return batches;
+    }
+
+    public synchronized void clear() {
+        events.clear();
+        batches = 0;
+    }
+}
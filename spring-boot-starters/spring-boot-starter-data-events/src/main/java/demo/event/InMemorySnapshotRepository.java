@@ -0,0 +1,73 @@
+package demo.event;
+
+import demo.domain.Aggregate;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link SnapshotRepository} that keeps the latest {@link Snapshot} of each aggregate in memory. The aggregate of a
+ * snapshot is stored as encoded by a {@link PayloadCodec}, so that every snapshot that is found is a new copy of the
+ * aggregate. The binary {@link SmilePayloadCodec} is used by default.
+ *
+ * @param <A>  is the type of {@link Aggregate} in the snapshots
+ * @param <ID> is the type of the aggregate and event ids
+ * @author Kenny Bastani
+ */
+public class InMemorySnapshotRepository<A extends Aggregate, ID extends Serializable>
+        implements SnapshotRepository<A, ID> {
+
+    private final Class<A> aggregateType;
+    private final PayloadCodec payloadCodec;
+    private final Map<ID, Entry<ID>> snapshots = new ConcurrentHashMap<>();
+
+    public InMemorySnapshotRepository(Class<A> aggregateType) {
+        this(aggregateType, new SmilePayloadCodec());
+    }
+
+    public InMemorySnapshotRepository(Class<A> aggregateType, PayloadCodec payloadCodec) {
+        this.aggregateType = aggregateType;
+        this.payloadCodec = payloadCodec;
+    }
+
+    @Override
+    public Optional<Snapshot<A, ID>> findLatest(ID aggregateId) {
+        return Optional.ofNullable(snapshots.get(aggregateId))
+                .map(entry -> new Snapshot<>(aggregateId, entry.eventId, entry.version,
+                        payloadCodec.decode(entry.state, aggregateType), entry.createdAt));
+    }
+
+    @Override
+    public void save(Snapshot<A, ID> snapshot) {
+        Entry<ID> entry = new Entry<>(snapshot.getEventId(), snapshot.getVersion(), snapshot.getCreatedAt(),
+                payloadCodec.encode(snapshot.getAggregate()));
+        snapshots.merge(snapshot.getAggregateId(), entry,
+                (previous, next) -> next.version > previous.version ? next : previous);
+    }
+
+    @Override
+    public void delete(ID aggregateId) {
+        snapshots.remove(aggregateId);
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    private static class Entry<ID> {
+        private final ID eventId;
+        private final long version;
+        private final Date createdAt;
+        private final byte[] state;
+
+        Entry(ID eventId, long version, Date createdAt, byte[] state) {
+            this.eventId = eventId;
+            this.version = version;
+            this.createdAt = createdAt;
+            this.state = state;
+        }
+    }
+}
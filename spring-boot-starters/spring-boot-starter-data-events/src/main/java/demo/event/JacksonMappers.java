@@ -0,0 +1,41 @@
+package demo.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.hateoas.RepresentationModel;
+
+/**
+ * Creates the {@link ObjectMapper}s of the codecs of events and their payloads, so that an event and its payload leave
+ * out the same links and null properties, and read dates and unknown properties the same way.
+ *
+ * @author Kenny Bastani
+ */
+final class JacksonMappers {
+
+    private JacksonMappers() {
+    }
+
+    /**
+     * Creates an {@link ObjectMapper} that does not write the links of a {@link RepresentationModel} or properties
+     * that are null, writes dates as timestamps, and ignores unknown properties when reading.
+     *
+     * @param jsonFactory is the factory of the format that is written, or {@literal null} for JSON
+     * @return a new {@link ObjectMapper}
+     */
+    static ObjectMapper objectMapper(JsonFactory jsonFactory) {
+        return new ObjectMapper(jsonFactory)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .addMixIn(RepresentationModel.class, IgnoreLinks.class)
+                .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, true)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @JsonIgnoreProperties("links")
+    private abstract static class IgnoreLinks {
+    }
+}
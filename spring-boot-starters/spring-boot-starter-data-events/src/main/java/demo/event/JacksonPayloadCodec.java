@@ -0,0 +1,62 @@
+package demo.event;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.util.MimeType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Base class of the {@link PayloadCodec}s that map payloads with Jackson. The {@link ObjectMapper} of a codec is
+ * created once and shared by every event, along with a reader for each type of payload.
+ * <p>
+ * The links of a payload and its properties that are null are not written, since they are not part of the state of
+ * the payload.
+ *
+ * @author Kenny Bastani
+ */
+public abstract class JacksonPayloadCodec implements PayloadCodec {
+
+    private final ObjectWriter writer;
+    private final ObjectMapper objectMapper;
+    private final MimeType mimeType;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    protected JacksonPayloadCodec(JsonFactory jsonFactory, MimeType mimeType) {
+        this.objectMapper = JacksonMappers.objectMapper(jsonFactory)
+                .configure(SerializationFeature.FAIL_ON_SELF_REFERENCES, false)
+                .configure(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT, true);
+        this.writer = objectMapper.writer();
+        this.mimeType = mimeType;
+    }
+
+    @Override
+    public byte[] encode(Object payload) {
+        try {
+            return writer.writeValueAsBytes(payload);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error serializing " + payload.getClass().getSimpleName(), ex);
+        }
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        try {
+            return readers.computeIfAbsent(type, objectMapper::readerFor).readValue(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error deserializing " + type.getSimpleName(), ex);
+        }
+    }
+
+    @Override
+    public MimeType getMimeType() {
+        return mimeType;
+    }
+}
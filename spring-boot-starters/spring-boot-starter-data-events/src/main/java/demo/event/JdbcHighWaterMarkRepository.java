@@ -0,0 +1,93 @@
+package demo.event;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * A {@link HighWaterMarkRepository} that keeps the high-water marks in a database table, next to the events that are
+ * relayed, so that a mark is moved in the same transaction that reads the batch of events after it.
+ * <p>
+ * A mark is locked with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so that when several instances of an application
+ * poll the same relay, the instances that find the mark locked skip the poll instead of waiting for the instance that
+ * holds it. Databases without {@code SKIP LOCKED}, such as H2, can use a plain {@code FOR UPDATE}, in which case the
+ * other instances wait for the lock and then read the events after the moved mark.
+ *
+ * @author Kenny Bastani
+ */
+public class JdbcHighWaterMarkRepository implements HighWaterMarkRepository {
+
+    public static final String DEFAULT_TABLE = "event_high_water_mark";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final boolean skipLocked;
+
+    public JdbcHighWaterMarkRepository(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, DEFAULT_TABLE, true);
+    }
+
+    public JdbcHighWaterMarkRepository(JdbcTemplate jdbcTemplate, String table, boolean skipLocked) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.skipLocked = skipLocked;
+    }
+
+    /**
+     * Creates the table of the high-water marks if it does not exist.
+     */
+    public void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table +
+                " (relay VARCHAR(255) NOT NULL PRIMARY KEY, event_id BIGINT NOT NULL)");
+    }
+
+    @Override
+    public OptionalLong lock(String relay) {
+        List<Long> marks = jdbcTemplate.queryForList("SELECT event_id FROM " + table + " WHERE relay = ? FOR UPDATE" +
+                (skipLocked ? " SKIP LOCKED" : ""), Long.class, relay);
+        if (!marks.isEmpty()) {
+            return OptionalLong.of(marks.get(0));
+        }
+
+        // The mark is either locked by another instance of the relay, or the relay has not published an event yet
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE relay = ?",
+                Integer.class, relay);
+        if (count != null && count > 0) {
+            return OptionalLong.empty();
+        }
+
+        try {
+            jdbcTemplate.update("INSERT INTO " + table + " (relay, event_id) VALUES (?, 0)", relay);
+            return OptionalLong.of(0L);
+        } catch (DuplicateKeyException ex) {
+            return OptionalLong.empty();
+        }
+    }
+
+    @Override
+    public void update(String relay, long eventId) {
+        jdbcTemplate.update("UPDATE " + table + " SET event_id = ? WHERE relay = ?", eventId, relay);
+    }
+
+    @Override
+    public void unlock(String relay) {
+        // The row lock is released when the transaction of the relay ends
+    }
+
+    @Override
+    public long get(String relay) {
+        List<Long> marks = jdbcTemplate.queryForList("SELECT event_id FROM " + table + " WHERE relay = ?",
+                Long.class, relay);
+        return marks.isEmpty() ? 0L : marks.get(0);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public boolean isSkipLocked() {
+        return skipLocked;
+    }
+}
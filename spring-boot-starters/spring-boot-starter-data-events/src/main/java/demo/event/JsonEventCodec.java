@@ -0,0 +1,46 @@
+package demo.event;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * An {@link EventCodec} that encodes the fields of an {@link Event} as JSON. Only the fields of the event are written,
+ * so that getters that are derived from other fields, such as the entity or the links of an event, are not stored.
+ *
+ * @param <E> is the type of {@link Event} that is encoded
+ * @author Kenny Bastani
+ */
+public class JsonEventCodec<E extends Event> implements EventCodec<E> {
+
+    private final Class<E> eventType;
+    private final ObjectMapper objectMapper;
+
+    public JsonEventCodec(Class<E> eventType) {
+        this.eventType = eventType;
+        this.objectMapper = JacksonMappers.objectMapper(null)
+                .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+                .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+    }
+
+    @Override
+    public byte[] encode(E event) {
+        try {
+            return objectMapper.writeValueAsBytes(event);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error serializing event " + event.getEventId(), ex);
+        }
+    }
+
+    @Override
+    public E decode(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, eventType);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Error deserializing " + eventType.getSimpleName(), ex);
+        }
+    }
+}
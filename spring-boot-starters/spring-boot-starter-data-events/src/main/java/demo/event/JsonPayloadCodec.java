@@ -0,0 +1,38 @@
+package demo.event;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link PayloadCodec} that encodes payloads as JSON text. Payloads in JSON can be stored in a text column and read
+ * by other tools, such as a change data capture connector that expands the payload of each event.
+ *
+ * @author Kenny Bastani
+ */
+public class JsonPayloadCodec extends JacksonPayloadCodec {
+
+    private static final JsonPayloadCodec INSTANCE = new JsonPayloadCodec();
+
+    public JsonPayloadCodec() {
+        super(new JsonFactory(), MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    /**
+     * Gets the codec that is shared by the events that store their payload as JSON text.
+     *
+     * @return the shared codec
+     */
+    public static JsonPayloadCodec getInstance() {
+        return INSTANCE;
+    }
+
+    public String encodeToString(Object payload) {
+        return new String(encode(payload), StandardCharsets.UTF_8);
+    }
+
+    public <T> T decode(String text, Class<T> type) {
+        return decode(text.getBytes(StandardCharsets.UTF_8), type);
+    }
+}
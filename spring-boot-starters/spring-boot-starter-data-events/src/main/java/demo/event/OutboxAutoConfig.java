@@ -0,0 +1,60 @@
+package demo.event;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.stream.Collectors;
+
+/**
+ * This class auto-configures the polling of the {@link OutboxRelay} beans of the application when
+ * {@code event.outbox.enabled} is set. The high-water marks of the relays are kept in a database table when the
+ * application has a {@link JdbcTemplate}, and in memory otherwise.
+ *
+ * @author Kenny Bastani
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "event.outbox", name = "enabled", havingValue = "true")
+@AutoConfigureAfter(JdbcTemplateAutoConfiguration.class)
+@EnableConfigurationProperties(EventProperties.class)
+public class OutboxAutoConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public HighWaterMarkRepository highWaterMarkRepository() {
+        return new InMemoryHighWaterMarkRepository();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxRelayScheduler outboxRelayScheduler(ObjectProvider<OutboxRelay<?>> relays,
+                                                     EventProperties eventProperties) {
+        return new OutboxRelayScheduler(relays.orderedStream().collect(Collectors.toList()),
+                eventProperties.getOutbox().getPollInterval());
+    }
+
+    @Configuration
+    @ConditionalOnClass(JdbcTemplate.class)
+    @ConditionalOnBean(JdbcTemplate.class)
+    public static class JdbcHighWaterMarkConfig {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public HighWaterMarkRepository highWaterMarkRepository(JdbcTemplate jdbcTemplate,
+                                                               EventProperties eventProperties) {
+            EventProperties.Outbox outbox = eventProperties.getOutbox();
+            JdbcHighWaterMarkRepository repository = new JdbcHighWaterMarkRepository(jdbcTemplate,
+                    outbox.getTable(), outbox.isSkipLocked());
+            repository.createTable();
+            return repository;
+        }
+    }
+}
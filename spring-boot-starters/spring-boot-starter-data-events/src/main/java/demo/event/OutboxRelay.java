@@ -0,0 +1,184 @@
+package demo.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Relays the {@link Event}s of an {@link EventRepository} to an {@link OutboxSink}, treating the event table as a
+ * transactional outbox.
+ * <p>
+ * Each call to {@link #relay()} locks the high-water mark of the relay, reads the next batch of events after the mark
+ * in event id order, publishes the batch to the sink and then moves the mark to the last event of the batch, all in
+ * one transaction. If the sink fails, the mark is not moved and the same batch is published again by the next call,
+ * so that events are delivered at least once. If the mark is locked by another instance of the relay, the call skips
+ * the poll and returns right away.
+ * <p>
+ * Event ids are allocated before the transactions that save the events commit, so an event can become visible after
+ * events with higher ids, and once the mark has moved past its id it is never relayed. The ids are not dense, since
+ * a sequence can be shared by other tables and the ids of a transaction that rolled back are never used, so a missing
+ * id does not tell the relay whether an event is still to come. Instead, a relay with a commit lag only relays the
+ * events that were created at least the commit lag ago, and stops at the first event of a batch that is newer. The
+ * commit lag should be longer than the longest transaction that saves events. It is zero by default, which relays
+ * every event as soon as it is visible.
+ *
+ * @param <E> is the type of {@link Event} that is relayed
+ * @author Kenny Bastani
+ * @see OutboxSink
+ * @see HighWaterMarkRepository
+ */
+public class OutboxRelay<E extends Event<?, ?, Long>> {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final String name;
+    private final EventRepository<E, Long> eventRepository;
+    private final OutboxSink<E> sink;
+    private final HighWaterMarkRepository highWaterMarkRepository;
+    private final TransactionOperations transactionOperations;
+    private int batchSize = 100;
+    private Duration commitLag = Duration.ZERO;
+    private Clock clock = Clock.systemUTC();
+
+    /**
+     * Creates a relay of the events of an event repository.
+     *
+     * @param name                    is the name of the relay, which identifies its high-water mark
+     * @param eventRepository         is the repository of the events that are relayed
+     * @param sink                    is the sink that the events are published to
+     * @param highWaterMarkRepository is the repository of the high-water mark of the relay
+     * @param transactionOperations   runs each batch in a transaction, such as a
+     *                                {@link org.springframework.transaction.support.TransactionTemplate}
+     */
+    public OutboxRelay(String name, EventRepository<E, Long> eventRepository, OutboxSink<E> sink,
+                       HighWaterMarkRepository highWaterMarkRepository, TransactionOperations transactionOperations) {
+        this.name = name;
+        this.eventRepository = eventRepository;
+        this.sink = sink;
+        this.highWaterMarkRepository = highWaterMarkRepository;
+        this.transactionOperations = transactionOperations;
+    }
+
+    /**
+     * Publishes the next batch of events after the high-water mark of the relay.
+     *
+     * @return the number of events that were published, which is zero if there were no new events or if the
+     * high-water mark is locked by another instance of the relay
+     */
+    public int relay() {
+        Integer count = transactionOperations.execute(status -> {
+            OptionalLong mark = highWaterMarkRepository.lock(name);
+            if (!mark.isPresent()) {
+                log.debug("Skipped outbox relay {}, its high-water mark is locked", name);
+                return 0;
+            }
+
+            try {
+                Slice<E> batch = eventRepository.findAllByEventIdGreaterThanOrderByEventIdAsc(mark.getAsLong(),
+                        PageRequest.of(0, batchSize));
+                List<E> events = batch.getContent().subList(0, countSettled(batch.getContent()));
+                if (events.isEmpty()) {
+                    return 0;
+                }
+
+                sink.publish(events);
+                long highWaterMark = events.get(events.size() - 1).getEventId();
+                highWaterMarkRepository.update(name, highWaterMark);
+                return events.size();
+            } finally {
+                highWaterMarkRepository.unlock(name);
+            }
+        });
+
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Counts the events at the start of a batch that were created at least the commit lag ago. An event without a
+     * creation time is relayed right away.
+     */
+    private int countSettled(List<E> events) {
+        if (commitLag.isZero()) {
+            return events.size();
+        }
+
+        long settledAt = clock.millis() - commitLag.toMillis();
+        for (int i = 0; i < events.size(); i++) {
+            Date createdAt = events.get(i).getCreatedAt();
+            if (createdAt != null && createdAt.getTime() > settledAt) {
+                log.debug("Outbox relay {} is waiting for the transactions before event {} to commit", name,
+                        events.get(i).getEventId());
+                return i;
+            }
+        }
+        return events.size();
+    }
+
+    /**
+     * Publishes batches of events until the relay has caught up with the event repository.
+     *
+     * @return the number of events that were published
+     */
+    public long drain() {
+        long total = 0;
+        int count;
+        do {
+            count = relay();
+            total += count;
+        } while (count == batchSize);
+        return total;
+    }
+
+    /**
+     * Gets the id of the last event that was published by the relay.
+     *
+     * @return the high-water mark of the relay
+     */
+    public long getHighWaterMark() {
+        return highWaterMarkRepository.get(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    public Duration getCommitLag() {
+        return commitLag;
+    }
+
+    /**
+     * Sets how long after an event is created the relay waits before it relays the event, so that the transactions
+     * that allocated lower event ids can commit first.
+     *
+     * @param commitLag is the time to wait after an event is created, or zero to relay events right away
+     */
+    public void setCommitLag(Duration commitLag) {
+        if (commitLag.isNegative()) {
+            throw new IllegalArgumentException("Invalid commit lag: " + commitLag);
+        }
+        this.commitLag = commitLag;
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+}
@@ -0,0 +1,86 @@
+package demo.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls a list of {@link OutboxRelay}s on a single background thread, draining each relay and then waiting for the
+ * poll interval before the next poll.
+ *
+ * @author Kenny Bastani
+ */
+public class OutboxRelayScheduler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelayScheduler.class);
+
+    private final List<OutboxRelay<?>> relays;
+    private final Duration pollInterval;
+    private ScheduledExecutorService executor;
+
+    public OutboxRelayScheduler(List<OutboxRelay<?>> relays, Duration pollInterval) {
+        this.relays = relays;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Drains every relay once. A relay that fails is logged and polled again on the next poll, without stopping the
+     * other relays.
+     */
+    public void poll() {
+        for (OutboxRelay<?> relay : relays) {
+            try {
+                long count = relay.drain();
+                if (count > 0) {
+                    log.debug("Relayed {} events from outbox relay {}", count, relay.getName());
+                }
+            } catch (Exception ex) {
+                log.error("Failed to relay events from outbox relay " + relay.getName(), ex);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (executor != null || relays.isEmpty()) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(pollInterval.toMillis() + 5000, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return executor != null;
+    }
+}
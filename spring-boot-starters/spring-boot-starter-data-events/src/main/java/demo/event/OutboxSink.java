@@ -0,0 +1,23 @@
+package demo.event;
+
+import java.util.List;
+
+/**
+ * An {@link OutboxSink} receives the batches of {@link Event}s that are relayed from an event table by an
+ * {@link OutboxRelay}, such as to publish them to a message broker.
+ *
+ * @param <E> is the type of {@link Event} that is published
+ * @author Kenny Bastani
+ * @see InMemoryOutboxSink
+ */
+@FunctionalInterface
+public interface OutboxSink<E extends Event> {
+
+    /**
+     * Publishes a batch of events in event id order. The batch is published again by the relay if this method throws
+     * an exception, so a sink must tolerate receiving an event more than once.
+     *
+     * @param events are the events to publish
+     */
+    void publish(List<E> events);
+}
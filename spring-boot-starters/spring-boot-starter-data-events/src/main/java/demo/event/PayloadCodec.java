@@ -0,0 +1,38 @@
+package demo.event;
+
+import org.springframework.util.MimeType;
+
+/**
+ * A {@link PayloadCodec} converts the payload of an {@link Event}, such as the state of the aggregate that the event
+ * was applied to, to and from the bytes that are stored with the event.
+ *
+ * @author Kenny Bastani
+ * @see JsonPayloadCodec
+ * @see SmilePayloadCodec
+ */
+public interface PayloadCodec {
+
+    /**
+     * Encodes a payload.
+     *
+     * @param payload is the payload to encode
+     * @return the encoded payload
+     */
+    byte[] encode(Object payload);
+
+    /**
+     * Decodes a payload.
+     *
+     * @param bytes is the encoded payload
+     * @param type  is the type of the payload
+     * @return the decoded payload
+     */
+    <T> T decode(byte[] bytes, Class<T> type);
+
+    /**
+     * Gets the format of the encoded payloads.
+     *
+     * @return the mime type of the encoded payloads
+     */
+    MimeType getMimeType();
+}
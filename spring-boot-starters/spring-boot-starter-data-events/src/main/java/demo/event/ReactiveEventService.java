@@ -0,0 +1,33 @@
+package demo.event;
+
+import org.springframework.hateoas.Link;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.Serializable;
+
+/**
+ * Service interface for raising {@link Event}s without blocking the calling thread.
+ *
+ * @author Kenny Bastani
+ * @see EventService
+ * @see BasicReactiveEventService
+ */
+public interface ReactiveEventService<T extends Event, ID extends Serializable> extends EventService<T, ID> {
+
+    /**
+     * Raises an asynchronous domain event. An {@link Event} will be applied to an entity through a chain of HTTP
+     * requests/responses, which starts when the returned {@link Mono} is subscribed to.
+     *
+     * @return a {@link Mono} of the applied {@link Event}
+     */
+    <S extends T> Mono<S> sendAsync(S event, Link... links);
+
+    /**
+     * Raises a batch of asynchronous domain events. The requests of the events are pipelined over the pooled
+     * connections of the service, and the applied events are emitted in the order of the batch.
+     *
+     * @return a {@link Flux} of the applied {@link Event}s
+     */
+    <S extends T> Flux<S> sendAll(Iterable<S> events);
+}
@@ -0,0 +1,21 @@
+package demo.event;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.util.MimeType;
+
+/**
+ * A {@link PayloadCodec} that encodes payloads in the binary Smile format. A Smile payload has the same structure as
+ * JSON, but it is smaller and faster to encode and decode, since numbers are written in binary and repeated property
+ * names are written as back references.
+ *
+ * @author Kenny Bastani
+ */
+public class SmilePayloadCodec extends JacksonPayloadCodec {
+
+    public static final MimeType APPLICATION_SMILE = new MimeType("application", "x-jackson-smile");
+
+    public SmilePayloadCodec() {
+        super(new SmileFactory().enable(SmileGenerator.Feature.CHECK_SHARED_NAMES), APPLICATION_SMILE);
+    }
+}
@@ -0,0 +1,76 @@
+package demo.event;
+
+import demo.domain.Aggregate;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A {@link Snapshot} is the state of an {@link Aggregate} after a number of its {@link Event}s were applied. The id of
+ * the last applied event is the offset in the event log of the aggregate from which the snapshot can be brought up to
+ * date, so that the events before it do not need to be replayed.
+ *
+ * @param <A>  is the type of {@link Aggregate} in the snapshot
+ * @param <ID> is the type of the aggregate and event ids
+ * @author Kenny Bastani
+ * @see AggregateRehydrator
+ * @see SnapshotRepository
+ */
+public class Snapshot<A extends Aggregate, ID extends Serializable> {
+
+    private final ID aggregateId;
+    private final ID eventId;
+    private final long version;
+    private final A aggregate;
+    private final Date createdAt;
+
+    /**
+     * Creates a snapshot of an aggregate.
+     *
+     * @param aggregateId is the id of the aggregate
+     * @param eventId     is the id of the last event that was applied to the aggregate
+     * @param version     is the number of events that were applied to the aggregate
+     * @param aggregate   is the state of the aggregate
+     */
+    public Snapshot(ID aggregateId, ID eventId, long version, A aggregate) {
+        this(aggregateId, eventId, version, aggregate, new Date());
+    }
+
+    public Snapshot(ID aggregateId, ID eventId, long version, A aggregate, Date createdAt) {
+        this.aggregateId = aggregateId;
+        this.eventId = eventId;
+        this.version = version;
+        this.aggregate = aggregate;
+        this.createdAt = createdAt;
+    }
+
+    public ID getAggregateId() {
+        return aggregateId;
+    }
+
+    public ID getEventId() {
+        return eventId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public A getAggregate() {
+        return aggregate;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Snapshot{" +
+                "aggregateId=" + aggregateId +
+                ", eventId=" + eventId +
+                ", version=" + version +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package demo.event;
+
+import demo.domain.Aggregate;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+/**
+ * Repository interface for the latest {@link Snapshot} of each {@link Aggregate}.
+ * <p>
+ * A repository must keep the state of an aggregate as it was when the snapshot was saved, since the aggregate may
+ * continue to change after it is saved. Snapshots are typically copied by serializing the aggregate.
+ *
+ * @param <A>  is the type of {@link Aggregate} in the snapshots
+ * @param <ID> is the type of the aggregate and event ids
+ * @author Kenny Bastani
+ * @see InMemorySnapshotRepository
+ */
+public interface SnapshotRepository<A extends Aggregate, ID extends Serializable> {
+
+    /**
+     * Retrieves the latest snapshot of an aggregate.
+     *
+     * @param aggregateId is the id of the aggregate
+     * @return the snapshot with the largest version, or an empty optional if the aggregate has no snapshot
+     */
+    Optional<Snapshot<A, ID>> findLatest(ID aggregateId);
+
+    /**
+     * Saves a snapshot, unless the repository already has a snapshot of the aggregate with the same or a larger
+     * version.
+     *
+     * @param snapshot is the snapshot to save
+     */
+    void save(Snapshot<A, ID> snapshot);
+
+    /**
+     * Deletes the snapshot of an aggregate, so that the aggregate is rehydrated from its first event.
+     *
+     * @param aggregateId is the id of the aggregate
+     */
+    void delete(ID aggregateId);
+}
@@ -0,0 +1,96 @@
+package demo.domain;
+
+import demo.event.TestEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandRegistryTest {
+
+    @Test
+    public void expandsCommandTemplatesWithIdentity() {
+        List<Link> links = new CommandAggregate(7L).getCommands().getLinks().stream()
+                .sorted((a, b) -> a.getRel().value().compareTo(b.getRel().value()))
+                .collect(Collectors.toList());
+
+        assertEquals(2, links.size());
+        assertEquals("archive", links.get(0).getRel().value());
+        assertEquals("http://localhost/v1/things/7/commands/archive", links.get(0).getHref());
+        assertEquals("rename", links.get(1).getRel().value());
+        assertEquals("http://localhost/v1/things/7/commands/rename{?name}", links.get(1).getHref());
+        assertEquals("http://localhost/v1/things/7/commands/rename?name=other",
+                links.get(1).expand(Collections.singletonMap("name", "other")).getHref());
+        assertSame(CommandRegistry.getTemplates(CommandAggregate.class),
+                CommandRegistry.getTemplates(CommandAggregate.class));
+    }
+
+    @Test
+    public void rejectsCommandWithoutControllerMethod() {
+        assertThrows(IllegalStateException.class, () -> CommandRegistry.register(InvalidAggregate.class));
+    }
+
+    @RestController
+    @RequestMapping("/v1")
+    static class ThingController {
+
+        @PostMapping(path = "/things/{id}/commands/rename")
+        public void rename(@PathVariable Long id, @RequestParam(value = "name") String name) {
+        }
+
+        @PostMapping(path = "/things/{id}/commands/archive")
+        public void archive(@PathVariable Long id) {
+        }
+    }
+
+    static class CommandAggregate extends Aggregate<TestEvent, Long> {
+
+        private final Long id;
+
+        CommandAggregate(Long id) {
+            this.id = id;
+        }
+
+        @Command(method = "rename", controller = ThingController.class)
+        public CommandAggregate rename(String name) {
+            return this;
+        }
+
+        @Command(method = "archive", controller = ThingController.class)
+        public CommandAggregate archive() {
+            return this;
+        }
+
+        @Override
+        public Long getIdentity() {
+            return id;
+        }
+
+        @Override
+        public List<TestEvent> getEvents() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Link getId() {
+            return Link.of("/v1/things/" + id);
+        }
+    }
+
+    static class InvalidAggregate extends CommandAggregate {
+
+        InvalidAggregate() {
+            super(1L);
+        }
+
+        @Command(method = "missing", controller = ThingController.class)
+        public InvalidAggregate missing() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package demo.domain;
+
+import demo.event.EventService;
+import demo.event.TestEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.hateoas.Link;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DispatchCacheTest {
+
+    @Test
+    public void resolvesSingletonActionOnce() {
+        try (GenericApplicationContext context = start()) {
+            CountingService service = context.getBean(CountingService.class);
+            DispatchAggregate aggregate = new DispatchAggregate();
+
+            SingletonAction action = aggregate.getAction(SingletonAction.class);
+            assertSame(action, aggregate.getAction(SingletonAction.class));
+            assertSame(action, new DispatchAggregate().getAction(SingletonAction.class));
+            assertEquals(1, service.resolved);
+
+            PrototypeAction prototype = aggregate.getAction(PrototypeAction.class);
+            assertNotSame(prototype, aggregate.getAction(PrototypeAction.class));
+            assertEquals(3, service.resolved);
+        }
+    }
+
+    @Test
+    public void replacesCacheOfPreviousContext() {
+        SingletonAction previous;
+        try (GenericApplicationContext context = start()) {
+            previous = new DispatchAggregate().getAction(SingletonAction.class);
+        }
+
+        try (GenericApplicationContext context = start()) {
+            SingletonAction action = new DispatchAggregate().getAction(SingletonAction.class);
+            assertNotSame(previous, action);
+            assertSame(context.getBean(SingletonAction.class), action);
+        }
+    }
+
+    private static GenericApplicationContext start() {
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean(CountingService.class);
+        context.registerBean(DispatchModule.class, () -> new DispatchModule(context.getBean(CountingService.class)));
+        context.registerBean(SingletonAction.class);
+        context.registerBean(PrototypeAction.class, definition -> definition.setScope(BeanDefinition.SCOPE_PROTOTYPE));
+        context.refresh();
+        return context;
+    }
+
+    static class DispatchAggregate extends Aggregate<TestEvent, Long> {
+
+        @Override
+        public Long getIdentity() {
+            return 1L;
+        }
+
+        @Override
+        public List<TestEvent> getEvents() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends Module<A>, A extends Aggregate<TestEvent, Long>> T getModule() {
+            return (T) getModule(DispatchModule.class);
+        }
+
+        @Override
+        public Link getId() {
+            return Link.of("/aggregates/1");
+        }
+    }
+
+    static class DispatchModule extends Module<DispatchAggregate> {
+
+        private final CountingService service;
+
+        DispatchModule(CountingService service) {
+            this.service = service;
+        }
+
+        @Override
+        public CountingService getDefaultService() {
+            return service;
+        }
+
+        @Override
+        public EventService<?, ?> getDefaultEventService() {
+            return null;
+        }
+    }
+
+    static class CountingService extends Service<DispatchAggregate, Long> {
+
+        private int resolved = 0;
+
+        @Override
+        public <A extends Action<DispatchAggregate>> A getAction(Class<? extends A> clazz) {
+            resolved++;
+            return super.getAction(clazz);
+        }
+
+        @Override
+        public DispatchAggregate get(Long id) {
+            return null;
+        }
+
+        @Override
+        public DispatchAggregate create(DispatchAggregate entity) {
+            return entity;
+        }
+
+        @Override
+        public DispatchAggregate update(DispatchAggregate entity) {
+            return entity;
+        }
+
+        @Override
+        public boolean delete(Long id) {
+            return false;
+        }
+    }
+
+    static class SingletonAction extends Action<DispatchAggregate> {
+    }
+
+    static class PrototypeAction extends Action<DispatchAggregate> {
+    }
+}
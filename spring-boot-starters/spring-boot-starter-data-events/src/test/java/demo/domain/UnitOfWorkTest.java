@@ -0,0 +1,367 @@
+package demo.domain;
+
+import demo.event.EventBus;
+import demo.event.EventService;
+import demo.event.Events;
+import demo.event.TestEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.hateoas.Link;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitOfWorkTest {
+
+    @Test
+    public void savesEventsAndUpdatesAggregateOnce() {
+        TestEventService eventService = new TestEventService(null);
+        TestAggregate aggregate = new TestAggregate(1L, eventService);
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            aggregate.appendEvent(new TestEvent("CREATED", 1L));
+            aggregate.appendEvent(new TestEvent("UPDATED", 1L));
+            aggregate.appendEvent(new TestEvent("UPDATED", 1L));
+
+            assertTrue(eventService.batches.isEmpty());
+            assertEquals(0, aggregate.service.updates);
+            unitOfWork.commit();
+        }
+
+        assertEquals(Collections.singletonList(3), eventService.batches);
+        assertEquals(1, aggregate.service.updates);
+        assertNull(UnitOfWork.current());
+
+        // Without a unit of work, every event is saved immediately
+        aggregate.appendEvent(new TestEvent("UPDATED", 1L));
+        assertEquals(List.of(3, 1), eventService.batches);
+        assertEquals(2, aggregate.service.updates);
+    }
+
+    @Test
+    public void updatesEachAggregateInstanceAfterSavingEvents() {
+        TestEventService eventService = new TestEventService(null);
+        TestAggregate first = new TestAggregate(null, eventService);
+        TestAggregate second = new TestAggregate(null, eventService);
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            first.appendEvent(new TestEvent("CREATED", null));
+            second.appendEvent(new TestEvent("CREATED", null));
+            unitOfWork.commit();
+        }
+
+        // Aggregates without an identity are still updated separately, and only once their events are saved
+        assertEquals(Collections.singletonList(2), eventService.batches);
+        assertEquals(1, first.service.updates);
+        assertEquals(1, second.service.updates);
+        assertEquals(1, first.service.batchesBeforeUpdate);
+        assertEquals(1, second.service.batchesBeforeUpdate);
+    }
+
+    @Test
+    public void discardsWorkThatIsNotCommitted() {
+        TestEventService eventService = new TestEventService(null);
+        TestAggregate aggregate = new TestAggregate(1L, eventService);
+
+        try (UnitOfWork unitOfWork = UnitOfWork.begin()) {
+            aggregate.appendEvent(new TestEvent("CREATED", 1L));
+            assertFalse(unitOfWork.isEmpty());
+            assertThrows(IllegalStateException.class, UnitOfWork::begin);
+        }
+
+        assertTrue(eventService.batches.isEmpty());
+        assertEquals(0, aggregate.service.updates);
+    }
+
+    @Test
+    public void mergesConcurrentCommits() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        TestEventService eventService = new TestEventService(blocked);
+
+        Thread leader = commit(eventService, 1L);
+        leader.start();
+        while (eventService.batches.isEmpty()) {
+            Thread.sleep(1);
+        }
+
+        // The commits that queue up while the leader saves its batch are saved together
+        Thread first = commit(eventService, 2L);
+        Thread second = commit(eventService, 3L);
+        first.start();
+        second.start();
+        while (first.getState() != Thread.State.WAITING || second.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+
+        blocked.countDown();
+        leader.join();
+        first.join();
+        second.join();
+
+        assertEquals(List.of(1, 2), eventService.batches);
+    }
+
+    @Test
+    public void savesOwnEventsInsideTransaction() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        TestEventService eventService = new TestEventService(blocked);
+
+        Thread leader = commit(eventService, 1L);
+        leader.start();
+        while (eventService.batches.isEmpty()) {
+            Thread.sleep(1);
+        }
+
+        // A commit in a transaction does not wait for the group, so its events are rolled back with its transaction
+        Thread transactional = new Thread(() -> {
+            TransactionSynchronizationManager.setActualTransactionActive(true);
+            try {
+                UnitOfWork unitOfWork = new UnitOfWork(true);
+                unitOfWork.append(new TestAggregate(2L, eventService), eventService, new TestEvent("CREATED", 2L));
+                unitOfWork.flush();
+            } finally {
+                TransactionSynchronizationManager.setActualTransactionActive(false);
+            }
+        });
+        transactional.start();
+        transactional.join(10_000);
+        assertEquals(List.of(1, 1), eventService.batches);
+
+        blocked.countDown();
+        leader.join();
+    }
+
+    @Test
+    public void publishesCopyOfSentEventAfterCommit() {
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            context.registerBean(EventBus.class, () -> new EventBus(8));
+            context.refresh();
+            new TestModule(null, null).setApplicationContext(context);
+
+            List<TestEvent> received = new ArrayList<>();
+            context.getBean(EventBus.class).subscribe("projection", TestEvent.class, received::add);
+            TestAggregate aggregate = new TestAggregate(1L, new TestEventService(null));
+
+            // An event that is rolled back is never published
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                aggregate.sendEvent(event(1L, "CREATED"));
+                TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            assertTrue(received.isEmpty());
+
+            TestEvent sent = event(2L, "UPDATED");
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                aggregate.sendEvent(sent);
+                assertTrue(received.isEmpty());
+                TransactionSynchronizationUtils.triggerAfterCommit();
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            assertEquals(1, received.size());
+            assertEquals(2L, received.get(0).getEventId());
+            assertNotSame(sent, received.get(0));
+
+            // Without a transaction, the event is published right away
+            aggregate.sendEvent(event(3L, "UPDATED"));
+            assertEquals(3L, received.get(1).getEventId());
+        } finally {
+            new TestModule(null, null).setApplicationContext(null);
+        }
+    }
+
+    @Test
+    public void copiesSentEventOnlyForMatchingSubscribers() {
+        try (GenericApplicationContext context = new GenericApplicationContext()) {
+            context.registerBean(EventBus.class, () -> new EventBus(8));
+            context.refresh();
+            new TestModule(null, null).setApplicationContext(context);
+
+            List<EmptyEvent> received = new ArrayList<>();
+            context.getBean(EventBus.class).subscribe("projection", EmptyEvent.class, received::add);
+            TestAggregate aggregate = new TestAggregate(1L, new TestEventService(null));
+
+            // Without a subscriber of the event class, nothing waits for the transaction to commit
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                aggregate.sendEvent(event(1L, "CREATED"));
+                assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            assertTrue(received.isEmpty());
+        } finally {
+            new TestModule(null, null).setApplicationContext(null);
+        }
+    }
+
+    private static TestEvent event(Long eventId, String type) {
+        TestEvent event = new TestEvent(type, 1L);
+        event.setEventId(eventId);
+        return event;
+    }
+
+    private static Thread commit(TestEventService eventService, Long id) {
+        return new Thread(() -> {
+            UnitOfWork unitOfWork = new UnitOfWork(true);
+            TestAggregate aggregate = new TestAggregate(id, eventService);
+            unitOfWork.append(aggregate, eventService, new TestEvent("CREATED", id));
+            unitOfWork.flush();
+        });
+    }
+
+    static class TestAggregate extends Aggregate<TestEvent, Long> {
+
+        private final Long id;
+        private final List<TestEvent> events = new ArrayList<>();
+        private final TestModule module;
+        private final TestService service;
+
+        TestAggregate(Long id, TestEventService eventService) {
+            this.id = id;
+            this.service = new TestService(eventService);
+            this.module = new TestModule(service, eventService);
+        }
+
+        @Override
+        public Long getIdentity() {
+            return id;
+        }
+
+        @Override
+        public List<TestEvent> getEvents() {
+            return events;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends Module<A>, A extends Aggregate<TestEvent, Long>> T getModule() {
+            return (T) module;
+        }
+
+        @Override
+        public Link getId() {
+            return Link.of("/aggregates/" + id);
+        }
+    }
+
+    static class TestModule extends Module<TestAggregate> {
+
+        private final TestService service;
+        private final TestEventService eventService;
+
+        TestModule(TestService service, TestEventService eventService) {
+            this.service = service;
+            this.eventService = eventService;
+        }
+
+        @Override
+        public TestService getDefaultService() {
+            return service;
+        }
+
+        @Override
+        public TestEventService getDefaultEventService() {
+            return eventService;
+        }
+    }
+
+    static class TestService extends Service<TestAggregate, Long> {
+
+        private final TestEventService eventService;
+        private int updates = 0;
+        private int batchesBeforeUpdate = 0;
+
+        TestService(TestEventService eventService) {
+            this.eventService = eventService;
+        }
+
+        @Override
+        public TestAggregate get(Long id) {
+            return null;
+        }
+
+        @Override
+        public TestAggregate create(TestAggregate entity) {
+            return entity;
+        }
+
+        @Override
+        public TestAggregate update(TestAggregate entity) {
+            updates++;
+            batchesBeforeUpdate = eventService.batches.size();
+            return entity;
+        }
+
+        @Override
+        public boolean delete(Long id) {
+            return false;
+        }
+    }
+
+    static class TestEventService implements EventService<TestEvent, Long> {
+
+        private final List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch blocked;
+
+        TestEventService(CountDownLatch blocked) {
+            this.blocked = blocked;
+        }
+
+        @Override
+        public <E extends Aggregate, S extends TestEvent> S send(S event, Link... links) {
+            return event;
+        }
+
+        @Override
+        public <S extends TestEvent> S save(S event) {
+            return saveAll(Collections.singletonList(event)).get(0);
+        }
+
+        @Override
+        public <S extends TestEvent> List<S> saveAll(List<S> events) {
+            batches.add(events.size());
+            if (blocked != null && batches.size() == 1) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return events;
+        }
+
+        @Override
+        public <S extends TestEvent> S save(Long id, S event) {
+            event.setEventId(id);
+            return save(event);
+        }
+
+        @Override
+        public <EID extends Long> TestEvent findOne(EID id) {
+            return null;
+        }
+
+        @Override
+        public <E extends Events> E find(Long entityId) {
+            return null;
+        }
+
+        @Override
+        public Slice<TestEvent> find(Long entityId, Long after, int size) {
+            return new SliceImpl<>(Collections.emptyList());
+        }
+    }
+}
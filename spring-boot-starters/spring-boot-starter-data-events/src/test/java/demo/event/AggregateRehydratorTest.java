@@ -0,0 +1,135 @@
+package demo.event;
+
+import demo.domain.Aggregate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.hateoas.Link;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AggregateRehydratorTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger replayed = new AtomicInteger();
+
+    @Test
+    public void replaysOnlyEventsAfterSnapshot() throws IOException {
+        try (EventLogRepository<TestEvent> repository = open()) {
+            append(repository, 25);
+            InMemorySnapshotRepository<Counter, Long> snapshots = new InMemorySnapshotRepository<>(Counter.class);
+            AggregateRehydrator<Counter, TestEvent, Long> rehydrator = rehydrator(repository, snapshots, 10);
+
+            Counter counter = rehydrator.rehydrate(1L);
+            assertEquals(25, counter.getCount());
+            assertEquals(25, replayed.getAndSet(0));
+
+            Snapshot<Counter, Long> snapshot = snapshots.findLatest(1L).orElseThrow();
+            assertEquals(20L, snapshot.getVersion());
+            assertEquals(20, snapshot.getAggregate().getCount());
+
+            append(repository, 3);
+            counter = rehydrator.rehydrate(1L);
+            assertEquals(28, counter.getCount());
+            assertEquals("EVENT_2", counter.getLastType());
+            assertEquals(8, replayed.get());
+        }
+    }
+
+    @Test
+    public void snapshotIsNotChangedByLaterEvents() throws IOException {
+        try (EventLogRepository<TestEvent> repository = open()) {
+            append(repository, 5);
+            InMemorySnapshotRepository<Counter, Long> snapshots = new InMemorySnapshotRepository<>(Counter.class);
+            AggregateRehydrator<Counter, TestEvent, Long> rehydrator = rehydrator(repository, snapshots, 0);
+
+            assertEquals(5L, rehydrator.snapshot(1L).orElseThrow().getVersion());
+            rehydrator.rehydrate(1L).setCount(100);
+            append(repository, 1);
+
+            assertEquals(6, rehydrator.rehydrate(1L).getCount());
+            assertEquals(5, snapshots.findLatest(1L).orElseThrow().getAggregate().getCount());
+            assertFalse(rehydrator.snapshot(2L).isPresent());
+        }
+    }
+
+    private AggregateRehydrator<Counter, TestEvent, Long> rehydrator(EventLogRepository<TestEvent> repository,
+                                                                     SnapshotRepository<Counter, Long> snapshots,
+                                                                     int interval) {
+        AggregateRehydrator<Counter, TestEvent, Long> rehydrator = new AggregateRehydrator<>(
+                new BasicEventService<>(repository, null), snapshots, Counter::new, (counter, event) -> {
+            replayed.incrementAndGet();
+            counter.setCount(counter.getCount() + 1);
+            counter.setLastType(event.getType());
+            return counter;
+        }, interval);
+        rehydrator.setPageSize(4);
+        return rehydrator;
+    }
+
+    private static void append(EventLogRepository<TestEvent> repository, int count) {
+        for (int i = 0; i < count; i++) {
+            repository.save(new TestEvent("EVENT_" + i, 1L));
+        }
+    }
+
+    private EventLogRepository<TestEvent> open() {
+        return new EventLogRepository<>(directory, new JsonEventCodec<>(TestEvent.class), 4096, false);
+    }
+
+    public static class Counter extends Aggregate<TestEvent, Long> {
+
+        private Long id;
+        private int count;
+        private String lastType;
+
+        public Counter() {
+        }
+
+        public Counter(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public Long getIdentity() {
+            return id;
+        }
+
+        public void setIdentity(Long id) {
+            this.id = id;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getLastType() {
+            return lastType;
+        }
+
+        public void setLastType(String lastType) {
+            this.lastType = lastType;
+        }
+
+        @Override
+        public List<TestEvent> getEvents() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Link getId() {
+            return Link.of("/counters/" + id);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package demo.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import demo.domain.Aggregate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.Link;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasicReactiveEventServiceTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private DisposableServer server;
+
+    @AfterEach
+    public void stop() {
+        server.disposeNow();
+    }
+
+    @Test
+    public void retriesServerErrors() {
+        BasicReactiveEventService<ParcelEvent, Long> eventService = start(2);
+
+        ParcelEvent event = eventService.sendAsync(new ParcelEvent(new Parcel("created"))).block();
+
+        assertNotNull(event);
+        assertEquals("applied", event.getEntity().getName());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void failsWhenRetriesAreExhausted() {
+        BasicReactiveEventService<ParcelEvent, Long> eventService = start(Integer.MAX_VALUE);
+
+        Mono<ParcelEvent> event = eventService.sendAsync(new ParcelEvent(new Parcel("created")));
+
+        assertThrows(ResourceAccessException.class, event::block);
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void doesNotRetryRequestsThatMayHaveBeenApplied() {
+        BasicReactiveEventService<ParcelEvent, Long> eventService = start(Integer.MAX_VALUE, 500);
+
+        Mono<ParcelEvent> event = eventService.sendAsync(new ParcelEvent(new Parcel("created")));
+
+        assertThrows(ResourceAccessException.class, event::block);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void retriesConnectionFailures() {
+        BasicReactiveEventService<ParcelEvent, Long> eventService = start(0);
+        eventService.setEventsWorker("http://localhost:" + unusedPort() + "/v1/events");
+
+        Mono<ParcelEvent> event = eventService.sendAsync(new ParcelEvent(new Parcel("created")));
+
+        ResourceAccessException ex = assertThrows(ResourceAccessException.class, event::block);
+        assertTrue(ex.getMessage().contains("Retries exhausted"));
+        assertEquals(0, requests.get());
+    }
+
+    @Test
+    public void sendsBatchInOrder() {
+        BasicReactiveEventService<ParcelEvent, Long> eventService = start(0);
+        List<ParcelEvent> events = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            events.add(new ParcelEvent(new Parcel("created")));
+        }
+
+        List<ParcelEvent> applied = eventService.sendAll(events).collectList().block();
+
+        assertEquals(events, applied);
+        assertTrue(applied.stream().allMatch(event -> event.getEntity().getName().equals("applied")));
+        assertEquals(20, requests.get());
+    }
+
+    private BasicReactiveEventService<ParcelEvent, Long> start(int failures) {
+        return start(failures, 503);
+    }
+
+    private BasicReactiveEventService<ParcelEvent, Long> start(int failures, int status) {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.post("/v1/events", (request, response) -> {
+                    if (requests.incrementAndGet() <= failures) {
+                        return response.status(status).send();
+                    }
+                    return response.header("Content-Type", "application/json")
+                            .sendString(Mono.just("{\"name\":\"applied\"}"));
+                }))
+                .bindNow();
+
+        BasicReactiveEventService<ParcelEvent, Long> eventService = new BasicReactiveEventService<>(null, null,
+                BasicReactiveEventService.pooledWebClient(WebClient.builder(), 4, Duration.ofSeconds(5)));
+        eventService.setEventsWorker("http://localhost:" + server.port() + "/v1/events");
+        eventService.setMinBackoffMillis(1L);
+        return eventService;
+    }
+
+    private static int unusedPort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Parcel extends Aggregate<ParcelEvent, Long> {
+
+        private String name;
+
+        public Parcel() {
+        }
+
+        public Parcel(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Long getIdentity() {
+            return 1L;
+        }
+
+        @Override
+        public List<ParcelEvent> getEvents() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Link getId() {
+            return Link.of("/v1/parcels/1");
+        }
+    }
+
+    @JsonIgnoreProperties({"links", "entity"})
+    public static class ParcelEvent extends Event<Parcel, String, Long> {
+
+        private Parcel entity;
+
+        public ParcelEvent(Parcel entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        public Long getEventId() {
+            return null;
+        }
+
+        @Override
+        public void setEventId(Long eventId) {
+        }
+
+        @Override
+        public String getType() {
+            return "PARCEL_CREATED";
+        }
+
+        @Override
+        public void setType(String type) {
+        }
+
+        @Override
+        public Parcel getEntity() {
+            return entity;
+        }
+
+        @Override
+        public void setEntity(Parcel entity) {
+            this.entity = entity;
+        }
+
+        @Override
+        public Long getAggregateId() {
+            return 1L;
+        }
+
+        @Override
+        public void setAggregateId(Long aggregateId) {
+        }
+
+        @Override
+        public Date getCreatedAt() {
+            return null;
+        }
+
+        @Override
+        public void setCreatedAt(Date createdAt) {
+        }
+
+        @Override
+        public Date getLastModified() {
+            return null;
+        }
+
+        @Override
+        public void setLastModified(Date lastModified) {
+        }
+    }
+}
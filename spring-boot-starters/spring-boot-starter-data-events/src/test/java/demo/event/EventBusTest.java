@@ -0,0 +1,173 @@
+package demo.event;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventBusTest {
+
+    @Test
+    public void deliversSyncEventsOnPublisherThread() {
+        try (EventBus eventBus = new EventBus(8)) {
+            List<String> received = new ArrayList<>();
+            List<String> other = new ArrayList<>();
+            List<Thread> threads = new ArrayList<>();
+            eventBus.subscribe("projection", TestEvent.class, event -> {
+                received.add(event.getType());
+                threads.add(Thread.currentThread());
+            });
+            eventBus.subscribe("other", OtherEvent.class, event -> other.add(event.getType()));
+
+            eventBus.publish(event(1L, "CREATED", 1L));
+            eventBus.publish(new OtherEvent());
+            eventBus.publish(event(2L, "UPDATED", 1L));
+
+            assertEquals(List.of("CREATED", "OTHER", "UPDATED"), received);
+            assertEquals(List.of("OTHER"), other);
+            assertEquals(Collections.nCopies(3, Thread.currentThread()), threads);
+
+            RuntimeException failure = new IllegalStateException("Projection failed");
+            eventBus.subscribe("failing", TestEvent.class, event -> {
+                throw failure;
+            });
+            assertSame(failure, assertThrows(IllegalStateException.class,
+                    () -> eventBus.publish(event(3L, "DELETED", 1L))));
+        }
+    }
+
+    @Test
+    public void deliversAsyncEventsInAggregateOrder() throws InterruptedException {
+        int aggregates = 16;
+        int events = 10_000;
+        Map<Long, List<Long>> received = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(events);
+
+        // The ring is much smaller than the number of events, so that the publisher waits for the subscriber
+        try (EventBus eventBus = new EventBus(64)) {
+            eventBus.subscribe("projection", TestEvent.class, EventBus.Delivery.ASYNC, 4, event -> {
+                received.computeIfAbsent(event.getAggregateId(), id -> new ArrayList<>()).add(event.getEventId());
+                threads.add(Thread.currentThread().getName());
+                latch.countDown();
+            });
+
+            for (long eventId = 1; eventId <= events; eventId++) {
+                eventBus.publish(event(eventId, "UPDATED", eventId % aggregates));
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(aggregates, received.size());
+        received.forEach((aggregateId, eventIds) -> {
+            assertEquals(events / aggregates, eventIds.size());
+            for (int i = 1; i < eventIds.size(); i++) {
+                assertTrue(eventIds.get(i - 1) < eventIds.get(i));
+            }
+        });
+        assertEquals(4, threads.size());
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void handlesPublishedEventsBeforeClosing() {
+        List<Long> received = new CopyOnWriteArrayList<>();
+        EventBus eventBus = new EventBus(16);
+        eventBus.subscribe("projection", TestEvent.class, EventBus.Delivery.ASYNC, 2, event -> {
+            if (event.getEventId() == 3L) {
+                throw new IllegalStateException("Projection failed");
+            }
+            received.add(event.getEventId());
+        });
+
+        for (long eventId = 1; eventId <= 100; eventId++) {
+            eventBus.publish(event(eventId, "UPDATED", eventId));
+        }
+        eventBus.close();
+
+        assertEquals(99, received.size());
+        assertFalse(received.contains(3L));
+        assertThrows(IllegalStateException.class, () -> eventBus.publish(event(101L, "UPDATED", 1L)));
+    }
+
+    @Test
+    public void matchesSubscribersByEventClass() {
+        try (EventBus eventBus = new EventBus(8)) {
+            assertFalse(eventBus.hasSubscribers(TestEvent.class));
+
+            EventBus.Subscription<Event> subscription = eventBus.subscribe("audit", Event.class,
+                    EventBus.Delivery.ASYNC, 1, event -> {
+                    });
+            assertTrue(eventBus.hasSubscribers(TestEvent.class));
+
+            subscription.cancel();
+            eventBus.subscribe("other", OtherEvent.class, event -> {
+            });
+            assertFalse(eventBus.hasSubscribers(TestEvent.class));
+            assertTrue(eventBus.hasSubscribers(OtherEvent.class));
+        }
+    }
+
+    @Test
+    public void subscribesAnnotatedMethods() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(EventBusAutoConfig.class))
+                .withPropertyValues("event.bus.enabled=true", "event.bus.buffer-size=32")
+                .withBean(Projection.class)
+                .run(context -> {
+                    EventBus eventBus = context.getBean(EventBus.class);
+                    assertEquals(32, eventBus.getBufferSize());
+
+                    eventBus.publish(event(1L, "CREATED", 1L));
+                    eventBus.publish(event(2L, "UPDATED", 1L));
+                    eventBus.publish(event(3L, "CREATED", 2L));
+
+                    Projection projection = context.getBean(Projection.class);
+                    assertEquals(List.of(1L, 3L), projection.created);
+                    assertTrue(projection.latch.await(10, TimeUnit.SECONDS));
+                    assertEquals(List.of(1L, 2L, 3L), projection.received);
+                });
+
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(EventBusAutoConfig.class))
+                .run(context -> assertFalse(context.containsBean("eventBus")));
+    }
+
+    private static TestEvent event(Long eventId, String type, Long aggregateId) {
+        TestEvent event = new TestEvent(type, aggregateId);
+        event.setEventId(eventId);
+        return event;
+    }
+
+    public static class Projection {
+
+        private final List<Long> created = new CopyOnWriteArrayList<>();
+        private final List<Long> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch latch = new CountDownLatch(3);
+
+        @EventSubscriber(types = "CREATED", delivery = EventBus.Delivery.SYNC)
+        public void onCreated(TestEvent event) {
+            created.add(event.getEventId());
+        }
+
+        @EventSubscriber
+        public void onEvent(TestEvent event) {
+            received.add(event.getEventId());
+            latch.countDown();
+        }
+    }
+
+    public static class OtherEvent extends TestEvent {
+
+        public OtherEvent() {
+            super("OTHER", 1L);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package demo.event;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Subscription;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.data.domain.PageRequest.of;
+
+public class EventLogRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void findsEventsByAggregateId() throws IOException {
+        try (EventLogRepository<TestEvent> repository = open(1024)) {
+            for (long i = 0; i < 10; i++) {
+                repository.save(new TestEvent("EVENT_" + i, i % 2));
+            }
+
+            List<TestEvent> events = repository.findAllByAggregateId(1L, of(1, 2)).getContent();
+            assertEquals(2, events.size());
+            assertEquals("EVENT_5", events.get(0).getType());
+            assertEquals("EVENT_7", events.get(1).getType());
+            assertEquals(5, repository.findAllByAggregateId(1L, of(0, 2)).getTotalElements());
+            assertEquals(10, repository.count());
+            assertEquals("EVENT_3", repository.findById(4L).orElseThrow().getType());
+            assertNotNull(repository.findById(4L).orElseThrow().getCreatedAt());
+        }
+    }
+
+    @Test
+    public void readsEventsAfterCursor() throws IOException, InterruptedException {
+        try (EventLogRepository<TestEvent> repository = open(256)) {
+            for (long i = 0; i < 30; i++) {
+                repository.save(new TestEvent("EVENT_" + i, i % 3));
+            }
+
+            BasicEventService<TestEvent, Long> eventService = new BasicEventService<>(repository, null);
+            Slice<TestEvent> first = eventService.find(1L, null, 4);
+            assertEquals(List.of(2L, 5L, 8L, 11L), first.map(TestEvent::getEventId).getContent());
+            assertTrue(first.hasNext());
+
+            Slice<TestEvent> last = eventService.find(1L, 23L, 4);
+            assertEquals(List.of(26L, 29L), last.map(TestEvent::getEventId).getContent());
+            assertFalse(last.hasNext());
+
+            List<Long> streamed = eventService.stream(1L, 3).map(TestEvent::getEventId).collectList().block();
+            assertEquals(List.of(2L, 5L, 8L, 11L, 14L, 17L, 20L, 23L, 26L, 29L), streamed);
+            assertEquals(List.of(), eventService.stream(7L, 3).collectList().block());
+
+            // A subscriber that requests a single event reads no more than one slice ahead of it
+            AtomicInteger reads = new AtomicInteger();
+            BasicEventService<TestEvent, Long> countingService = new BasicEventService<>(repository, null) {
+                @Override
+                public Slice<TestEvent> find(Long entityId, Long after, int size) {
+                    reads.incrementAndGet();
+                    return super.find(entityId, after, size);
+                }
+            };
+            BlockingQueue<Long> received = new LinkedBlockingQueue<>();
+            BaseSubscriber<TestEvent> subscriber = new BaseSubscriber<>() {
+                @Override
+                protected void hookOnSubscribe(Subscription subscription) {
+                    request(1);
+                }
+
+                @Override
+                protected void hookOnNext(TestEvent event) {
+                    received.add(event.getEventId());
+                }
+            };
+            countingService.stream(1L, 3).subscribe(subscriber);
+            assertEquals(2L, received.poll(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            subscriber.dispose();
+            assertTrue(reads.get() <= 2);
+        }
+    }
+
+    @Test
+    public void appendsEventsAfterTransactionCommits() throws IOException {
+        try (EventLogRepository<TestEvent> repository = open(1024)) {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                TestEvent event = repository.save(new TestEvent("CREATED", 1L));
+                assertEquals(1L, event.getEventId());
+                assertFalse(repository.existsById(1L));
+                TransactionSynchronizationUtils.triggerAfterCommit();
+                TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            assertTrue(repository.existsById(1L));
+
+            // The events of a transaction that rolls back are never appended
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                repository.saveAll(List.of(new TestEvent("UPDATED", 1L), new TestEvent("UPDATED", 2L)));
+                TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            assertEquals(1L, repository.count());
+            assertNull(TransactionSynchronizationManager.getResource(repository));
+
+            assertEquals(4L, repository.save(new TestEvent("UPDATED", 1L)).getEventId());
+        }
+
+        try (EventLogRepository<TestEvent> repository = open(1024)) {
+            assertTrue(repository.existsById(1L));
+            assertFalse(repository.existsById(2L));
+            assertTrue(repository.existsById(4L));
+            assertEquals(2L, repository.count());
+        }
+    }
+
+    @Test
+    public void rebuildsIndexFromSegments() throws IOException {
+        try (EventLogRepository<TestEvent> repository = open(128)) {
+            for (long i = 0; i < 20; i++) {
+                repository.save(new TestEvent("EVENT_" + i, i % 3));
+            }
+
+            TestEvent event = repository.findById(2L).orElseThrow();
+            event.setType("UPDATED");
+            repository.save(event);
+            assertTrue(repository.getSegmentCount() > 1);
+        }
+
+        try (EventLogRepository<TestEvent> repository = open(128)) {
+            assertEquals(20, repository.count());
+            assertEquals("UPDATED", repository.findById(2L).orElseThrow().getType());
+            assertEquals(List.of(2L, 5L, 8L, 11L, 14L, 17L, 20L), repository.findAllByAggregateId(1L, of(0, 100))
+                    .map(TestEvent::getEventId).getContent());
+            assertEquals(21L, repository.save(new TestEvent("EVENT_20", 2L)).getEventId());
+        }
+    }
+
+    @Test
+    public void truncatesIncompleteRecord() throws IOException {
+        try (EventLogRepository<TestEvent> repository = open(1024)) {
+            repository.save(new TestEvent("EVENT_0", 1L));
+            repository.save(new TestEvent("EVENT_1", 1L));
+        }
+
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.collect(Collectors.toList()).get(0);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        try (EventLogRepository<TestEvent> repository = open(1024)) {
+            assertEquals(1, repository.count());
+            assertEquals(2L, repository.save(new TestEvent("EVENT_1", 1L)).getEventId());
+            assertEquals(2, repository.findAllByAggregateId(1L, of(0, 10)).getTotalElements());
+        }
+    }
+
+    private EventLogRepository<TestEvent> open(long segmentSize) {
+        return new EventLogRepository<>(directory, new JsonEventCodec<>(TestEvent.class), segmentSize, false);
+    }
+}
@@ -0,0 +1,188 @@
+package demo.event;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutboxRelayTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void relaysEventsInBatches() throws IOException {
+        try (EventLogRepository<TestEvent> repository = open()) {
+            append(repository, 25);
+
+            InMemoryOutboxSink<TestEvent> sink = new InMemoryOutboxSink<>();
+            OutboxRelay<TestEvent> relay = relay(repository, sink, new InMemoryHighWaterMarkRepository());
+            relay.setBatchSize(10);
+
+            assertEquals(10, relay.relay());
+            assertEquals(10L, relay.getHighWaterMark());
+            assertEquals(15, relay.drain());
+            assertEquals(3, sink.getBatches());
+            assertEquals(LongStream.rangeClosed(1, 25).boxed().collect(Collectors.toList()), eventIds(sink));
+
+            append(repository, 5);
+            assertEquals(5, relay.drain());
+            assertEquals(0, relay.drain());
+            assertEquals(30L, relay.getHighWaterMark());
+        }
+    }
+
+    @Test
+    public void republishesBatchWhenSinkFails() throws IOException {
+        try (EventLogRepository<TestEvent> repository = open()) {
+            append(repository, 5);
+
+            InMemoryOutboxSink<TestEvent> sink = new InMemoryOutboxSink<>();
+            boolean[] failing = {true};
+            HighWaterMarkRepository marks = new InMemoryHighWaterMarkRepository();
+            OutboxRelay<TestEvent> relay = relay(repository, events -> {
+                if (failing[0]) {
+                    throw new IllegalStateException("Broker is unavailable");
+                }
+                sink.publish(events);
+            }, marks);
+
+            assertThrows(IllegalStateException.class, relay::relay);
+            assertEquals(0L, relay.getHighWaterMark());
+
+            failing[0] = false;
+            assertEquals(5, relay.relay());
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), eventIds(sink));
+            assertEquals(5L, relay.getHighWaterMark());
+        }
+    }
+
+    @Test
+    public void relaysInterleavedIdsWithoutWaitingForHoles() throws IOException {
+        try (EventLogRepository<TestEvent> repository = open()) {
+            InMemoryOutboxSink<TestEvent> sink = new InMemoryOutboxSink<>();
+            OutboxRelay<TestEvent> relay = relay(repository, sink, new InMemoryHighWaterMarkRepository());
+
+            // The other ids of the shared sequence were allocated to other tables, so they never commit here
+            save(repository, Instant.EPOCH, 2L, 5L, 9L, 14L);
+            assertEquals(4, relay.relay());
+            assertEquals(List.of(2L, 5L, 9L, 14L), eventIds(sink));
+            assertEquals(14L, relay.getHighWaterMark());
+        }
+    }
+
+    @Test
+    public void waitsForCommitLagBeforeRelayingEvents() throws IOException {
+        try (EventLogRepository<TestEvent> repository = open()) {
+            InMemoryOutboxSink<TestEvent> sink = new InMemoryOutboxSink<>();
+            OutboxRelay<TestEvent> relay = relay(repository, sink, new InMemoryHighWaterMarkRepository());
+            Instant now = Instant.EPOCH.plusSeconds(60);
+            relay.setClock(Clock.fixed(now, ZoneOffset.UTC));
+            relay.setCommitLag(Duration.ofSeconds(5));
+
+            // The transaction of event 7 commits after the transaction of event 9, which is still within the lag
+            save(repository, now.minusSeconds(30), 2L, 5L);
+            save(repository, now.minusSeconds(1), 9L);
+            assertEquals(2, relay.relay());
+            assertEquals(0, relay.relay());
+            assertEquals(5L, relay.getHighWaterMark());
+
+            save(repository, now.minusSeconds(2), 7L);
+            assertEquals(0, relay.relay());
+            relay.setClock(Clock.fixed(now.plusSeconds(4), ZoneOffset.UTC));
+            assertEquals(2, relay.relay());
+            assertEquals(List.of(2L, 5L, 7L, 9L), eventIds(sink));
+            assertEquals(9L, relay.getHighWaterMark());
+        }
+    }
+
+    @Test
+    public void skipsRelayWhenMarkIsLocked() throws Exception {
+        try (EventLogRepository<TestEvent> repository = open()) {
+            append(repository, 5);
+
+            InMemoryOutboxSink<TestEvent> sink = new InMemoryOutboxSink<>();
+            HighWaterMarkRepository marks = new InMemoryHighWaterMarkRepository();
+            OutboxRelay<TestEvent> relay = relay(repository, sink, marks);
+
+            assertTrue(marks.lock("test").isPresent());
+            assertEquals(0, CompletableFuture.supplyAsync(relay::relay).get());
+            assertTrue(sink.getEvents().isEmpty());
+
+            marks.unlock("test");
+            assertEquals(5, CompletableFuture.supplyAsync(relay::relay).get());
+        }
+    }
+
+    @Test
+    public void keepsHighWaterMarkInTable() throws IOException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        // H2 does not support SKIP LOCKED
+        JdbcHighWaterMarkRepository marks = new JdbcHighWaterMarkRepository(jdbcTemplate,
+                JdbcHighWaterMarkRepository.DEFAULT_TABLE, false);
+        marks.createTable();
+
+        try (EventLogRepository<TestEvent> repository = open()) {
+            append(repository, 12);
+
+            InMemoryOutboxSink<TestEvent> sink = new InMemoryOutboxSink<>();
+            OutboxRelay<TestEvent> relay = new OutboxRelay<>("orders", repository, sink, marks, transactionTemplate);
+            relay.setBatchSize(5);
+
+            assertEquals(12, relay.drain());
+            assertEquals(12L, marks.get("orders"));
+            assertEquals(0L, marks.get("drivers"));
+            assertEquals(OptionalLong.of(12L), transactionTemplate.execute(status -> marks.lock("orders")));
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + marks.getTable(), Integer.class));
+        }
+    }
+
+    private void append(EventLogRepository<TestEvent> repository, int count) {
+        for (int i = 0; i < count; i++) {
+            repository.save(new TestEvent("EVENT_" + i, (long) (i % 3)));
+        }
+    }
+
+    private void save(EventLogRepository<TestEvent> repository, Instant createdAt, Long... eventIds) {
+        for (Long eventId : eventIds) {
+            TestEvent event = new TestEvent("EVENT_" + eventId, eventId % 3);
+            event.setEventId(eventId);
+            event.setCreatedAt(Date.from(createdAt));
+            repository.save(event);
+        }
+    }
+
+    private List<Long> eventIds(InMemoryOutboxSink<TestEvent> sink) {
+        return sink.getEvents().stream().map(TestEvent::getEventId).collect(Collectors.toList());
+    }
+
+    private OutboxRelay<TestEvent> relay(EventLogRepository<TestEvent> repository, OutboxSink<TestEvent> sink,
+                                         HighWaterMarkRepository marks) {
+        return new OutboxRelay<>("test", repository, sink, marks, TransactionOperations.withoutTransaction());
+    }
+
+    private EventLogRepository<TestEvent> open() {
+        return new EventLogRepository<>(directory, new JsonEventCodec<>(TestEvent.class), 1024, false);
+    }
+}
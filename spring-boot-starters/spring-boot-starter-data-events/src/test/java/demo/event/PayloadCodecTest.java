@@ -0,0 +1,41 @@
+package demo.event;
+
+import demo.event.AggregateRehydratorTest.Counter;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.Link;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PayloadCodecTest {
+
+    @Test
+    public void encodesJsonWithoutLinksOrNulls() {
+        Counter counter = new Counter(7L);
+        counter.setCount(3);
+        counter.add(Link.of("/counters/7/commands"));
+
+        String json = JsonPayloadCodec.getInstance().encodeToString(counter);
+
+        assertFalse(json.contains("links"), json);
+        assertFalse(json.contains("lastType"), json);
+        Counter decoded = JsonPayloadCodec.getInstance().decode(json, Counter.class);
+        assertEquals(7L, decoded.getIdentity());
+        assertEquals(3, decoded.getCount());
+    }
+
+    @Test
+    public void encodesSmallerBinaryPayloads() {
+        Counter counter = new Counter(7L);
+        counter.setCount(123456);
+        counter.setLastType("COUNTER_INCREMENTED");
+        SmilePayloadCodec codec = new SmilePayloadCodec();
+
+        byte[] smile = codec.encode(counter);
+
+        assertTrue(smile.length < JsonPayloadCodec.getInstance().encode(counter).length);
+        Counter decoded = codec.decode(smile, Counter.class);
+        assertEquals(7L, decoded.getIdentity());
+        assertEquals(123456, decoded.getCount());
+        assertEquals("COUNTER_INCREMENTED", decoded.getLastType());
+    }
+}
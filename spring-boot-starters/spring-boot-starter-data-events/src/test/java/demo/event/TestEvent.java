@@ -0,0 +1,81 @@
+package demo.event;
+
+import demo.domain.Aggregate;
+
+import java.util.Date;
+
+public class TestEvent extends Event<Aggregate, String, Long> {
+
+    private Long eventId;
+    private String type;
+    private Long aggregateId;
+    private Date createdAt;
+    private Date lastModified;
+
+    public TestEvent() {
+    }
+
+    public TestEvent(String type, Long aggregateId) {
+        this.type = type;
+        this.aggregateId = aggregateId;
+    }
+
+    @Override
+    public Long getEventId() {
+        return eventId;
+    }
+
+    @Override
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    @Override
+    public Aggregate getEntity() {
+        return null;
+    }
+
+    @Override
+    public void setEntity(Aggregate entity) {
+    }
+
+    @Override
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    @Override
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    @Override
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public Date getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public void setLastModified(Date lastModified) {
+        this.lastModified = lastModified;
+    }
+}